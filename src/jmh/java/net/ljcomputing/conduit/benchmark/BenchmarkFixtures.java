@@ -0,0 +1,205 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import net.ljcomputing.conduit.ConduitApplication;
+import net.ljcomputing.conduit.model.Dataset;
+import net.ljcomputing.conduit.model.DatasetColumnDefinition;
+import net.ljcomputing.conduit.model.DatasetRecord;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Generated benchmark fixtures, so benchmarks run offline. Column c0 is an int id; the remaining
+ * columns cycle through strings, ints and decimals.
+ */
+public final class BenchmarkFixtures {
+    /** Private constructor. */
+    private BenchmarkFixtures() {}
+
+    /**
+     * Start the application without a web server or banner.
+     *
+     * @return
+     */
+    public static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(ConduitApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.main.banner-mode=off", "--logging.level.root=WARN");
+    }
+
+    /**
+     * Name of the given column.
+     *
+     * @param column
+     * @return
+     */
+    public static String columnName(final int column) {
+        return "c" + column;
+    }
+
+    /**
+     * Value of the given column of the given row.
+     *
+     * @param row
+     * @param column
+     * @return
+     */
+    public static Object value(final int row, final int column) {
+        if (column == 0) {
+            return row;
+        }
+
+        switch (column % 3) {
+            case 0:
+                return row * column;
+            case 1:
+                return "value " + row + "-" + column;
+            default:
+                return BigDecimal.valueOf(row * 100L + column, 2);
+        }
+    }
+
+    /**
+     * Generated records.
+     *
+     * @param rows
+     * @param columns
+     * @return
+     */
+    public static List<Map<String, Object>> records(final int rows, final int columns) {
+        final List<Map<String, Object>> result = new ArrayList<>(rows);
+
+        for (int row = 0; row < rows; row++) {
+            final Map<String, Object> record = new LinkedHashMap<>();
+
+            for (int column = 0; column < columns; column++) {
+                record.put(columnName(column), value(row, column));
+            }
+
+            result.add(record);
+        }
+
+        return result;
+    }
+
+    /**
+     * Generated dataset.
+     *
+     * @param rows
+     * @param columns
+     * @return
+     */
+    public static Dataset dataset(final int rows, final int columns) {
+        final Dataset dataset = new Dataset();
+
+        for (int column = 0; column < columns; column++) {
+            dataset.addColumnDefinition(
+                    new DatasetColumnDefinition(
+                            columnName(column), value(0, column).getClass(), column + 1));
+        }
+
+        for (int row = 0; row < rows; row++) {
+            final DatasetRecord record = new DatasetRecord(dataset.getSchema());
+
+            for (int column = 0; column < columns; column++) {
+                record.set(column, value(row, column));
+            }
+
+            dataset.addRecord(record);
+        }
+
+        return dataset;
+    }
+
+    /**
+     * Write a generated CSV file with a header.
+     *
+     * @param file
+     * @param rows
+     * @param columns
+     * @throws IOException
+     */
+    public static void writeCsv(final Path file, final int rows, final int columns)
+            throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int column = 0; column < columns; column++) {
+                writer.write(column == 0 ? "" : ",");
+                writer.write(columnName(column));
+            }
+
+            writer.newLine();
+
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    writer.write(column == 0 ? "" : ",");
+                    writer.write(String.valueOf(value(row, column)));
+                }
+
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Write a generated JSON file holding an array of objects.
+     *
+     * @param file
+     * @param rows
+     * @param columns
+     * @throws IOException
+     */
+    public static void writeJson(final Path file, final int rows, final int columns)
+            throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("[");
+
+            for (int row = 0; row < rows; row++) {
+                writer.write(row == 0 ? "{" : ",\n{");
+
+                for (int column = 0; column < columns; column++) {
+                    final Object value = value(row, column);
+                    writer.write(column == 0 ? "\"" : ", \"");
+                    writer.write(columnName(column));
+                    writer.write("\": ");
+                    writer.write(
+                            value instanceof String ? "\"" + value + "\"" : String.valueOf(value));
+                }
+
+                writer.write("}");
+            }
+
+            writer.write("]");
+            writer.newLine();
+        }
+    }
+}
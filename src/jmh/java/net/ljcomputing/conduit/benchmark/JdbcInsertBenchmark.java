@@ -0,0 +1,158 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import net.ljcomputing.conduit.connector.impl.SourceServiceFactory;
+import net.ljcomputing.conduit.model.DataContext;
+import net.ljcomputing.conduit.model.DataContextProperties;
+import net.ljcomputing.conduit.model.Dataset;
+import net.ljcomputing.conduit.model.SourceType;
+import net.ljcomputing.conduit.service.SourceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/** Insert throughput of the JDBC source service into an in-memory HSQLDB table. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JdbcInsertBenchmark {
+    /** The in-memory database. */
+    private static final String URL = "jdbc:hsqldb:mem:benchmark";
+
+    /** Number of rows inserted per operation. */
+    @Param({"1000", "10000"})
+    private int rows;
+
+    /** Number of columns. */
+    @Param({"5", "50"})
+    private int columns;
+
+    /** True to bind several rows per insert statement. */
+    @Param({"false", "true"})
+    private boolean multiRowValues;
+
+    private ConfigurableApplicationContext application;
+    private SourceService service;
+    private DataContext context;
+    private Dataset dataset;
+
+    /**
+     * Start the application, generate the dataset and create the table.
+     *
+     * @throws Exception
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        application = BenchmarkFixtures.start();
+        service = application.getBean(SourceServiceFactory.class).locate(SourceType.JDBC);
+        dataset = BenchmarkFixtures.dataset(rows, columns);
+
+        final StringBuilder ddl = new StringBuilder("create table benchmark (c0 int");
+
+        for (int column = 1; column < columns; column++) {
+            ddl.append(", ").append(BenchmarkFixtures.columnName(column));
+
+            switch (column % 3) {
+                case 0:
+                    ddl.append(" int");
+                    break;
+                case 1:
+                    ddl.append(" varchar(64)");
+                    break;
+                default:
+                    ddl.append(" decimal(18, 2)");
+            }
+        }
+
+        execute(ddl.append(")").toString());
+
+        context =
+                DataContext.init(SourceType.JDBC, URL)
+                        .driverClassName("org.hsqldb.jdbc.JDBCDriver")
+                        .user("sa")
+                        .password("")
+                        .build();
+        context.getProperties()
+                .setProperty(DataContextProperties.TARGET_TABLE.property(), "benchmark");
+        context.getProperties().setProperty(DataContextProperties.EXCLUDED_COLUMNS.property(), "");
+        context.getProperties()
+                .setProperty(
+                        DataContextProperties.MULTI_ROW_VALUES.property(),
+                        String.valueOf(multiRowValues));
+    }
+
+    /**
+     * Empty the table between operations, so each inserts into an empty table.
+     *
+     * @throws Exception
+     */
+    @Setup(Level.Invocation)
+    public void truncate() throws Exception {
+        execute("truncate table benchmark");
+    }
+
+    /**
+     * Drop the table and stop the application.
+     *
+     * @throws Exception
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        execute("drop table benchmark");
+        application.close();
+    }
+
+    /**
+     * Insert the dataset.
+     *
+     * @throws Exception
+     */
+    @Benchmark
+    public void insertDataset() throws Exception {
+        service.insertDataset(context, dataset);
+    }
+
+    private static void execute(final String sql) throws Exception {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+                Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
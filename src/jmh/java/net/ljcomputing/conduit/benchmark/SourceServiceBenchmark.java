@@ -0,0 +1,129 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import net.ljcomputing.conduit.connector.impl.SourceServiceFactory;
+import net.ljcomputing.conduit.model.DataContext;
+import net.ljcomputing.conduit.model.Dataset;
+import net.ljcomputing.conduit.model.SourceType;
+import net.ljcomputing.conduit.service.SourceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/** Parse throughput of the file source services over generated files. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SourceServiceBenchmark {
+    /** Source type of the generated file. */
+    @Param({"csv", "json"})
+    private String format;
+
+    /** Number of rows of the generated file. */
+    @Param({"1000", "100000"})
+    private int rows;
+
+    /** Number of columns of the generated file. */
+    @Param({"5", "50"})
+    private int columns;
+
+    private ConfigurableApplicationContext application;
+    private Path file;
+    private SourceService service;
+    private DataContext context;
+
+    /**
+     * Start the application and generate the file.
+     *
+     * @throws Exception
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        application = BenchmarkFixtures.start();
+        final SourceType sourceType = SourceType.findByProtocol(format);
+        file = Files.createTempFile("conduit-benchmark", "." + format);
+
+        if (sourceType == SourceType.CSV) {
+            BenchmarkFixtures.writeCsv(file, rows, columns);
+        } else {
+            BenchmarkFixtures.writeJson(file, rows, columns);
+        }
+
+        service = application.getBean(SourceServiceFactory.class).locate(sourceType);
+        context = DataContext.init(sourceType, file.toUri().toString()).build();
+    }
+
+    /**
+     * Stop the application and delete the file.
+     *
+     * @throws Exception
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        application.close();
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Stream every record of the file.
+     *
+     * @param blackhole
+     * @throws Exception
+     */
+    @Benchmark
+    public void stream(final Blackhole blackhole) throws Exception {
+        try (Stream<Map<String, Object>> stream = service.stream(context)) {
+            stream.forEach(blackhole::consume);
+        }
+    }
+
+    /**
+     * Retrieve the file into a dataset.
+     *
+     * @return
+     * @throws Exception
+     */
+    @Benchmark
+    public Dataset retrieveDataset() throws Exception {
+        return service.retrieveDataset(context);
+    }
+}
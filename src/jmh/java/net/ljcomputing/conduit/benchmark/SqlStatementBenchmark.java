@@ -0,0 +1,93 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.ljcomputing.conduit.model.DatasetColumnDefinition;
+import net.ljcomputing.conduit.model.DatasetSchema;
+import net.ljcomputing.conduit.utils.SqlStatementUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Throughput of SQL statement and schema generation. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SqlStatementBenchmark {
+    /** Number of columns. */
+    @Param({"5", "50"})
+    private int columns;
+
+    private List<DatasetColumnDefinition> columnDefinitions;
+    private List<String> names;
+
+    /** Generate the column definitions. */
+    @Setup(Level.Trial)
+    public void setUp() {
+        columnDefinitions = BenchmarkFixtures.dataset(1, columns).getColumnDefinitions();
+        names = BenchmarkFixtures.dataset(1, columns).getSchema().names();
+    }
+
+    /**
+     * Build a single row insert statement.
+     *
+     * @return
+     */
+    @Benchmark
+    public String buildInsertStatement() {
+        return SqlStatementUtils.buildInsertStatement("benchmark", columnDefinitions, "c0");
+    }
+
+    /**
+     * Build a 100 row insert statement.
+     *
+     * @return
+     */
+    @Benchmark
+    public String buildMultiRowInsertStatement() {
+        return SqlStatementUtils.buildMultiRowInsertStatement(
+                "benchmark", columnDefinitions, 100, "c0");
+    }
+
+    /**
+     * Build a record schema from column names.
+     *
+     * @return
+     */
+    @Benchmark
+    public DatasetSchema buildSchema() {
+        return DatasetSchema.of(names);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.service.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.ljcomputing.conduit.benchmark.BenchmarkFixtures;
+import net.ljcomputing.conduit.model.Dataset;
+import net.ljcomputing.conduit.model.DatasetSchema;
+import net.ljcomputing.conduit.model.SchemaInferrer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of the map to {@link net.ljcomputing.conduit.model.DatasetRecord dataset record}
+ * conversion and schema inference of {@link AbstractSourceServiceImpl}; in this package to reach
+ * its protected methods.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordConversionBenchmark {
+    /** Number of records converted per operation. */
+    @Param({"1000"})
+    private int rows;
+
+    /** Number of columns. */
+    @Param({"5", "50"})
+    private int columns;
+
+    private final AbstractSourceServiceImpl service = new JsonSourceServiceImpl();
+    private List<Map<String, Object>> records;
+    private DatasetSchema schema;
+
+    /** Generate the records. */
+    @Setup(Level.Trial)
+    public void setUp() {
+        records = BenchmarkFixtures.records(rows, columns);
+        schema = DatasetSchema.of(records.get(0).keySet());
+    }
+
+    /**
+     * Convert each record, building a schema per record.
+     *
+     * @param blackhole
+     */
+    @Benchmark
+    public void convertMapToRecord(final Blackhole blackhole) {
+        for (final Map<String, Object> record : records) {
+            blackhole.consume(service.convertMapToRecord(record));
+        }
+    }
+
+    /**
+     * Convert each record to a shared schema.
+     *
+     * @param blackhole
+     */
+    @Benchmark
+    public void convertMapToRecordSharedSchema(final Blackhole blackhole) {
+        for (final Map<String, Object> record : records) {
+            blackhole.consume(service.convertMapToRecord(record, schema));
+        }
+    }
+
+    /**
+     * Add the records to a dataset, inferring its column definitions.
+     *
+     * @return
+     */
+    @Benchmark
+    public Dataset addRecordsToDataset() {
+        final Dataset dataset = new Dataset();
+        service.addRecordsToDataset(
+                records.iterator(), dataset, new SchemaInferrer(SchemaInferrer.ALL));
+        return dataset;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.connector.impl;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import net.ljcomputing.conduit.connector.Connector;
+import net.ljcomputing.conduit.exception.ConduitRuntimeException;
+import net.ljcomputing.conduit.io.Compression;
+import net.ljcomputing.conduit.model.ConnectorContext;
+import net.ljcomputing.conduit.model.DataContext;
+import net.ljcomputing.conduit.model.DataContextProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ResourceLoaderAware;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.ResourceLoader;
+
+/**
+ * Shared HTTP(S) Connector implemntation. Unless the context's http cache property is false,
+ * resources are fetched through the {@link net.ljcomputing.conduit.connector.impl.HttpFileCache
+ * HTTP file cache} and read from the local copy, so unchanged resources are not downloaded again
+ * and the copy can be parsed in parallel or mapped into memory like any local file. The cache
+ * directory is limited to the context's http cache max size (1g by default). Bodies are cached as
+ * received, so compressed resources (by extension or Content-Encoding) are detected by their
+ * leading bytes and decoded as they are read.
+ */
+public abstract class AbstractHttpDataSourceConnector implements Connector, ResourceLoaderAware {
+    private ResourceLoader resourceLoader;
+
+    @Autowired private HttpFileCache cache;
+
+    /** {@inheritDoc} */
+    @Override
+    public ConnectorContext connect(final DataContext dataContext) {
+        final ConnectorContext context = new ConnectorContext();
+
+        if (!dataContext.getBooleanProperty(DataContextProperties.HTTP_CACHE, true)) {
+            context.setResource(resourceLoader.getResource(dataContext.getUrl()));
+            return context;
+        }
+
+        final String directory =
+                dataContext.getProperty(DataContextProperties.HTTP_CACHE_DIRECTORY);
+
+        try {
+            final Path file =
+                    cache.fetch(
+                            URI.create(dataContext.getUrl()),
+                            directory.isBlank()
+                                    ? HttpFileCache.DEFAULT_DIRECTORY
+                                    : Path.of(directory),
+                            dataContext.getIntProperty(
+                                    DataContextProperties.HTTP_RANGE_SIZE,
+                                    HttpFileCache.DEFAULT_RANGE_SIZE),
+                            dataContext.getIntProperty(
+                                    DataContextProperties.PARALLELISM,
+                                    HttpFileCache.DEFAULT_PARALLELISM),
+                            dataContext.getSizeProperty(
+                                    DataContextProperties.HTTP_CACHE_MAX_SIZE,
+                                    HttpFileCache.DEFAULT_MAX_SIZE));
+            context.setResource(new FileSystemResource(file));
+            context.setFile(file);
+            context.setCompression(Compression.detect(file));
+            return context;
+        } catch (final IOException e) {
+            throw new ConduitRuntimeException(e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setResourceLoader(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+}
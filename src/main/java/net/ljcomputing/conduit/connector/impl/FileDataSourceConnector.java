@@ -20,7 +20,10 @@ James G Willmore - LJ Computing - (C) 2023
 */
 package net.ljcomputing.conduit.connector.impl;
 
+import java.io.IOException;
 import net.ljcomputing.conduit.connector.Connector;
+import net.ljcomputing.conduit.exception.ConduitRuntimeException;
+import net.ljcomputing.conduit.io.Compression;
 import net.ljcomputing.conduit.model.ConnectorContext;
 import net.ljcomputing.conduit.model.ConnectorProtocol;
 import net.ljcomputing.conduit.model.DataContext;
@@ -29,7 +32,10 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Component;
 
-/** File Connector implemntation. */
+/**
+ * File Connector implemntation. The compression of local files is detected by their leading bytes
+ * or extension (ex. .csv.gz); see {@link net.ljcomputing.conduit.io.Compression}.
+ */
 @Component
 public class FileDataSourceConnector implements Connector, ResourceLoaderAware {
     private ResourceLoader resourceLoader;
@@ -46,6 +52,16 @@ public class FileDataSourceConnector implements Connector, ResourceLoaderAware {
         final Resource resource = resourceLoader.getResource(dataContext.getUrl());
         final ConnectorContext context = new ConnectorContext();
         context.setResource(resource);
+
+        if (resource.isFile()) {
+            try {
+                context.setFile(resource.getFile().toPath());
+                context.setCompression(Compression.detect(context.getFile()));
+            } catch (final IOException e) {
+                throw new ConduitRuntimeException(e);
+            }
+        }
+
         return context;
     }
 
@@ -0,0 +1,528 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.connector.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import net.ljcomputing.conduit.utils.DigestUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local on-disk cache of HTTP resources, downloaded with one shared {@link java.net.http.HttpClient
+ * HttpClient} so connections are reused across calls. Cached files are revalidated with their ETag
+ * and Last-Modified validators and not downloaded again while the server answers 304 Not Modified.
+ * Files larger than the range size are downloaded as concurrent Range requests, each written at its
+ * offset of the file, when the server advertises byte ranges.
+ *
+ * <p>Files and their metadata are written to temp files and moved into place, so a reader never
+ * sees a partial entry. After each download the least recently used entries are deleted until the
+ * cache directory fits its maximum size.
+ */
+@Component
+@Slf4j
+public class HttpFileCache {
+    /** Default size, in bytes, of the ranges large files are downloaded in. */
+    public static final int DEFAULT_RANGE_SIZE = 32 << 20;
+
+    /** Default number of concurrent range requests. */
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    /** Default maximum size, in bytes, of the cached files of a cache directory. */
+    public static final long DEFAULT_MAX_SIZE = 1L << 30;
+
+    /** Default cache directory. */
+    public static final Path DEFAULT_DIRECTORY =
+            Path.of(System.getProperty("java.io.tmpdir"), "conduit-http-cache");
+
+    /** Entity tag validator of the metadata. */
+    private static final String ETAG = "etag";
+
+    /** Last modified validator of the metadata. */
+    private static final String LAST_MODIFIED = "last-modified";
+
+    /** Size of the buffer range bodies are copied with. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Sequence used to name download threads. */
+    private static final AtomicInteger THREAD_SEQUENCE = new AtomicInteger();
+
+    /** The shared client. */
+    private final HttpClient client =
+            HttpClient.newBuilder()
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+
+    /**
+     * Return the local copy of the given resource, downloading it only if not cached or changed.
+     *
+     * @param uri
+     * @param directory the cache directory
+     * @param rangeSize size, in bytes, of the ranges large files are downloaded in
+     * @param parallelism number of concurrent range requests
+     * @param maxSize maximum size, in bytes, of the cached files; 0 for no limit
+     * @return
+     * @throws IOException
+     */
+    public Path fetch(
+            final URI uri,
+            final Path directory,
+            final long rangeSize,
+            final int parallelism,
+            final long maxSize)
+            throws IOException {
+        Files.createDirectories(directory);
+
+        final String key = key(uri);
+        final Path file = directory.resolve(key);
+        final Path metadataFile = directory.resolve(key + ".properties");
+        final Properties metadata =
+                Files.exists(file) ? readMetadata(metadataFile) : new Properties();
+
+        final HttpResponse<Void> head =
+                send(
+                        conditional(HttpRequest.newBuilder(uri), metadata)
+                                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                                .build(),
+                        HttpResponse.BodyHandlers.discarding());
+
+        if (head.statusCode() == 304) {
+            log.debug("{} not modified; using {}", uri, file);
+            return touch(file);
+        }
+
+        final long length = head.headers().firstValueAsLong("Content-Length").orElse(-1);
+        final boolean ranges =
+                head.statusCode() == 200
+                        && head.headers()
+                                .firstValue("Accept-Ranges")
+                                .map(v -> v.equalsIgnoreCase("bytes"))
+                                .orElse(false);
+
+        if (ranges && parallelism > 1 && length > rangeSize) {
+            try {
+                downloadRanges(uri, head.headers(), length, rangeSize, parallelism, file);
+                writeMetadata(metadataFile, head.headers());
+                evict(directory, maxSize, file);
+                return file;
+            } catch (final IOException e) {
+                log.warn("range download of {} failed; downloading whole: {}", uri, e.getMessage());
+            }
+        }
+
+        download(uri, metadata, file, metadataFile);
+        evict(directory, maxSize, file);
+        return file;
+    }
+
+    /**
+     * Delete the least recently used entries of the given cache directory, other than the given
+     * file, until its cached files fit the given size. Entries are the files named by their key;
+     * temp files of downloads in progress are not counted.
+     *
+     * @param directory
+     * @param maxSize maximum size, in bytes; 0 for no limit
+     * @param keep the file just fetched
+     * @throws IOException
+     */
+    private static void evict(final Path directory, final long maxSize, final Path keep)
+            throws IOException {
+        if (maxSize <= 0) {
+            return;
+        }
+
+        final List<Path> entries;
+
+        try (Stream<Path> files = Files.list(directory)) {
+            entries =
+                    files.filter(f -> f.getFileName().toString().indexOf('.') < 0)
+                            .filter(Files::isRegularFile)
+                            .collect(Collectors.toList());
+        }
+
+        final Map<Path, FileTime> used = new HashMap<>();
+        long size = 0;
+
+        for (final Path entry : entries) {
+            try {
+                used.put(entry, Files.getLastModifiedTime(entry));
+                size += Files.size(entry);
+            } catch (final NoSuchFileException e) {
+                // evicted meanwhile
+            }
+        }
+
+        final List<Path> oldest = new ArrayList<>(used.keySet());
+        oldest.sort(Comparator.comparing(used::get));
+
+        for (final Path entry : oldest) {
+            if (size <= maxSize) {
+                break;
+            }
+
+            if (entry.equals(keep)) {
+                continue;
+            }
+
+            try {
+                final long length = Files.size(entry);
+                Files.deleteIfExists(entry.resolveSibling(entry.getFileName() + ".properties"));
+                Files.deleteIfExists(entry);
+                size -= length;
+                log.debug("evicted {} from the cache", entry);
+            } catch (final NoSuchFileException e) {
+                // evicted meanwhile
+            } catch (final IOException e) {
+                log.warn("could not evict {}: {}", entry, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Mark the given cached file as used now, so it is evicted last.
+     *
+     * @param file
+     * @return
+     */
+    private static Path touch(final Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (final IOException e) {
+            log.debug("could not touch {}: {}", file, e.getMessage());
+        }
+
+        return file;
+    }
+
+    /**
+     * Download the given resource in one request, unless the server answers not modified.
+     *
+     * @param uri
+     * @param metadata validators of the cached file
+     * @param file
+     * @param metadataFile
+     * @throws IOException
+     */
+    private void download(
+            final URI uri, final Properties metadata, final Path file, final Path metadataFile)
+            throws IOException {
+        final Path temp =
+                Files.createTempFile(file.getParent(), file.getFileName().toString(), ".part");
+
+        try {
+            final HttpResponse<Path> response =
+                    send(
+                            conditional(HttpRequest.newBuilder(uri), metadata).GET().build(),
+                            info ->
+                                    info.statusCode() == 200
+                                            ? HttpResponse.BodySubscribers.ofFile(temp)
+                                            : HttpResponse.BodySubscribers.replacing(null));
+
+            if (response.statusCode() == 304) {
+                log.debug("{} not modified; using {}", uri, file);
+                touch(file);
+                return;
+            }
+
+            if (response.statusCode() != 200) {
+                throw new IOException(uri + " returned status " + response.statusCode());
+            }
+
+            Files.move(
+                    temp,
+                    file,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            writeMetadata(metadataFile, response.headers());
+            log.debug("downloaded {} to {}", uri, file);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Download the given resource as concurrent range requests written into a file of the given
+     * length. Each request is conditional on the validators of the head response (If-Range), so a
+     * resource changed mid-download fails rather than mixing versions.
+     *
+     * @param uri
+     * @param headers headers of the head response
+     * @param length
+     * @param rangeSize
+     * @param parallelism
+     * @param file
+     * @throws IOException
+     */
+    private void downloadRanges(
+            final URI uri,
+            final HttpHeaders headers,
+            final long length,
+            final long rangeSize,
+            final int parallelism,
+            final Path file)
+            throws IOException {
+        final String validator =
+                headers.firstValue("ETag")
+                        .filter(v -> !v.startsWith("W/"))
+                        .or(() -> headers.firstValue("Last-Modified"))
+                        .orElse(null);
+        final Path temp =
+                Files.createTempFile(file.getParent(), file.getFileName().toString(), ".part");
+        final ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        parallelism,
+                        r -> {
+                            final Thread thread =
+                                    new Thread(
+                                            r, "conduit-http-" + THREAD_SEQUENCE.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+
+        try (RandomAccessFile raf = new RandomAccessFile(temp.toFile(), "rw")) {
+            raf.setLength(length);
+        }
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            final List<Future<?>> futures = new ArrayList<>();
+
+            for (long start = 0; start < length; start += rangeSize) {
+                final long first = start;
+                final long last = Math.min(length, start + rangeSize) - 1;
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    downloadRange(uri, validator, first, last, channel);
+                                    return null;
+                                }));
+            }
+
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+
+            channel.force(false);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (final ExecutionException e) {
+            throw e.getCause() instanceof IOException
+                    ? (IOException) e.getCause()
+                    : new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try {
+            Files.move(
+                    temp,
+                    file,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        log.debug("downloaded {} in ranges of {} bytes to {}", uri, rangeSize, file);
+    }
+
+    /**
+     * Download the given inclusive range, writing it at its offset of the given channel.
+     *
+     * @param uri
+     * @param validator If-Range validator; null if none
+     * @param first
+     * @param last
+     * @param channel
+     * @throws IOException
+     */
+    private void downloadRange(
+            final URI uri,
+            final String validator,
+            final long first,
+            final long last,
+            final FileChannel channel)
+            throws IOException {
+        final HttpRequest.Builder builder =
+                HttpRequest.newBuilder(uri).header("Range", "bytes=" + first + "-" + last).GET();
+
+        if (validator != null) {
+            builder.header("If-Range", validator);
+        }
+
+        final HttpResponse<InputStream> response =
+                send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+
+        try (InputStream in = response.body()) {
+            if (response.statusCode() != 206) {
+                throw new IOException(
+                        uri + " returned status " + response.statusCode() + " for a range");
+            }
+
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            long position = first;
+            int read;
+
+            while ((read = in.read(buffer)) > 0) {
+                if (position + read > last + 1) {
+                    throw new IOException(uri + " returned more than the requested range");
+                }
+
+                final ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+
+                while (bytes.hasRemaining()) {
+                    position += channel.write(bytes, position);
+                }
+            }
+
+            if (position != last + 1) {
+                throw new IOException(uri + " returned a short range");
+            }
+        }
+    }
+
+    /**
+     * Send the given request.
+     *
+     * @param <T>
+     * @param request
+     * @param handler
+     * @return
+     * @throws IOException
+     */
+    private <T> HttpResponse<T> send(
+            final HttpRequest request, final HttpResponse.BodyHandler<T> handler)
+            throws IOException {
+        try {
+            return client.send(request, handler);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Add the conditional headers of the given cached validators to the given request.
+     *
+     * @param builder
+     * @param metadata
+     * @return
+     */
+    private static HttpRequest.Builder conditional(
+            final HttpRequest.Builder builder, final Properties metadata) {
+        final String etag = metadata.getProperty(ETAG);
+        final String lastModified = metadata.getProperty(LAST_MODIFIED);
+
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+
+        if (lastModified != null) {
+            builder.header("If-Modified-Since", lastModified);
+        }
+
+        return builder;
+    }
+
+    private static Properties readMetadata(final Path metadataFile) throws IOException {
+        final Properties metadata = new Properties();
+
+        if (Files.exists(metadataFile)) {
+            try (InputStream in = Files.newInputStream(metadataFile)) {
+                metadata.load(in);
+            }
+        }
+
+        return metadata;
+    }
+
+    /**
+     * Write the validators of the given headers to a temp file, moved over the metadata file.
+     *
+     * @param metadataFile
+     * @param headers
+     * @throws IOException
+     */
+    private static void writeMetadata(final Path metadataFile, final HttpHeaders headers)
+            throws IOException {
+        final Properties metadata = new Properties();
+        headers.firstValue("ETag").ifPresent(v -> metadata.setProperty(ETAG, v));
+        headers.firstValue("Last-Modified").ifPresent(v -> metadata.setProperty(LAST_MODIFIED, v));
+
+        final Path temp =
+                Files.createTempFile(
+                        metadataFile.getParent(), metadataFile.getFileName().toString(), ".part");
+
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                metadata.store(out, null);
+            }
+
+            Files.move(
+                    temp,
+                    metadataFile,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Cache key of the given resource; the hex SHA-256 digest of its URI.
+     *
+     * @param uri
+     * @return
+     */
+    private static String key(final URI uri) {
+        return DigestUtils.sha256Hex(uri.toString());
+    }
+}
@@ -20,38 +20,15 @@ James G Willmore - LJ Computing - (C) 2023
 */
 package net.ljcomputing.conduit.connector.impl;
 
-import net.ljcomputing.conduit.connector.Connector;
-import net.ljcomputing.conduit.model.ConnectorContext;
 import net.ljcomputing.conduit.model.ConnectorProtocol;
-import net.ljcomputing.conduit.model.DataContext;
-import org.springframework.context.ResourceLoaderAware;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Component;
 
-/** HTTPS Connector implemntation. */
+/** HTTPS Connector implemntation; see {@link AbstractHttpDataSourceConnector}. */
 @Component
-public class HttpsDataSourceConnector implements Connector, ResourceLoaderAware {
-    private ResourceLoader resourceLoader;
-
+public class HttpsDataSourceConnector extends AbstractHttpDataSourceConnector {
     /** {@inheritDoc} */
     @Override
     public ConnectorProtocol supportedProtocol() {
         return ConnectorProtocol.HTTPS;
     }
-
-    /** {@inheritDoc} */
-    @Override
-    public ConnectorContext connect(DataContext dataContext) {
-        final Resource resource = resourceLoader.getResource(dataContext.getUrl());
-        final ConnectorContext context = new ConnectorContext();
-        context.setResource(resource);
-        return context;
-    }
-
-    /** {@inheritDoc} */
-    @Override
-    public void setResourceLoader(ResourceLoader resourceLoader) {
-        this.resourceLoader = resourceLoader;
-    }
 }
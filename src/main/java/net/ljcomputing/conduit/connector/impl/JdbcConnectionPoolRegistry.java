@@ -0,0 +1,304 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.connector.impl;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import net.ljcomputing.conduit.model.DataContext;
+import net.ljcomputing.conduit.model.DataContextProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registry of pooled {@link javax.sql.DataSource data sources}, one HikariCP pool per url, user and
+ * driver. Pool sizing is taken from the data context that first creates the pool. Pools from which
+ * no connection was taken for longer than their idle timeout, with no connections in use, are
+ * closed, and all pools are closed when the application context shuts down. An idle timeout of 0
+ * means never, as it does for HikariCP connections. Each pool publishes its HikariCP meters (ex.
+ * hikaricp.connections.active, tagged by pool name) to the application's meter registry while it is
+ * open.
+ *
+ * <p>Data sources handed out look up their pool on each connection, so a caller holding one (ex. a
+ * batch writer) keeps the pool in use, and gets a new pool if it was closed while idle.
+ */
+@Component
+@Slf4j
+public class JdbcConnectionPoolRegistry implements DisposableBean {
+    /** Default maximum number of connections per pool. */
+    public static final int DEFAULT_MAX_SIZE = 10;
+
+    /** Default minimum number of idle connections per pool. */
+    public static final int DEFAULT_MIN_IDLE = 0;
+
+    /** Default idle timeout, in milliseconds, of connections and unused pools. */
+    public static final int DEFAULT_IDLE_TIMEOUT = 600000;
+
+    /** Seconds between idle pool checks. */
+    private static final long EVICTION_INTERVAL = 60;
+
+    /** Sequence used to name pools; shared, so pool names and their meters are unique. */
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    /** Pools by key. */
+    private final Map<PoolKey, Pool> pools = new ConcurrentHashMap<>();
+
+    /** Data sources handed out, by pool key. */
+    private final Map<PoolKey, DataSource> dataSources = new ConcurrentHashMap<>();
+
+    /** The registry pool meters are registered with. */
+    private final MeterRegistry meterRegistry;
+
+    /** Runs the idle pool checks. */
+    private final ScheduledExecutorService evictor =
+            Executors.newSingleThreadScheduledExecutor(
+                    r -> {
+                        final Thread thread = new Thread(r, "conduit-pool-evictor");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
+    /**
+     * Constructor.
+     *
+     * @param meterRegistry
+     */
+    public JdbcConnectionPoolRegistry(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        evictor.scheduleWithFixedDelay(
+                this::evictIdlePools, EVICTION_INTERVAL, EVICTION_INTERVAL, TimeUnit.SECONDS);
+    }
+
+    /**
+     * The pooled data source of the given data context; created on first use.
+     *
+     * @param dataContext
+     * @return
+     */
+    public DataSource getDataSource(final DataContext dataContext) {
+        final PoolKey key =
+                new PoolKey(
+                        dataContext.getUrl(),
+                        dataContext.getUser(),
+                        dataContext.getDriverClassName());
+        lease(key, dataContext);
+        return dataSources.computeIfAbsent(key, k -> new RegistryDataSource(k, dataContext));
+    }
+
+    /**
+     * The pool of the given key, created from the given data context if absent, marked as used.
+     * Eviction runs under the same map lock, so a pool leased is never closed before it is used.
+     *
+     * @param key
+     * @param dataContext
+     * @return
+     */
+    private HikariDataSource lease(final PoolKey key, final DataContext dataContext) {
+        return pools.compute(
+                        key,
+                        (k, existing) -> {
+                            final Pool pool = existing != null ? existing : createPool(dataContext);
+                            pool.lastUsed = System.currentTimeMillis();
+                            return pool;
+                        })
+                .dataSource;
+    }
+
+    /** Close pools with no connections in use that have not been used within their idle timeout. */
+    public void evictIdlePools() {
+        pools.keySet().forEach(key -> pools.computeIfPresent(key, this::closeIfIdle));
+    }
+
+    /** Close all pools. */
+    @Override
+    public void destroy() {
+        evictor.shutdownNow();
+        pools.values().forEach(pool -> pool.dataSource.close());
+        pools.clear();
+    }
+
+    /**
+     * Close the given pool if it has no connections in use and was not used within its idle
+     * timeout; run under the map lock of its key, so it cannot be leased meanwhile. A pool with an
+     * idle timeout of 0 is never closed.
+     *
+     * @param key
+     * @param pool
+     * @return the pool; null if closed
+     */
+    private Pool closeIfIdle(final PoolKey key, final Pool pool) {
+        final HikariPoolMXBean bean = pool.dataSource.getHikariPoolMXBean();
+
+        if (pool.idleTimeout <= 0
+                || System.currentTimeMillis() - pool.lastUsed <= pool.idleTimeout
+                || (bean != null && bean.getActiveConnections() > 0)) {
+            return pool;
+        }
+
+        log.info("closing idle pool {}", pool.dataSource.getPoolName());
+        pool.dataSource.close();
+        return null;
+    }
+
+    /**
+     * Create the pool of the given data context. The pool is evicted by the idle timeout as
+     * configured; HikariCP raises connection idle timeouts below 10 seconds.
+     *
+     * @param dataContext
+     * @return
+     */
+    private Pool createPool(final DataContext dataContext) {
+        final long idleTimeout =
+                dataContext.getIntProperty(
+                        DataContextProperties.POOL_IDLE_TIMEOUT, DEFAULT_IDLE_TIMEOUT);
+
+        final HikariConfig config = new HikariConfig();
+        config.setPoolName("conduit-" + SEQUENCE.incrementAndGet());
+        config.setJdbcUrl(dataContext.getUrl());
+        config.setUsername(dataContext.getUser());
+        config.setPassword(dataContext.getPassword());
+
+        if (dataContext.getDriverClassName() != null) {
+            config.setDriverClassName(dataContext.getDriverClassName());
+        }
+
+        config.setMaximumPoolSize(
+                dataContext.getIntProperty(DataContextProperties.POOL_MAX_SIZE, DEFAULT_MAX_SIZE));
+        config.setMinimumIdle(
+                dataContext.getIntProperty(DataContextProperties.POOL_MIN_IDLE, DEFAULT_MIN_IDLE));
+        config.setIdleTimeout(idleTimeout);
+        config.setMetricRegistry(meterRegistry);
+
+        log.info("created pool {} for {}", config.getPoolName(), dataContext.getUrl());
+        return new Pool(new HikariDataSource(config), idleTimeout);
+    }
+
+    /** Pool key; url, user and driver. */
+    @Value
+    private static class PoolKey {
+        String url;
+        String user;
+        String driverClassName;
+    }
+
+    /** A pool and when it was last leased. */
+    private static class Pool {
+        /** The pooled data source. */
+        private final HikariDataSource dataSource;
+
+        /** Milliseconds the pool may go unused before it is closed; 0 for never. */
+        private final long idleTimeout;
+
+        /** Time the pool was last leased. */
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        Pool(final HikariDataSource dataSource, final long idleTimeout) {
+            this.dataSource = dataSource;
+            this.idleTimeout = idleTimeout;
+        }
+    }
+
+    /** Data source of a pool key, leasing the key's current pool for each connection. */
+    private class RegistryDataSource implements DataSource {
+        /** The pool key. */
+        private final PoolKey key;
+
+        /** The data context the pool is created from if absent. */
+        private final DataContext dataContext;
+
+        RegistryDataSource(final PoolKey key, final DataContext dataContext) {
+            this.key = key;
+            this.dataContext = dataContext;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Connection getConnection() throws SQLException {
+            return lease(key, dataContext).getConnection();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Connection getConnection(final String username, final String password)
+                throws SQLException {
+            return lease(key, dataContext).getConnection(username, password);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public PrintWriter getLogWriter() throws SQLException {
+            return lease(key, dataContext).getLogWriter();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setLogWriter(final PrintWriter out) throws SQLException {
+            lease(key, dataContext).setLogWriter(out);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setLoginTimeout(final int seconds) throws SQLException {
+            lease(key, dataContext).setLoginTimeout(seconds);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int getLoginTimeout() throws SQLException {
+            return lease(key, dataContext).getLoginTimeout();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            return lease(key, dataContext).getParentLogger();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public <T> T unwrap(final Class<T> iface) throws SQLException {
+            return iface.isInstance(this)
+                    ? iface.cast(this)
+                    : lease(key, dataContext).unwrap(iface);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean isWrapperFor(final Class<?> iface) throws SQLException {
+            return iface.isInstance(this) || lease(key, dataContext).isWrapperFor(iface);
+        }
+    }
+}
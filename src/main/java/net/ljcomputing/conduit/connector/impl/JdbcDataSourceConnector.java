@@ -25,12 +25,17 @@ import net.ljcomputing.conduit.connector.Connector;
 import net.ljcomputing.conduit.model.ConnectorContext;
 import net.ljcomputing.conduit.model.ConnectorProtocol;
 import net.ljcomputing.conduit.model.DataContext;
-import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-/** JDBC Connector implemntation. */
+/**
+ * JDBC Connector implemntation. Data sources are pooled and shared by url, user and driver through
+ * the {@link net.ljcomputing.conduit.connector.impl.JdbcConnectionPoolRegistry pool registry}.
+ */
 @Component
 public class JdbcDataSourceConnector implements Connector {
+    /** The pool registry. */
+    @Autowired private JdbcConnectionPoolRegistry poolRegistry;
 
     /** {@inheritDoc} */
     @Override
@@ -41,13 +46,7 @@ public class JdbcDataSourceConnector implements Connector {
     /** {@inheritDoc} */
     @Override
     public ConnectorContext connect(DataContext dataContext) {
-        final DataSource dataSource =
-                DataSourceBuilder.create()
-                        .driverClassName(dataContext.getDriverClassName())
-                        .url(dataContext.getUrl())
-                        .username(dataContext.getUser())
-                        .password(dataContext.getPassword())
-                        .build();
+        final DataSource dataSource = poolRegistry.getDataSource(dataContext);
 
         final ConnectorContext context = new ConnectorContext();
         context.setDataSource(dataSource);
@@ -24,6 +24,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
+import net.ljcomputing.conduit.metrics.ConduitMetrics;
+import net.ljcomputing.conduit.metrics.MeteredSourceService;
 import net.ljcomputing.conduit.model.SourceType;
 import net.ljcomputing.conduit.service.SourceService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -41,14 +43,17 @@ public class SourceServiceFactory {
 
     /**
      * Private constructor that populates the factory with all availabe source service
-     * implementations.
+     * implementations, each {@link net.ljcomputing.conduit.metrics.MeteredSourceService metered}.
      *
      * @param implemntations
+     * @param metrics
      */
-    private SourceServiceFactory(@Autowired final List<SourceService> implemntations) {
+    private SourceServiceFactory(
+            @Autowired final List<SourceService> implemntations,
+            @Autowired final ConduitMetrics metrics) {
         implemntations.forEach(
                 c -> {
-                    sourceServiceTypes.put(c.sourceType(), c);
+                    sourceServiceTypes.put(c.sourceType(), new MeteredSourceService(c, metrics));
                     log.info("loaded source service for {} type", c.sourceType());
                 });
     }
@@ -0,0 +1,410 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.csv;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * Type of a typed CSV field, with a parser converting field text to the type's value. Parsers work
+ * on the field text directly, digit by digit, rather than through the JDK's exception throwing
+ * parsers, so checking whether a value fits a type during inference costs no allocation. Empty
+ * fields are null for every type but {@link #STRING}.
+ */
+public enum CsvFieldType {
+    INT("int", Integer.class) {
+        @Override
+        boolean accepts(final String text) {
+            return isWholeNumber(text) && text.length() <= 11 && fitsInt(parseLong(text));
+        }
+
+        @Override
+        Object convert(final String text) {
+            return (int) parseLong(text);
+        }
+    },
+    LONG("long", Long.class) {
+        @Override
+        boolean accepts(final String text) {
+            return isWholeNumber(text) && fitsLong(text);
+        }
+
+        @Override
+        Object convert(final String text) {
+            return parseLong(text);
+        }
+    },
+    DECIMAL("decimal", BigDecimal.class) {
+        @Override
+        boolean accepts(final String text) {
+            return isDecimal(text);
+        }
+
+        @Override
+        Object convert(final String text) {
+            return new BigDecimal(text);
+        }
+    },
+    BOOLEAN("boolean", Boolean.class) {
+        @Override
+        boolean accepts(final String text) {
+            return "true".equalsIgnoreCase(text) || "false".equalsIgnoreCase(text);
+        }
+
+        @Override
+        Object convert(final String text) {
+            return "true".equalsIgnoreCase(text);
+        }
+    },
+    DATE("date", Date.class) {
+        @Override
+        boolean accepts(final String text) {
+            return text.length() == 10 && isDate(text);
+        }
+
+        @Override
+        Object convert(final String text) {
+            return Date.valueOf(
+                    LocalDate.of(digits(text, 0, 4), digits(text, 5, 2), digits(text, 8, 2)));
+        }
+    },
+    TIMESTAMP("timestamp", Timestamp.class) {
+        @Override
+        boolean accepts(final String text) {
+            return isTimestamp(text);
+        }
+
+        @Override
+        Object convert(final String text) {
+            int nanos = 0;
+
+            if (text.length() > 20) {
+                final int fraction = text.length() - 20;
+                nanos = digits(text, 20, Math.min(fraction, 9));
+
+                for (int place = fraction; place < 9; place++) {
+                    nanos *= 10;
+                }
+            }
+
+            return Timestamp.valueOf(
+                    LocalDateTime.of(
+                            digits(text, 0, 4),
+                            digits(text, 5, 2),
+                            digits(text, 8, 2),
+                            digits(text, 11, 2),
+                            digits(text, 14, 2),
+                            digits(text, 17, 2),
+                            nanos));
+        }
+    },
+    STRING("string", String.class) {
+        @Override
+        boolean accepts(final String text) {
+            return true;
+        }
+
+        @Override
+        Object convert(final String text) {
+            return text;
+        }
+    };
+
+    /** Name of the type (ex. int). */
+    private final String type;
+
+    /** Class of the type's values. */
+    private final Class<?> valueClass;
+
+    CsvFieldType(final String type, final Class<?> valueClass) {
+        this.type = type;
+        this.valueClass = valueClass;
+    }
+
+    /**
+     * Return true if the given non empty text is a value of the type.
+     *
+     * @param text
+     * @return
+     */
+    abstract boolean accepts(String text);
+
+    /**
+     * Convert the given non empty text, accepted by the type, to a value of the type.
+     *
+     * @param text
+     * @return
+     */
+    abstract Object convert(String text);
+
+    /**
+     * Name of the type (ex. int).
+     *
+     * @return
+     */
+    public String type() {
+        return type;
+    }
+
+    /**
+     * Class of the type's values.
+     *
+     * @return
+     */
+    public Class<?> valueClass() {
+        return valueClass;
+    }
+
+    /**
+     * Parse the given field text; null if empty, unless the type is {@link #STRING}.
+     *
+     * @param text
+     * @return
+     * @throws IllegalArgumentException if the text is not a value of the type
+     */
+    public Object parse(final String text) {
+        if (this == STRING || text == null) {
+            return text;
+        } else if (text.isEmpty()) {
+            return null;
+        } else if (!accepts(text)) {
+            throw new IllegalArgumentException(
+                    String.format("'%s' is not a valid %s value", text, type));
+        }
+
+        return convert(text);
+    }
+
+    /**
+     * Find the type by the given name (ex. int, integer, long, decimal, boolean, date, timestamp,
+     * string).
+     *
+     * @param value
+     * @return
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static CsvFieldType findByType(final String value) {
+        final String name = value.trim().toLowerCase();
+
+        for (final CsvFieldType current : values()) {
+            if (current.type.equals(name)) {
+                return current;
+            }
+        }
+
+        if ("integer".equals(name)) {
+            return INT;
+        }
+
+        throw new IllegalArgumentException("unknown CSV field type: " + value);
+    }
+
+    /**
+     * The most specific type of the given field text; null if empty. Numbers with leading zeros
+     * (ex. zip codes and account numbers) are strings, so the zeros are not lost.
+     *
+     * @param text
+     * @return
+     */
+    public static CsvFieldType infer(final String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+
+        final boolean leadingZero = hasLeadingZero(text);
+
+        for (final CsvFieldType current : values()) {
+            if (leadingZero && current.ordinal() <= DECIMAL.ordinal()) {
+                continue;
+            }
+
+            if (current.accepts(text)) {
+                return current;
+            }
+        }
+
+        return STRING;
+    }
+
+    /**
+     * The most specific type accepting values of both given types; INT widens to LONG to DECIMAL,
+     * any other mix is STRING.
+     *
+     * @param left
+     * @param right
+     * @return
+     */
+    public static CsvFieldType widen(final CsvFieldType left, final CsvFieldType right) {
+        if (left == null || left == right) {
+            return right;
+        } else if (right == null) {
+            return left;
+        } else if (left.ordinal() <= DECIMAL.ordinal() && right.ordinal() <= DECIMAL.ordinal()) {
+            return left.ordinal() > right.ordinal() ? left : right;
+        }
+
+        return STRING;
+    }
+
+    private static boolean hasLeadingZero(final String text) {
+        final int start = text.charAt(0) == '-' || text.charAt(0) == '+' ? 1 : 0;
+
+        return text.length() > start + 1
+                && text.charAt(start) == '0'
+                && isDigit(text.charAt(start + 1));
+    }
+
+    private static boolean isWholeNumber(final String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+
+        final int start = text.charAt(0) == '-' || text.charAt(0) == '+' ? 1 : 0;
+
+        if (start == text.length()) {
+            return false;
+        }
+
+        for (int index = start; index < text.length(); index++) {
+            if (!isDigit(text.charAt(index))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isDecimal(final String text) {
+        int index = text.charAt(0) == '-' || text.charAt(0) == '+' ? 1 : 0;
+        int digits = 0;
+        boolean point = false;
+
+        for (; index < text.length(); index++) {
+            final char c = text.charAt(index);
+
+            if (isDigit(c)) {
+                digits++;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else if ((c == 'e' || c == 'E') && digits > 0) {
+                return isWholeNumber(text.substring(index + 1));
+            } else {
+                return false;
+            }
+        }
+
+        return digits > 0;
+    }
+
+    private static boolean isDate(final String text) {
+        return text.length() >= 10
+                && text.charAt(4) == '-'
+                && text.charAt(7) == '-'
+                && areDigits(text, 0, 4)
+                && areDigits(text, 5, 2)
+                && areDigits(text, 8, 2)
+                && digits(text, 5, 2) >= 1
+                && digits(text, 5, 2) <= 12
+                && digits(text, 8, 2) >= 1
+                && digits(text, 8, 2)
+                        <= Month.of(digits(text, 5, 2)).length(Year.isLeap(digits(text, 0, 4)));
+    }
+
+    private static boolean isTimestamp(final String text) {
+        if (text.length() < 19 || !isDate(text)) {
+            return false;
+        }
+
+        final char separator = text.charAt(10);
+
+        if ((separator != 'T' && separator != ' ')
+                || text.charAt(13) != ':'
+                || text.charAt(16) != ':'
+                || !areDigits(text, 11, 2)
+                || !areDigits(text, 14, 2)
+                || !areDigits(text, 17, 2)
+                || digits(text, 11, 2) > 23
+                || digits(text, 14, 2) > 59
+                || digits(text, 17, 2) > 59) {
+            return false;
+        }
+
+        return text.length() == 19
+                || (text.length() > 20
+                        && text.charAt(19) == '.'
+                        && areDigits(text, 20, text.length() - 20));
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean areDigits(final String text, final int start, final int length) {
+        for (int index = start; index < start + length; index++) {
+            if (!isDigit(text.charAt(index))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int digits(final String text, final int start, final int length) {
+        int value = 0;
+
+        for (int index = start; index < start + length; index++) {
+            value = value * 10 + (text.charAt(index) - '0');
+        }
+
+        return value;
+    }
+
+    private static long parseLong(final String text) {
+        final boolean negative = text.charAt(0) == '-';
+        final int start = negative || text.charAt(0) == '+' ? 1 : 0;
+        long value = 0;
+
+        for (int index = start; index < text.length(); index++) {
+            value = value * 10 - (text.charAt(index) - '0');
+        }
+
+        return negative ? value : -value;
+    }
+
+    private static boolean fitsLong(final String text) {
+        final boolean negative = text.charAt(0) == '-';
+        final int start = negative || text.charAt(0) == '+' ? 1 : 0;
+        final int length = text.length() - start;
+        final String limit = negative ? "9223372036854775808" : "9223372036854775807";
+
+        return length < limit.length()
+                || (length == limit.length() && text.substring(start).compareTo(limit) <= 0);
+    }
+
+    private static boolean fitsInt(final long value) {
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,241 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.csv;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import net.ljcomputing.conduit.exception.ConduitRuntimeException;
+
+/**
+ * {@link java.util.Iterator Iterator} over the records of a CSV parser with typed values. Fields
+ * are read token by token and converted by the {@link net.ljcomputing.conduit.csv.CsvFieldType
+ * type} of their column, so no intermediate map of strings is built. Columns without a declared
+ * type are inferred from the first sample size records, which are buffered until inference
+ * completes; columns still unknown after the sample are strings.
+ */
+public class TypedCsvRecordIterator implements Iterator<Map<String, Object>>, AutoCloseable {
+    /** The parser. */
+    private final CsvParser parser;
+
+    /** Declared types by column name. */
+    private final Map<String, CsvFieldType> declaredTypes;
+
+    /** Number of records types are inferred from. */
+    private final int sampleSize;
+
+    /** Records read for inference, not yet returned. */
+    private final Deque<String[]> sample = new ArrayDeque<>();
+
+    /** Column names, by position; null until the first record is read. */
+    private String[] names;
+
+    /** Column types, by position; null until resolved. */
+    private CsvFieldType[] types;
+
+    /** The next record's fields; null if not read yet. */
+    private String[] next;
+
+    /** True once the parser is exhausted. */
+    private boolean done;
+
+    /**
+     * Constructor.
+     *
+     * @param parser parser with its schema set
+     * @param declaredTypes declared types by column name
+     * @param sampleSize number of records types of undeclared columns are inferred from
+     */
+    public TypedCsvRecordIterator(
+            final CsvParser parser,
+            final Map<String, CsvFieldType> declaredTypes,
+            final int sampleSize) {
+        this.parser = parser;
+        this.declaredTypes = declaredTypes;
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * The types of the columns after inference over the sample; declared types are kept.
+     *
+     * @return
+     */
+    public Map<String, CsvFieldType> resolveTypes() {
+        resolve();
+        final Map<String, CsvFieldType> result = new LinkedHashMap<>();
+
+        for (int index = 0; index < names.length; index++) {
+            result.put(names[index], types[index]);
+        }
+
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasNext() {
+        resolve();
+
+        if (next == null && !sample.isEmpty()) {
+            next = sample.poll();
+        } else if (next == null && !done) {
+            next = readFields();
+        }
+
+        return next != null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Object> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        final String[] fields = next;
+        next = null;
+        final Map<String, Object> record = new LinkedHashMap<>(names.length * 4 / 3 + 1);
+
+        for (int index = 0; index < fields.length && index < names.length; index++) {
+            try {
+                record.put(names[index], types[index].parse(fields[index]));
+            } catch (final IllegalArgumentException | DateTimeException e) {
+                throw new ConduitRuntimeException(
+                        String.format(
+                                "column %s at line %d: %s",
+                                names[index],
+                                parser.getCurrentLocation().getLineNr(),
+                                e.getMessage()),
+                        e);
+            }
+        }
+
+        return record;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    /** Read the sample and resolve the column types, once. */
+    private void resolve() {
+        if (types != null) {
+            return;
+        }
+
+        final Map<Integer, CsvFieldType> inferred = new HashMap<>();
+
+        while (sample.size() < Math.max(1, sampleSize)) {
+            final String[] fields = readFields();
+
+            if (fields == null) {
+                break;
+            }
+
+            sample.add(fields);
+
+            for (int index = 0; index < fields.length; index++) {
+                final CsvFieldType type = CsvFieldType.infer(fields[index]);
+
+                if (type != null) {
+                    inferred.merge(index, type, CsvFieldType::widen);
+                }
+            }
+        }
+
+        if (names == null) {
+            names = columnNames();
+        }
+
+        types = new CsvFieldType[names.length];
+
+        for (int index = 0; index < names.length; index++) {
+            final CsvFieldType declared = declaredTypes.get(names[index]);
+            final CsvFieldType sampled = sampleSize > 0 ? inferred.get(index) : null;
+            types[index] =
+                    declared != null ? declared : sampled != null ? sampled : CsvFieldType.STRING;
+        }
+    }
+
+    /**
+     * Read the fields of the next record; null at the end of the input.
+     *
+     * @return
+     */
+    private String[] readFields() {
+        try {
+            JsonToken token = parser.nextToken();
+
+            if (token == null) {
+                done = true;
+                return null;
+            }
+
+            if (names == null) {
+                names = columnNames();
+            }
+
+            final String[] fields = new String[names.length];
+            int index = 0;
+
+            while ((token = parser.nextToken()) != JsonToken.END_OBJECT && token != null) {
+                if (token == JsonToken.VALUE_STRING && index < fields.length) {
+                    fields[index] = parser.getText();
+                }
+
+                if (token != JsonToken.FIELD_NAME) {
+                    index++;
+                }
+            }
+
+            return fields;
+        } catch (final IOException e) {
+            throw new ConduitRuntimeException(e);
+        }
+    }
+
+    /**
+     * The column names of the parser's schema; available once the first record is started.
+     *
+     * @return
+     */
+    private String[] columnNames() {
+        final CsvSchema schema = parser.getSchema();
+        final String[] result = new String[schema.size()];
+
+        for (int index = 0; index < result.length; index++) {
+            result[index] = schema.columnName(index);
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.exception;
+
+/**
+ * Unchecked Conduit Application Exception. Used where a checked {@link
+ * net.ljcomputing.conduit.exception.ConduitException ConduitException} cannot be thrown (ex. while
+ * a record stream is being consumed).
+ */
+public class ConduitRuntimeException extends RuntimeException {
+    /** Constructor. */
+    public ConduitRuntimeException() {}
+
+    /**
+     * Constructor.
+     *
+     * @param message
+     */
+    public ConduitRuntimeException(final String message) {
+        super(message);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param message
+     * @param cause
+     */
+    public ConduitRuntimeException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param cause
+     */
+    public ConduitRuntimeException(final Throwable cause) {
+        super(cause);
+    }
+}
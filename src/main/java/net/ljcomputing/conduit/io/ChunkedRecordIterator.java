@@ -0,0 +1,189 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.io;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.ljcomputing.conduit.exception.ConduitRuntimeException;
+
+/**
+ * {@link java.util.Iterator Iterator} over the records of {@link
+ * net.ljcomputing.conduit.io.ByteRange byte ranges} parsed concurrently on a fixed pool. At most
+ * two chunks per thread are parsed ahead of the consumer, so memory use is bounded by the chunk
+ * size rather than the file size. Records are returned in file order, or as chunks complete if
+ * unordered.
+ *
+ * @param <T> record type
+ */
+public class ChunkedRecordIterator<T> implements Iterator<T>, AutoCloseable {
+    /** Parses the records of a byte range. */
+    @FunctionalInterface
+    public interface ChunkParser<T> {
+        /**
+         * Parse the records of the given range.
+         *
+         * @param range
+         * @return
+         * @throws Exception
+         */
+        List<T> parse(ByteRange range) throws Exception;
+    }
+
+    /** Sequence used to name pool threads. */
+    private static final AtomicInteger THREAD_SEQUENCE = new AtomicInteger();
+
+    /** The ranges to parse, in file order. */
+    private final List<ByteRange> ranges;
+
+    /** The range parser. */
+    private final ChunkParser<T> parser;
+
+    /** True to return records in file order. */
+    private final boolean ordered;
+
+    /** Maximum number of chunks parsed ahead of the consumer. */
+    private final int maxInFlight;
+
+    /** The parsing pool. */
+    private final ExecutorService executor;
+
+    /** Completion order of chunks when unordered. */
+    private final CompletionService<List<T>> completionService;
+
+    /** Chunks submitted, in file order, when ordered. */
+    private final Deque<Future<List<T>>> inFlight = new ArrayDeque<>();
+
+    /** Number of chunks submitted and not yet consumed. */
+    private int pending;
+
+    /** Index of the next range to submit. */
+    private int nextRange;
+
+    /** Records of the current chunk. */
+    private Iterator<T> current = Collections.emptyIterator();
+
+    /**
+     * Constructor.
+     *
+     * @param ranges
+     * @param parser
+     * @param parallelism number of parsing threads
+     * @param ordered true to return records in file order
+     */
+    public ChunkedRecordIterator(
+            final List<ByteRange> ranges,
+            final ChunkParser<T> parser,
+            final int parallelism,
+            final boolean ordered) {
+        this.ranges = ranges;
+        this.parser = parser;
+        this.ordered = ordered;
+        this.maxInFlight = Math.max(1, parallelism) * 2;
+        this.executor =
+                Executors.newFixedThreadPool(
+                        Math.max(1, parallelism),
+                        r -> {
+                            final Thread thread =
+                                    new Thread(
+                                            r,
+                                            "conduit-chunk-" + THREAD_SEQUENCE.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        this.completionService = new ExecutorCompletionService<>(executor);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            submit();
+
+            if (pending == 0) {
+                return false;
+            }
+
+            current = take().iterator();
+        }
+
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        return current.next();
+    }
+
+    /** Stop parsing and release the pool. */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /** Submit ranges until the in flight limit is reached. */
+    private void submit() {
+        while (pending < maxInFlight && nextRange < ranges.size()) {
+            final ByteRange range = ranges.get(nextRange++);
+
+            if (ordered) {
+                inFlight.add(executor.submit(() -> parser.parse(range)));
+            } else {
+                completionService.submit(() -> parser.parse(range));
+            }
+
+            pending++;
+        }
+    }
+
+    /**
+     * Wait for the next chunk.
+     *
+     * @return
+     */
+    private List<T> take() {
+        try {
+            final List<T> chunk = ordered ? inFlight.poll().get() : completionService.take().get();
+            pending--;
+            return chunk;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConduitRuntimeException(e);
+        } catch (final ExecutionException e) {
+            throw new ConduitRuntimeException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.io;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+
+/**
+ * Enum of supported stream compressions, detected by magic bytes or file name extension, and
+ * decoded as streams so compressed sources are never decompressed to disk.
+ */
+public enum Compression {
+    NONE(new int[0]) {
+        @Override
+        InputStream decoder(final InputStream in) {
+            return in;
+        }
+    },
+    /** Gzip; concatenated (multi-member) files are read as one stream. */
+    GZIP(new int[] {0x1f, 0x8b}, ".gz", ".gzip") {
+        @Override
+        InputStream decoder(final InputStream in) throws IOException {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+    },
+    /** Bzip2; concatenated streams are read as one stream. */
+    BZIP2(new int[] {'B', 'Z', 'h'}, ".bz2", ".bzip2") {
+        @Override
+        InputStream decoder(final InputStream in) throws IOException {
+            return new BZip2CompressorInputStream(new BufferedInputStream(in, BUFFER_SIZE), true);
+        }
+    },
+    /** Zstandard. */
+    ZSTD(new int[] {0x28, 0xb5, 0x2f, 0xfd}, ".zst", ".zstd") {
+        @Override
+        InputStream decoder(final InputStream in) throws IOException {
+            return new ZstdCompressorInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+        }
+    };
+
+    /** Size of the buffers of decoded streams. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Number of bytes read to detect a compression. */
+    private static final int MAGIC_LENGTH = 4;
+
+    /** Leading bytes of streams of the compression. */
+    private final int[] magic;
+
+    /** File name extensions of the compression. */
+    private final List<String> extensions;
+
+    /**
+     * Private constructor.
+     *
+     * @param magic
+     * @param extensions
+     */
+    private Compression(final int[] magic, final String... extensions) {
+        this.magic = magic;
+        this.extensions = Arrays.asList(extensions);
+    }
+
+    /**
+     * Wrap the given compressed stream in a decoder.
+     *
+     * @param in
+     * @return
+     * @throws IOException
+     */
+    abstract InputStream decoder(InputStream in) throws IOException;
+
+    /**
+     * Wrap the given stream of the compression in a buffered decoding stream.
+     *
+     * @param in
+     * @return
+     * @throws IOException
+     */
+    public InputStream decode(final InputStream in) throws IOException {
+        return this == NONE ? in : new BufferedInputStream(decoder(in), BUFFER_SIZE);
+    }
+
+    /**
+     * Find the compression by the extension of the given file name (or URL path); none if not
+     * compressed.
+     *
+     * @param name
+     * @return
+     */
+    public static Compression findByName(final String name) {
+        final String lower = name.toLowerCase();
+
+        for (final Compression current : values()) {
+            for (final String extension : current.extensions) {
+                if (lower.endsWith(extension)) {
+                    return current;
+                }
+            }
+        }
+
+        return NONE;
+    }
+
+    /**
+     * Find the compression by the given leading bytes of a stream; none if not compressed.
+     *
+     * @param header
+     * @param length number of bytes of the header read
+     * @return
+     */
+    public static Compression findByMagic(final byte[] header, final int length) {
+        for (final Compression current : values()) {
+            if (current.magic.length > 0 && current.matches(header, length)) {
+                return current;
+            }
+        }
+
+        return NONE;
+    }
+
+    /**
+     * Detect the compression of the given file by its leading bytes, or its extension if they match
+     * none.
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static Compression detect(final Path file) throws IOException {
+        final byte[] header = new byte[MAGIC_LENGTH];
+        int length = 0;
+
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+
+            while (length < header.length
+                    && (read = in.read(header, length, header.length - length)) > 0) {
+                length += read;
+            }
+        }
+
+        final Compression compression = findByMagic(header, length);
+        return compression == NONE ? findByName(file.getFileName().toString()) : compression;
+    }
+
+    /**
+     * Detect the compression of the given stream by its leading bytes, and return a stream of its
+     * decoded content.
+     *
+     * @param in
+     * @return
+     * @throws IOException
+     */
+    public static InputStream decompress(final InputStream in) throws IOException {
+        final BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        final byte[] header = new byte[MAGIC_LENGTH];
+        int length = 0;
+        int read;
+
+        buffered.mark(MAGIC_LENGTH);
+
+        while (length < header.length
+                && (read = buffered.read(header, length, header.length - length)) > 0) {
+            length += read;
+        }
+
+        buffered.reset();
+        return findByMagic(header, length).decode(buffered);
+    }
+
+    private boolean matches(final byte[] header, final int length) {
+        if (length < magic.length) {
+            return false;
+        }
+
+        for (int index = 0; index < magic.length; index++) {
+            if ((header[index] & 0xff) != magic[index]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * {@link java.io.InputStream InputStream} reporting the number of bytes of each read of the
+ * underlying stream to a listener. Reads are reported as they happen (not per byte), so the cost is
+ * one call per buffer filled.
+ */
+public class CountingInputStream extends FilterInputStream {
+    /** Listener of the number of bytes read. */
+    private final LongConsumer listener;
+
+    /**
+     * Constructor.
+     *
+     * @param in
+     * @param listener accepts the number of bytes of each read
+     */
+    public CountingInputStream(final InputStream in, final LongConsumer listener) {
+        super(in);
+        this.listener = listener;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int read() throws IOException {
+        final int b = super.read();
+
+        if (b >= 0) {
+            listener.accept(1);
+        }
+
+        return b;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        final int read = in.read(b, off, len);
+
+        if (read > 0) {
+            listener.accept(read);
+        }
+
+        return read;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long skip(final long n) throws IOException {
+        final long skipped = super.skip(n);
+
+        if (skipped > 0) {
+            listener.accept(skipped);
+        }
+
+        return skipped;
+    }
+
+    /** Marks are not supported, so reset bytes are not counted twice. */
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
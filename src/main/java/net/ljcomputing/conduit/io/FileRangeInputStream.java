@@ -0,0 +1,93 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link java.io.InputStream InputStream} over a {@link net.ljcomputing.conduit.io.ByteRange byte
+ * range} of a file, read with positional channel reads.
+ */
+public class FileRangeInputStream extends InputStream {
+    /** The file's channel. */
+    private final FileChannel channel;
+
+    /** Offset of the next byte read. */
+    private long position;
+
+    /** Offset after the last byte of the range. */
+    private final long end;
+
+    /**
+     * Open the given range of the given file.
+     *
+     * @param file
+     * @param range
+     * @throws IOException
+     */
+    public FileRangeInputStream(final Path file, final ByteRange range) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.position = range.getStart();
+        this.end = range.getEnd();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int read() throws IOException {
+        final byte[] b = new byte[1];
+        return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (position >= end) {
+            return -1;
+        }
+
+        final int length = (int) Math.min(len, end - position);
+        final int read = channel.read(ByteBuffer.wrap(b, off, length), position);
+
+        if (read < 0) {
+            return -1;
+        }
+
+        position += read;
+        return read;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, end - position);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
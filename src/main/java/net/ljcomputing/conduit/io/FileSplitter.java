@@ -0,0 +1,286 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits files into {@link net.ljcomputing.conduit.io.ByteRange byte ranges} that start and end on
+ * record boundaries, so each range can be parsed independently.
+ */
+public enum FileSplitter {
+    INSTANCE;
+
+    /** Size of the buffer used to scan files. */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /** Record separator. */
+    private static final byte NEWLINE = '\n';
+
+    /**
+     * Split the given file, from the given offset, into ranges of about the given size ending on
+     * newlines outside of quotes. Quoted values may contain newlines, so quote state can only be
+     * known by scanning every byte from the start offset; the scan is a single sequential pass that
+     * only compares bytes, so it is much cheaper than parsing. If quote is negative, quoting is
+     * disabled and the file is split as {@link #splitLines lines}.
+     *
+     * @param file
+     * @param start
+     * @param chunkSize
+     * @param quote the quote character; negative if quoting is disabled
+     * @return
+     * @throws IOException
+     */
+    public static List<ByteRange> splitRecords(
+            final Path file, final long start, final long chunkSize, final int quote)
+            throws IOException {
+        if (quote < 0) {
+            return splitLines(file, start, chunkSize);
+        }
+
+        final List<ByteRange> ranges = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            long rangeStart = start;
+            long target = start + chunkSize;
+            long position = start;
+            boolean quoted = false;
+
+            channel.position(start);
+
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+
+                while (buffer.hasRemaining()) {
+                    final byte b = buffer.get();
+                    position++;
+
+                    if (b == quote) {
+                        quoted = !quoted;
+                    } else if (b == NEWLINE && !quoted && position >= target) {
+                        ranges.add(new ByteRange(rangeStart, position));
+                        rangeStart = position;
+                        target = position + chunkSize;
+                    }
+                }
+
+                buffer.clear();
+            }
+
+            if (rangeStart < position) {
+                ranges.add(new ByteRange(rangeStart, position));
+            }
+        }
+
+        return ranges;
+    }
+
+    /**
+     * Split the given file, from the given offset, into ranges of about the given size ending on
+     * newlines. Only the bytes following each split target are read, so the file is not scanned.
+     * Only valid for formats in which every newline ends a record (ex. JSON Lines).
+     *
+     * @param file
+     * @param start
+     * @param chunkSize
+     * @return
+     * @throws IOException
+     */
+    public static List<ByteRange> splitLines(
+            final Path file, final long start, final long chunkSize) throws IOException {
+        final List<ByteRange> ranges = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            long rangeStart = start;
+
+            while (rangeStart < size) {
+                final long end =
+                        rangeStart + chunkSize >= size
+                                ? size
+                                : nextLine(channel, rangeStart + chunkSize, size);
+                ranges.add(new ByteRange(rangeStart, end));
+                rangeStart = end;
+            }
+        }
+
+        return ranges;
+    }
+
+    /**
+     * Offset after the end of the record starting at the given offset (the newline following it
+     * outside of quotes); the file size if the record is not terminated.
+     *
+     * @param file
+     * @param start
+     * @param quote the quote character; negative if quoting is disabled
+     * @return
+     * @throws IOException
+     */
+    public static long recordEnd(final Path file, final long start, final int quote)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(8192);
+            long position = start;
+            boolean quoted = false;
+
+            while (channel.read(buffer, position) > 0) {
+                buffer.flip();
+
+                while (buffer.hasRemaining()) {
+                    final byte b = buffer.get();
+                    position++;
+
+                    if (b == quote) {
+                        quoted = !quoted;
+                    } else if (b == NEWLINE && !quoted) {
+                        return position;
+                    }
+                }
+
+                buffer.clear();
+            }
+
+            return position;
+        }
+    }
+
+    /**
+     * Offset after the given number of records following the given offset (each ending on a newline
+     * outside of quotes, blank lines included, as the CSV parser reads them); the file size if the
+     * file has fewer records. Only bytes are compared, so skipping is much cheaper than parsing the
+     * records. If quote is negative, quoting is disabled and lines are skipped.
+     *
+     * @param file
+     * @param start
+     * @param count
+     * @param quote the quote character; negative if quoting is disabled
+     * @return
+     * @throws IOException
+     */
+    public static long skipRecords(
+            final Path file, final long start, final long count, final int quote)
+            throws IOException {
+        return skipRecords(file, start, count, quote, true);
+    }
+
+    /**
+     * Offset after the given number of records following the given offset, as {@link
+     * #skipRecords(Path, long, long, int) skipRecords}; if blank lines are not records (ex. JSON
+     * Lines, whose parser skips whitespace), lines of only whitespace are skipped without being
+     * counted.
+     *
+     * @param file
+     * @param start
+     * @param count
+     * @param quote the quote character; negative if quoting is disabled
+     * @param blankLines true if blank lines are records
+     * @return
+     * @throws IOException
+     */
+    public static long skipRecords(
+            final Path file,
+            final long start,
+            final long count,
+            final int quote,
+            final boolean blankLines)
+            throws IOException {
+        if (count <= 0) {
+            return start;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            long position = start;
+            long skipped = 0;
+            boolean quoted = false;
+            boolean content = false;
+
+            while (channel.read(buffer, position) > 0) {
+                buffer.flip();
+
+                while (buffer.hasRemaining()) {
+                    final byte b = buffer.get();
+                    position++;
+
+                    if (b == quote) {
+                        quoted = !quoted;
+                        content = true;
+                    } else if (b == NEWLINE && !quoted) {
+                        if ((blankLines || content) && ++skipped == count) {
+                            return position;
+                        }
+
+                        content = false;
+                    } else if (b != ' ' && b != '\t' && b != '\r') {
+                        content = true;
+                    }
+                }
+
+                buffer.clear();
+            }
+
+            return position;
+        }
+    }
+
+    /**
+     * Offset after the first newline at or following the given offset; the given size if there is
+     * none.
+     *
+     * @param channel
+     * @param from
+     * @param size
+     * @return
+     * @throws IOException
+     */
+    private static long nextLine(final FileChannel channel, final long from, final long size)
+            throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = from;
+
+        while (position < size) {
+            buffer.clear();
+            final int read = channel.read(buffer, position);
+
+            if (read <= 0) {
+                break;
+            }
+
+            for (int index = 0; index < read; index++) {
+                if (buffer.get(index) == NEWLINE) {
+                    return position + index + 1;
+                }
+            }
+
+            position += read;
+        }
+
+        return size;
+    }
+}
@@ -0,0 +1,202 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.io;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import net.ljcomputing.conduit.exception.ConduitRuntimeException;
+
+/**
+ * {@link java.util.Iterator Iterator} over the records of the array at a {@link
+ * com.fasterxml.jackson.core.JsonPointer JSON pointer} of a document, read incrementally from a
+ * {@link com.fasterxml.jackson.core.JsonParser parser}. Values before the array that are not on the
+ * pointer's path are skipped token by token without being bound, and only one record is bound at a
+ * time, so memory use does not depend on the document size. If the pointer selects an object, it is
+ * the only record.
+ *
+ * @param <T> record type
+ */
+public class JsonRecordIterator<T> implements Iterator<T>, AutoCloseable {
+    /** The parser. */
+    private final JsonParser parser;
+
+    /** Reader binding records. */
+    private final ObjectReader reader;
+
+    /** True if the pointer selects an array of records. */
+    private final boolean array;
+
+    /** True if the next record has been read up to its first token. */
+    private boolean ready;
+
+    /** True once the last record is returned. */
+    private boolean done;
+
+    /**
+     * Position the given parser on the value at the given pointer.
+     *
+     * @param parser
+     * @param reader reader binding records
+     * @param pointer
+     * @throws IOException if the document has no value at the pointer
+     */
+    public JsonRecordIterator(
+            final JsonParser parser, final ObjectReader reader, final JsonPointer pointer)
+            throws IOException {
+        this.parser = parser;
+        this.reader = reader;
+
+        if (parser.nextToken() == null || !seek(pointer)) {
+            throw new IOException("no value at JSON pointer " + pointer);
+        }
+
+        this.array = parser.currentToken() == JsonToken.START_ARRAY;
+        this.ready = !array;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasNext() {
+        if (done) {
+            return false;
+        }
+
+        if (!ready) {
+            try {
+                ready = parser.nextToken() != JsonToken.END_ARRAY;
+            } catch (final IOException e) {
+                throw new ConduitRuntimeException(e);
+            }
+
+            done = !ready;
+        }
+
+        return ready;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        try {
+            final T record = reader.readValue(parser);
+            ready = false;
+            done = !array;
+            return record;
+        } catch (final IOException e) {
+            throw new ConduitRuntimeException(e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    /**
+     * Advance the parser, positioned on the first token of a value, to the first token of the value
+     * at the given pointer relative to it.
+     *
+     * @param pointer
+     * @return false if there is no value at the pointer
+     * @throws IOException
+     */
+    private boolean seek(final JsonPointer pointer) throws IOException {
+        JsonPointer remaining = pointer;
+
+        while (!remaining.matches()) {
+            final JsonToken token = parser.currentToken();
+            final boolean found;
+
+            if (token == JsonToken.START_OBJECT) {
+                found = seekProperty(remaining.getMatchingProperty());
+            } else if (token == JsonToken.START_ARRAY) {
+                found = seekIndex(remaining.getMatchingIndex());
+            } else {
+                found = false;
+            }
+
+            if (!found) {
+                return false;
+            }
+
+            remaining = remaining.tail();
+        }
+
+        return true;
+    }
+
+    /**
+     * Advance the parser, positioned on the start of an object, to the value of the given property;
+     * the values of other properties are skipped.
+     *
+     * @param name
+     * @return false if the object has no such property
+     * @throws IOException
+     */
+    private boolean seekProperty(final String name) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.currentName();
+            parser.nextToken();
+
+            if (field.equals(name)) {
+                return true;
+            }
+
+            parser.skipChildren();
+        }
+
+        return false;
+    }
+
+    /**
+     * Advance the parser, positioned on the start of an array, to the element at the given index;
+     * preceding elements are skipped.
+     *
+     * @param index
+     * @return false if the array has no such element
+     * @throws IOException
+     */
+    private boolean seekIndex(final int index) throws IOException {
+        if (index < 0) {
+            return false;
+        }
+
+        for (int current = 0; parser.nextToken() != JsonToken.END_ARRAY; current++) {
+            if (current == index) {
+                return true;
+            }
+
+            parser.skipChildren();
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A file mapped into memory as a sequence of read only {@link java.nio.MappedByteBuffer windows}. A
+ * single mapping is limited to 2 GB, so larger files are mapped as consecutive windows of the
+ * window size; windows are mapped on first use. Closing the file closes its channel; mapped windows
+ * remain valid until they are garbage collected.
+ */
+public class MappedFile implements AutoCloseable {
+    /** Default size, in bytes, of a window. */
+    public static final long DEFAULT_WINDOW_SIZE = 1L << 30;
+
+    /** The file's channel. */
+    private final FileChannel channel;
+
+    /** Size of the file. */
+    private final long size;
+
+    /** Size of a window. */
+    private final long windowSize;
+
+    /** Windows, by index; null until mapped. */
+    private final MappedByteBuffer[] windows;
+
+    /**
+     * Map the given file with the default window size.
+     *
+     * @param file
+     * @throws IOException
+     */
+    public MappedFile(final Path file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Map the given file with the given window size.
+     *
+     * @param file
+     * @param windowSize size, in bytes, of a window; at most {@link Integer#MAX_VALUE}
+     * @throws IOException
+     */
+    public MappedFile(final Path file, final long windowSize) throws IOException {
+        if (windowSize <= 0 || windowSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("invalid window size: " + windowSize);
+        }
+
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+        this.windows = new MappedByteBuffer[(int) ((size + windowSize - 1) / windowSize)];
+    }
+
+    /**
+     * Open an {@link java.io.InputStream input stream} over the whole of the given file read from
+     * mapped memory. The mapping is closed when the stream is closed.
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static InputStream openInputStream(final Path file) throws IOException {
+        final MappedFile mapped = new MappedFile(file);
+        return new MappedInputStream(mapped, new ByteRange(0, mapped.size()), true);
+    }
+
+    /**
+     * The file's channel.
+     *
+     * @return
+     */
+    public FileChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Size, in bytes, of the file.
+     *
+     * @return
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Size, in bytes, of a window.
+     *
+     * @return
+     */
+    public long windowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Number of windows.
+     *
+     * @return
+     */
+    public int windowCount() {
+        return windows.length;
+    }
+
+    /**
+     * The window at the given index; mapped on first use. Callers sharing a window across threads
+     * should read from a {@link java.nio.ByteBuffer#duplicate() duplicate}.
+     *
+     * @param index
+     * @return
+     * @throws IOException
+     */
+    public synchronized MappedByteBuffer window(final int index) throws IOException {
+        if (windows[index] == null) {
+            final long position = index * windowSize;
+            windows[index] =
+                    channel.map(
+                            FileChannel.MapMode.READ_ONLY,
+                            position,
+                            Math.min(windowSize, size - position));
+        }
+
+        return windows[index];
+    }
+
+    /**
+     * Open an {@link java.io.InputStream input stream} over the given range read from mapped
+     * memory. Streams are independent, so ranges can be read concurrently; closing a stream does
+     * not close the mapping.
+     *
+     * @param range
+     * @return
+     */
+    public InputStream inputStream(final ByteRange range) {
+        return new MappedInputStream(this, range, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link java.io.InputStream InputStream} over a {@link net.ljcomputing.conduit.io.ByteRange byte
+ * range} of a {@link net.ljcomputing.conduit.io.MappedFile mapped file}, crossing windows as
+ * needed.
+ */
+class MappedInputStream extends InputStream {
+    /** The mapped file. */
+    private final MappedFile file;
+
+    /** True to close the mapped file when the stream is closed. */
+    private final boolean owner;
+
+    /** Offset after the last byte of the range. */
+    private final long end;
+
+    /** Offset of the next byte read. */
+    private long position;
+
+    /** Duplicate of the current window. */
+    private ByteBuffer window;
+
+    /** Index of the current window; -1 if none. */
+    private int windowIndex = -1;
+
+    /**
+     * Constructor.
+     *
+     * @param file
+     * @param range
+     * @param owner true to close the mapped file when the stream is closed
+     */
+    MappedInputStream(final MappedFile file, final ByteRange range, final boolean owner) {
+        this.file = file;
+        this.owner = owner;
+        this.position = range.getStart();
+        this.end = Math.min(range.getEnd(), file.size());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int read() throws IOException {
+        if (position >= end) {
+            return -1;
+        }
+
+        final int b = seek().get() & 0xff;
+        position++;
+        return b;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (position >= end) {
+            return -1;
+        }
+
+        final ByteBuffer buffer = seek();
+        final int length = (int) Math.min(Math.min(len, end - position), buffer.remaining());
+        buffer.get(b, off, length);
+        position += length;
+        return length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long skip(final long n) {
+        final long skipped = Math.max(0, Math.min(n, end - position));
+        position += skipped;
+        return skipped;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, end - position);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        if (owner) {
+            file.close();
+        }
+    }
+
+    /**
+     * The current window, positioned at the read position.
+     *
+     * @return
+     * @throws IOException
+     */
+    private ByteBuffer seek() throws IOException {
+        final int index = (int) (position / file.windowSize());
+
+        if (index != windowIndex) {
+            window = file.window(index).duplicate();
+            windowIndex = index;
+        }
+
+        window.position((int) (position - index * file.windowSize()));
+        return window;
+    }
+}
@@ -0,0 +1,222 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.jdbc;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.List;
+import net.ljcomputing.conduit.model.DatasetColumnDefinition;
+import net.ljcomputing.conduit.model.DatasetRecord;
+import net.ljcomputing.conduit.model.DatasetSchema;
+import net.ljcomputing.conduit.utils.SqlValueUtils;
+
+/**
+ * {@link java.io.Reader Reader} of records as delimited text, one line per record, in the CSV
+ * dialect read by bulk load commands (ex. PostgreSQL's COPY ... WITH (FORMAT csv)). Nulls are
+ * written as nothing and empty strings as a quoted empty value so the two can be told apart.
+ * Records are formatted as they are read, so only one line is held in memory.
+ */
+public class DelimitedRecordReader extends Reader {
+    /** Quote character. */
+    private static final char QUOTE = '"';
+
+    /** The columns written, in order. */
+    private final List<DatasetColumnDefinition> columns;
+
+    /** The records. */
+    private final Iterator<DatasetRecord> records;
+
+    /** The field delimiter. */
+    private final char delimiter;
+
+    /** The current line. */
+    private final StringBuilder line = new StringBuilder();
+
+    /** Offset of the next character of the current line. */
+    private int position;
+
+    /** The schema the ordinals were resolved against. */
+    private DatasetSchema schema;
+
+    /** The ordinal of each column in the record schema; -1 if the record lacks the column. */
+    private int[] ordinals;
+
+    /** Number of records read. */
+    private long count;
+
+    /**
+     * Constructor.
+     *
+     * @param columns
+     * @param records
+     * @param delimiter
+     */
+    public DelimitedRecordReader(
+            final List<DatasetColumnDefinition> columns,
+            final Iterator<DatasetRecord> records,
+            final char delimiter) {
+        this.columns = columns;
+        this.records = records;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Number of records read so far.
+     *
+     * @return
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int read(final char[] buffer, final int offset, final int length) {
+        if (length == 0) {
+            return 0;
+        }
+
+        int read = 0;
+
+        while (read < length) {
+            if (position == line.length() && !nextLine()) {
+                break;
+            }
+
+            final int chars = Math.min(length - read, line.length() - position);
+            line.getChars(position, position + chars, buffer, offset + read);
+            position += chars;
+            read += chars;
+        }
+
+        return read == 0 ? -1 : read;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        line.setLength(0);
+        position = 0;
+    }
+
+    /**
+     * Format the next record into the current line; false if there are no more records.
+     *
+     * @return
+     */
+    private boolean nextLine() {
+        if (!records.hasNext()) {
+            return false;
+        }
+
+        final DatasetRecord record = records.next();
+        resolve(record.getSchema());
+        line.setLength(0);
+        position = 0;
+
+        for (int index = 0; index < ordinals.length; index++) {
+            if (index > 0) {
+                line.append(delimiter);
+            }
+
+            append(ordinals[index] < 0 ? null : record.get(ordinals[index]));
+        }
+
+        line.append('\n');
+        count++;
+        return true;
+    }
+
+    /**
+     * Append the given value to the current line, quoting it if needed.
+     *
+     * @param value
+     */
+    private void append(final Object value) {
+        if (value == null) {
+            return;
+        }
+
+        if (value instanceof BigDecimal) {
+            line.append(((BigDecimal) value).toPlainString());
+            return;
+        }
+
+        if (value instanceof Number || value instanceof Boolean) {
+            line.append(value);
+            return;
+        }
+
+        final String text = SqlValueUtils.format(value);
+
+        if (!text.isEmpty() && !requiresQuotes(text)) {
+            line.append(text);
+            return;
+        }
+
+        line.append(QUOTE);
+
+        for (int index = 0; index < text.length(); index++) {
+            final char c = text.charAt(index);
+
+            if (c == QUOTE) {
+                line.append(QUOTE);
+            }
+
+            line.append(c);
+        }
+
+        line.append(QUOTE);
+    }
+
+    /**
+     * Return true if the given text contains the delimiter, a quote or a line break.
+     *
+     * @param text
+     * @return
+     */
+    private boolean requiresQuotes(final String text) {
+        for (int index = 0; index < text.length(); index++) {
+            final char c = text.charAt(index);
+
+            if (c == delimiter || c == QUOTE || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void resolve(final DatasetSchema recordSchema) {
+        if (recordSchema == schema) {
+            return;
+        }
+
+        ordinals = new int[columns.size()];
+
+        for (int index = 0; index < ordinals.length; index++) {
+            ordinals[index] = recordSchema.indexOf(columns.get(index).getName());
+        }
+
+        schema = recordSchema;
+    }
+}
@@ -0,0 +1,404 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.sql.DataSource;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import net.ljcomputing.conduit.model.DatasetColumnDefinition;
+import net.ljcomputing.conduit.model.DatasetRecord;
+import net.ljcomputing.conduit.model.DatasetSchema;
+import net.ljcomputing.conduit.utils.SqlStatementUtils;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+
+/**
+ * Batched JDBC writer. Records are bound by the JDBC type of their column definitions to one reused
+ * {@link java.sql.PreparedStatement PreparedStatement} and sent with {@link
+ * java.sql.PreparedStatement#executeBatch() executeBatch}, committing every commit interval rows.
+ * When multi-row values are enabled and the database supports them, several records are bound to a
+ * single insert statement (ex. insert into foo (a, b) values (?, ?), (?, ?)), as many as the {@link
+ * net.ljcomputing.conduit.jdbc.SqlDialect dialect's} parameter limit allows.
+ *
+ * <p>When key columns are set, records are upserted instead: records whose key exists in the table
+ * are updated and others inserted, using the dialect's upsert statement (ex. insert on conflict or
+ * merge), so a load can be repeated without duplicating rows. Key columns are always written. If a
+ * key repeats within the rows of one statement, the rows before it are sent first, so the last
+ * record of a key wins.
+ */
+@Slf4j
+@Builder
+public class JdbcBatchWriter {
+    /** Listener of the batches written. */
+    @FunctionalInterface
+    public interface BatchListener {
+        /** Listener ignoring every batch. */
+        BatchListener NONE = (rows, elapsedNanos) -> {};
+
+        /**
+         * Called after each batch is sent.
+         *
+         * @param rows number of rows in the batch
+         * @param elapsedNanos time taken to send the batch, in nanoseconds
+         */
+        void batchWritten(int rows, long elapsedNanos);
+    }
+
+    /** Default number of rows sent per batch. */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /** Default number of rows written per transaction. */
+    public static final int DEFAULT_COMMIT_INTERVAL = 10000;
+
+    /** The data source written to. */
+    @NonNull private final DataSource dataSource;
+
+    /** The target table. */
+    @NonNull private final String table;
+
+    /** The column definitions of the records written. */
+    @NonNull private final List<DatasetColumnDefinition> columnDefinitions;
+
+    /** Columns of the column definitions not written. */
+    @Builder.Default private final String[] excludedColumns = new String[0];
+
+    /** Columns records are upserted on; records are inserted if empty. */
+    @Builder.Default private final String[] keyColumns = new String[0];
+
+    /** The SQL dialect of the database; detected from the connection if null. */
+    private final SqlDialect dialect;
+
+    /** Number of rows sent per batch. */
+    @Builder.Default private final int batchSize = DEFAULT_BATCH_SIZE;
+
+    /** Number of rows written per transaction. */
+    @Builder.Default private final int commitInterval = DEFAULT_COMMIT_INTERVAL;
+
+    /** True to bind several rows per insert statement where the database allows it. */
+    @Builder.Default private final boolean multiRowValues = false;
+
+    /** Listener of the batches written. */
+    @Builder.Default private final BatchListener batchListener = BatchListener.NONE;
+
+    /**
+     * Write the given records.
+     *
+     * @param records
+     * @return number of rows written
+     * @throws SQLException
+     */
+    public long write(final Iterable<DatasetRecord> records) throws SQLException {
+        final List<DatasetColumnDefinition> columns =
+                SqlStatementUtils.filterColumnDefinitions(columnDefinitions, writtenExclusions());
+        final int[] sqlTypes = new int[columns.size()];
+
+        for (int index = 0; index < sqlTypes.length; index++) {
+            sqlTypes[index] =
+                    StatementCreatorUtils.javaTypeToSqlParameterType(
+                            columns.get(index).getDatatypeClass());
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            final boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            try {
+                final long rows = write(connection, columns, sqlTypes, records);
+                connection.commit();
+                return rows;
+            } catch (final SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private long write(
+            final Connection connection,
+            final List<DatasetColumnDefinition> columns,
+            final int[] sqlTypes,
+            final Iterable<DatasetRecord> records)
+            throws SQLException {
+        final SqlDialect sqlDialect = dialect == null ? SqlDialect.of(connection) : dialect;
+        final List<String> keys = keyColumns(columns);
+        final int rowsPerStatement =
+                multiRowValues ? sqlDialect.rowsPerStatement(columns.size(), batchSize) : 1;
+        final String sql = statement(sqlDialect, columns, keys, rowsPerStatement);
+        final List<DatasetRecord> pending = new ArrayList<>(rowsPerStatement);
+        final Set<List<Object>> pendingKeys = new HashSet<>();
+        final Binder binder = new Binder(columns, sqlTypes, keys);
+        long rows = 0;
+        long uncommitted = 0;
+        int batched = 0;
+
+        log.debug("sql: {}", sql);
+
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (final DatasetRecord record : records) {
+                if (!keys.isEmpty()
+                        && rowsPerStatement > 1
+                        && !pendingKeys.add(binder.key(record))) {
+                    if (batched > 0) {
+                        executeBatch(statement, batched);
+                        rows += batched;
+                        uncommitted += batched;
+                        batched = 0;
+                    }
+
+                    rows += executeRows(connection, sqlDialect, columns, keys, binder, pending);
+                    uncommitted += pending.size();
+                    pending.clear();
+                    pendingKeys.clear();
+                    pendingKeys.add(binder.key(record));
+                }
+
+                pending.add(record);
+
+                if (pending.size() < rowsPerStatement) {
+                    continue;
+                }
+
+                binder.bind(statement, pending);
+                statement.addBatch();
+                batched += pending.size();
+                pending.clear();
+                pendingKeys.clear();
+
+                if (batched >= batchSize) {
+                    executeBatch(statement, batched);
+                    rows += batched;
+                    uncommitted += batched;
+                    log.debug("wrote batch of {} rows to {}", batched, table);
+                    batched = 0;
+                }
+
+                if (uncommitted >= commitInterval) {
+                    connection.commit();
+                    uncommitted = 0;
+                }
+            }
+
+            if (batched > 0) {
+                executeBatch(statement, batched);
+                rows += batched;
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            rows += executeRows(connection, sqlDialect, columns, keys, binder, pending);
+        }
+
+        log.debug("wrote {} rows to {}", rows, table);
+        return rows;
+    }
+
+    /**
+     * Write the given rows with one statement of their own size, reporting it to the batch
+     * listener.
+     *
+     * @param connection
+     * @param sqlDialect
+     * @param columns
+     * @param keys
+     * @param binder
+     * @param pending
+     * @return number of rows written
+     * @throws SQLException
+     */
+    private int executeRows(
+            final Connection connection,
+            final SqlDialect sqlDialect,
+            final List<DatasetColumnDefinition> columns,
+            final List<String> keys,
+            final Binder binder,
+            final List<DatasetRecord> pending)
+            throws SQLException {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        try (PreparedStatement statement =
+                connection.prepareStatement(statement(sqlDialect, columns, keys, pending.size()))) {
+            binder.bind(statement, pending);
+            final long start = System.nanoTime();
+            statement.executeUpdate();
+            batchListener.batchWritten(pending.size(), System.nanoTime() - start);
+            return pending.size();
+        }
+    }
+
+    /**
+     * The insert statement of the given number of rows, or the upsert statement if keyed.
+     *
+     * @param sqlDialect
+     * @param columns
+     * @param keys
+     * @param rows
+     * @return
+     */
+    private String statement(
+            final SqlDialect sqlDialect,
+            final List<DatasetColumnDefinition> columns,
+            final List<String> keys,
+            final int rows) {
+        return keys.isEmpty()
+                ? sqlDialect.insertStatement(table, columns, rows)
+                : sqlDialect.upsertStatement(table, columns, keys, rows);
+    }
+
+    /**
+     * The excluded columns less the key columns, which are always written.
+     *
+     * @return
+     */
+    private String[] writtenExclusions() {
+        return Arrays.stream(excludedColumns)
+                .filter(column -> Arrays.stream(keyColumns).noneMatch(column::equalsIgnoreCase))
+                .toArray(String[]::new);
+    }
+
+    /**
+     * The names of the written columns which are key columns, in key column order.
+     *
+     * @param columns
+     * @return
+     */
+    private List<String> keyColumns(final List<DatasetColumnDefinition> columns) {
+        final List<String> keys = new ArrayList<>(keyColumns.length);
+
+        for (final String key : keyColumns) {
+            keys.add(
+                    columns.stream()
+                            .map(DatasetColumnDefinition::getName)
+                            .filter(key::equalsIgnoreCase)
+                            .findFirst()
+                            .orElseThrow(
+                                    () ->
+                                            new IllegalArgumentException(
+                                                    "key column "
+                                                            + key
+                                                            + " is not a column of "
+                                                            + table)));
+        }
+
+        return keys;
+    }
+
+    /**
+     * Send the given statement's batch, reporting it to the batch listener.
+     *
+     * @param statement
+     * @param rows number of rows in the batch
+     * @throws SQLException
+     */
+    private void executeBatch(final PreparedStatement statement, final int rows)
+            throws SQLException {
+        final long start = System.nanoTime();
+        statement.executeBatch();
+        batchListener.batchWritten(rows, System.nanoTime() - start);
+    }
+
+    /** Binds record values to statement parameters by column definition name and JDBC type. */
+    private static class Binder {
+        /** The columns written. */
+        private final List<DatasetColumnDefinition> columns;
+
+        /** The JDBC type of each column. */
+        private final int[] sqlTypes;
+
+        /** The index of each key column in the columns. */
+        private final int[] keyIndexes;
+
+        /** The schema the ordinals were resolved against. */
+        private DatasetSchema schema;
+
+        /** The ordinal of each column in the record schema; -1 if the record lacks the column. */
+        private int[] ordinals;
+
+        Binder(
+                final List<DatasetColumnDefinition> columns,
+                final int[] sqlTypes,
+                final List<String> keys) {
+            this.columns = columns;
+            this.sqlTypes = sqlTypes;
+            this.keyIndexes = new int[keys.size()];
+
+            for (int index = 0; index < keyIndexes.length; index++) {
+                for (int column = 0; column < columns.size(); column++) {
+                    if (columns.get(column).getName().equals(keys.get(index))) {
+                        keyIndexes[index] = column;
+                    }
+                }
+            }
+        }
+
+        List<Object> key(final DatasetRecord record) {
+            resolve(record.getSchema());
+            final Object[] values = new Object[keyIndexes.length];
+
+            for (int index = 0; index < values.length; index++) {
+                final int ordinal = ordinals[keyIndexes[index]];
+                values[index] = ordinal < 0 ? null : record.get(ordinal);
+            }
+
+            return Arrays.asList(values);
+        }
+
+        void bind(final PreparedStatement statement, final List<DatasetRecord> records)
+                throws SQLException {
+            int parameter = 1;
+
+            for (final DatasetRecord record : records) {
+                resolve(record.getSchema());
+
+                for (int index = 0; index < ordinals.length; index++) {
+                    final Object value = ordinals[index] < 0 ? null : record.get(ordinals[index]);
+                    StatementCreatorUtils.setParameterValue(
+                            statement, parameter++, sqlTypes[index], value);
+                }
+            }
+        }
+
+        private void resolve(final DatasetSchema recordSchema) {
+            if (recordSchema == schema) {
+                return;
+            }
+
+            ordinals = new int[columns.size()];
+
+            for (int index = 0; index < ordinals.length; index++) {
+                ordinals[index] = recordSchema.indexOf(columns.get(index).getName());
+            }
+
+            schema = recordSchema;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.jdbc;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import javax.sql.DataSource;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import net.ljcomputing.conduit.model.DatasetColumnDefinition;
+import net.ljcomputing.conduit.model.DatasetRecord;
+import net.ljcomputing.conduit.utils.SqlStatementUtils;
+import org.postgresql.PGConnection;
+
+/**
+ * Bulk JDBC loader. On PostgreSQL, records are streamed as CSV text through {@link
+ * org.postgresql.copy.CopyManager#copyIn(String, java.io.Reader, int) copy from stdin}, which skips
+ * per-row statement execution entirely; records are formatted as the driver reads them, so memory
+ * use does not depend on the number of records. Other databases, and loads with key columns (which
+ * copy cannot upsert), fall back to a {@link net.ljcomputing.conduit.jdbc.JdbcBatchWriter
+ * JdbcBatchWriter} with multi-row values.
+ */
+@Slf4j
+@Builder
+public class JdbcBulkLoader {
+    /** Default size of the buffer the copy stream is sent in. */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    /** The data source written to. */
+    @NonNull private final DataSource dataSource;
+
+    /** The target table. */
+    @NonNull private final String table;
+
+    /** The column definitions of the records written. */
+    @NonNull private final List<DatasetColumnDefinition> columnDefinitions;
+
+    /** Columns of the column definitions not written. */
+    @Builder.Default private final String[] excludedColumns = new String[0];
+
+    /** Columns records are upserted on by the fallback writer; records are copied if empty. */
+    @Builder.Default private final String[] keyColumns = new String[0];
+
+    /** Size of the buffer the copy stream is sent in. */
+    @Builder.Default private final int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    /** Number of rows sent per batch by the fallback writer. */
+    @Builder.Default private final int batchSize = JdbcBatchWriter.DEFAULT_BATCH_SIZE;
+
+    /** Number of rows written per transaction by the fallback writer. */
+    @Builder.Default private final int commitInterval = JdbcBatchWriter.DEFAULT_COMMIT_INTERVAL;
+
+    /** Listener of the batches written; a copy is reported as one batch. */
+    @Builder.Default
+    private final JdbcBatchWriter.BatchListener batchListener = JdbcBatchWriter.BatchListener.NONE;
+
+    /**
+     * Load the given records.
+     *
+     * @param records
+     * @return number of rows written
+     * @throws SQLException
+     */
+    public long load(final Iterable<DatasetRecord> records) throws SQLException {
+        if (keyColumns.length == 0) {
+            final List<DatasetColumnDefinition> columns =
+                    SqlStatementUtils.filterColumnDefinitions(columnDefinitions, excludedColumns);
+
+            try (Connection connection = dataSource.getConnection()) {
+                if (connection.isWrapperFor(PGConnection.class)) {
+                    return copy(connection, columns, records);
+                }
+            }
+        }
+
+        log.debug("bulk load not supported; using batched statements into {}", table);
+
+        return JdbcBatchWriter.builder()
+                .dataSource(dataSource)
+                .table(table)
+                .columnDefinitions(columnDefinitions)
+                .excludedColumns(excludedColumns)
+                .keyColumns(keyColumns)
+                .batchSize(batchSize)
+                .commitInterval(commitInterval)
+                .multiRowValues(true)
+                .batchListener(batchListener)
+                .build()
+                .write(records);
+    }
+
+    private long copy(
+            final Connection connection,
+            final List<DatasetColumnDefinition> columns,
+            final Iterable<DatasetRecord> records)
+            throws SQLException {
+        final String sql = SqlStatementUtils.buildCopyStatement(table, columns);
+        final boolean autoCommit = connection.getAutoCommit();
+
+        log.debug("sql: {}", sql);
+        connection.setAutoCommit(false);
+
+        try (DelimitedRecordReader reader =
+                new DelimitedRecordReader(columns, records.iterator(), ',')) {
+            final long start = System.nanoTime();
+            final long rows =
+                    connection
+                            .unwrap(PGConnection.class)
+                            .getCopyAPI()
+                            .copyIn(sql, reader, bufferSize);
+            connection.commit();
+            batchListener.batchWritten(
+                    (int) Math.min(Integer.MAX_VALUE, rows), System.nanoTime() - start);
+            log.debug("copied {} rows to {}", rows, table);
+            return rows;
+        } catch (final IOException e) {
+            connection.rollback();
+            throw new SQLException(e);
+        } catch (final SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+
+/**
+ * An open forward only, read only cursor over a query's result set. The fetch size is set on the
+ * statement and auto-commit is disabled while the cursor is open, since drivers such as
+ * PostgreSQL's only stream rows from a server side cursor inside a transaction; otherwise the whole
+ * result set is buffered client side.
+ */
+@Slf4j
+class JdbcCursor implements AutoCloseable {
+    /** The data source the connection was obtained from. */
+    private final DataSource dataSource;
+
+    /** The open connection. */
+    private final Connection connection;
+
+    /** The auto-commit setting of the connection before the cursor was opened. */
+    private final boolean autoCommit;
+
+    /** True once auto-commit was disabled, so the read transaction is ended on close. */
+    private boolean transaction;
+
+    /** The open statement. */
+    private PreparedStatement statement;
+
+    /** The open result set. */
+    private ResultSet resultSet;
+
+    /**
+     * Open a cursor for the given query.
+     *
+     * @param dataSource
+     * @param sql
+     * @param fetchSize
+     * @param parameters positional query parameters
+     * @throws SQLException
+     */
+    JdbcCursor(
+            final DataSource dataSource,
+            final String sql,
+            final int fetchSize,
+            final Object... parameters)
+            throws SQLException {
+        this.dataSource = dataSource;
+        this.connection = DataSourceUtils.getConnection(dataSource);
+
+        try {
+            this.autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            transaction = true;
+            statement =
+                    connection.prepareStatement(
+                            sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+
+            for (int index = 0; index < parameters.length; index++) {
+                StatementCreatorUtils.setParameterValue(
+                        statement, index + 1, SqlTypeValue.TYPE_UNKNOWN, parameters[index]);
+            }
+
+            resultSet = statement.executeQuery();
+        } catch (final SQLException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * The open result set.
+     *
+     * @return
+     */
+    ResultSet resultSet() {
+        return resultSet;
+    }
+
+    /**
+     * End the read transaction, restoring the auto-commit setting, and release the result set,
+     * statement and connection. The connection is released even if the cursor failed to open.
+     */
+    @Override
+    public void close() {
+        JdbcUtils.closeResultSet(resultSet);
+        JdbcUtils.closeStatement(statement);
+
+        if (transaction) {
+            try {
+                connection.commit();
+                connection.setAutoCommit(autoCommit);
+            } catch (final SQLException e) {
+                log.warn("could not end read transaction: {}", e.getMessage());
+            }
+        }
+
+        DataSourceUtils.releaseConnection(connection, dataSource);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.jdbc;
+
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/**
+ * Streaming JDBC reader. Queries run on a forward only cursor with the configured fetch size, so
+ * rows are pulled from the database in fetch size chunks rather than buffered in full.
+ */
+@AllArgsConstructor
+public class JdbcCursorReader {
+    /** Default number of rows fetched per round trip. */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    /** The data source read from. */
+    private final DataSource dataSource;
+
+    /** Number of rows fetched per round trip. */
+    private final int fetchSize;
+
+    /**
+     * Run the given query, handing each row to the given handler as it is read.
+     *
+     * @param sql
+     * @param handler
+     * @param parameters positional query parameters
+     * @return number of rows read
+     * @throws SQLException
+     */
+    public long read(final String sql, final RowCallbackHandler handler, final Object... parameters)
+            throws SQLException {
+        long rows = 0;
+
+        try (JdbcCursor cursor = new JdbcCursor(dataSource, sql, fetchSize, parameters)) {
+            while (cursor.resultSet().next()) {
+                handler.processRow(cursor.resultSet());
+                rows++;
+            }
+        }
+
+        return rows;
+    }
+
+    /**
+     * Open an iterator over the given query's rows. The iterator must be closed.
+     *
+     * @param sql
+     * @param parameters positional query parameters
+     * @return
+     * @throws SQLException
+     */
+    public ResultSetRecordIterator open(final String sql, final Object... parameters)
+            throws SQLException {
+        return new ResultSetRecordIterator(new JdbcCursor(dataSource, sql, fetchSize, parameters));
+    }
+}
@@ -0,0 +1,170 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.jdbc;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import net.ljcomputing.conduit.exception.ConduitRuntimeException;
+import net.ljcomputing.conduit.model.DatasetRecord;
+
+/**
+ * Parallel JDBC writer. Records are split into chunks of chunk size records, which are written
+ * concurrently by a {@link net.ljcomputing.conduit.jdbc.JdbcBatchWriter JdbcBatchWriter}, each on
+ * its own pooled connection committing every commit interval rows. At most two chunks per writer
+ * thread are held, so memory use does not depend on the number of records.
+ *
+ * <p>A failed chunk does not stop the others: it is rolled back to its last commit and reported in
+ * the {@link net.ljcomputing.conduit.jdbc.JdbcWriteResult result} with its records. With a chunk
+ * size no larger than the commit interval, each chunk is one transaction, so a failed chunk is
+ * rolled back entirely and can be retried as is. The pool should allow one connection per writer
+ * thread.
+ */
+@Slf4j
+@Builder
+public class JdbcParallelWriter {
+    /** Default number of writer threads. */
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    /** Sequence used to name writer threads. */
+    private static final AtomicInteger THREAD_SEQUENCE = new AtomicInteger();
+
+    /** The writer each chunk is written by. */
+    @NonNull private final JdbcBatchWriter writer;
+
+    /** Number of writer threads. */
+    @Builder.Default private final int parallelism = DEFAULT_PARALLELISM;
+
+    /** Number of records per chunk. */
+    @Builder.Default private final int chunkSize = JdbcBatchWriter.DEFAULT_COMMIT_INTERVAL;
+
+    /**
+     * Write the given records.
+     *
+     * @param records
+     * @return
+     */
+    public JdbcWriteResult write(final Iterable<DatasetRecord> records) {
+        final int threads = Math.max(1, parallelism);
+        final int size = Math.max(1, chunkSize);
+        final int maxInFlight = threads * 2;
+        final Semaphore permits = new Semaphore(maxInFlight);
+        final AtomicLong rows = new AtomicLong();
+        final List<JdbcWriteResult.ChunkFailure> failures = new ArrayList<>();
+        final ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        threads,
+                        r -> {
+                            final Thread thread =
+                                    new Thread(
+                                            r,
+                                            "conduit-writer-" + THREAD_SEQUENCE.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        int chunks = 0;
+        long offset = 0;
+
+        try {
+            List<DatasetRecord> chunk = new ArrayList<>(size);
+
+            for (final DatasetRecord record : records) {
+                chunk.add(record);
+
+                if (chunk.size() >= size) {
+                    submit(executor, permits, chunks++, offset, chunk, rows, failures);
+                    offset += chunk.size();
+                    chunk = new ArrayList<>(size);
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                submit(executor, permits, chunks++, offset, chunk, rows, failures);
+            }
+
+            permits.acquire(maxInFlight);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConduitRuntimeException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        synchronized (failures) {
+            failures.sort(Comparator.comparingInt(JdbcWriteResult.ChunkFailure::getChunk));
+            log.debug("wrote {} rows in {} chunks; {} failed", rows, chunks, failures.size());
+            return new JdbcWriteResult(rows.get(), chunks, new ArrayList<>(failures));
+        }
+    }
+
+    /**
+     * Submit the write of the given chunk once a chunk slot is free.
+     *
+     * @param executor
+     * @param permits
+     * @param index
+     * @param offset
+     * @param chunk
+     * @param rows
+     * @param failures
+     * @throws InterruptedException
+     */
+    private void submit(
+            final ExecutorService executor,
+            final Semaphore permits,
+            final int index,
+            final long offset,
+            final List<DatasetRecord> chunk,
+            final AtomicLong rows,
+            final List<JdbcWriteResult.ChunkFailure> failures)
+            throws InterruptedException {
+        permits.acquire();
+
+        executor.execute(
+                () -> {
+                    try {
+                        rows.addAndGet(writer.write(chunk));
+                    } catch (final SQLException | RuntimeException e) {
+                        log.warn(
+                                "chunk {} (records {} to {}) failed",
+                                index,
+                                offset,
+                                offset + chunk.size() - 1,
+                                e);
+
+                        synchronized (failures) {
+                            failures.add(new JdbcWriteResult.ChunkFailure(index, offset, chunk, e));
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                });
+    }
+}
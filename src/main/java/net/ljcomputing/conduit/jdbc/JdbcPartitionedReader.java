@@ -0,0 +1,236 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.jdbc;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import net.ljcomputing.conduit.utils.SqlStatementUtils;
+
+/**
+ * Partitioned JDBC reader. A query is split into range bounded queries over a numeric or date
+ * partition column, which are read concurrently on separate pooled connections. The range between
+ * the bounds (by default the column's minimum and maximum) is split into equal strides; the first
+ * and last partitions are open ended, so rows outside the bounds and rows with a null partition
+ * column are still read.
+ *
+ * <p>Each partition read at once holds a connection, so parallelism should not exceed the size of
+ * the data source's pool; otherwise readers wait for connections and may time out. By default,
+ * every partition is read at once, up to the maximum number of connections.
+ */
+@Builder
+@Slf4j
+public class JdbcPartitionedReader {
+    /** The data source read from. */
+    @NonNull private final DataSource dataSource;
+
+    /** The query partitioned. */
+    @NonNull private final String query;
+
+    /** Positional parameters of the query. */
+    @Builder.Default private final Object[] parameters = new Object[0];
+
+    /** The numeric or date column the query is partitioned by. */
+    @NonNull private final String column;
+
+    /** Number of partitions. */
+    private final int partitionCount;
+
+    /** Lower bound of the partition column; null to query the minimum. */
+    private final Object lowerBound;
+
+    /** Upper bound of the partition column; null to query the maximum. */
+    private final Object upperBound;
+
+    /** Number of rows fetched per round trip. */
+    @Builder.Default private final int fetchSize = JdbcCursorReader.DEFAULT_FETCH_SIZE;
+
+    /**
+     * Number of partitions read at once; defaults to the number of partitions, up to the maximum
+     * number of connections.
+     */
+    private final int parallelism;
+
+    /** Maximum number of connections of the data source; 0 if unknown. */
+    private final int maxConnections;
+
+    /**
+     * Open an iterator over the rows of every partition. The iterator must be closed.
+     *
+     * @return
+     * @throws SQLException
+     */
+    public PartitionedRecordIterator open() throws SQLException {
+        final List<JdbcPartition> partitions = partitions();
+        log.debug("reading {} partitions of {}", partitions.size(), query);
+
+        return new PartitionedRecordIterator(
+                new JdbcCursorReader(dataSource, fetchSize),
+                partitions,
+                parallelism(partitions.size()),
+                fetchSize);
+    }
+
+    /**
+     * Number of partitions read at once, given the number of partitions.
+     *
+     * @param partitionCount
+     * @return
+     */
+    int parallelism(final int partitionCount) {
+        if (parallelism > 0) {
+            if (maxConnections > 0 && parallelism > maxConnections) {
+                log.warn(
+                        "parallelism {} exceeds the {} connections of the pool; readers will wait"
+                                + " for connections",
+                        parallelism,
+                        maxConnections);
+            }
+
+            return parallelism;
+        }
+
+        return maxConnections > 0 ? Math.min(partitionCount, maxConnections) : partitionCount;
+    }
+
+    /**
+     * The range bounded queries of the partitions.
+     *
+     * @return
+     * @throws SQLException
+     */
+    public List<JdbcPartition> partitions() throws SQLException {
+        Object lower = lowerBound;
+        Object upper = upperBound;
+
+        if (lower == null || upper == null) {
+            final List<Map<String, Object>> bounds = new ArrayList<>();
+
+            try (ResultSetRecordIterator it =
+                    new JdbcCursorReader(dataSource, fetchSize)
+                            .open(SqlStatementUtils.buildBoundsQuery(query, column), parameters)) {
+                it.forEachRemaining(bounds::add);
+            }
+
+            lower = lower == null ? bounds.get(0).get("lower_bound") : lower;
+            upper = upper == null ? bounds.get(0).get("upper_bound") : upper;
+        }
+
+        final List<JdbcPartition> partitions = new ArrayList<>();
+
+        if (lower == null || upper == null) {
+            partitions.add(
+                    new JdbcPartition(
+                            SqlStatementUtils.buildPartitionQuery(query, column, true, true),
+                            parameters));
+            return partitions;
+        }
+
+        final long low = toLong(lower);
+        final long high = toLong(upper);
+        final long span = Math.max(0, high - low);
+        final int count = (int) Math.max(1, Math.min(partitionCount, span));
+        final long stride = span / count;
+
+        for (int index = 0; index < count; index++) {
+            final boolean first = index == 0;
+            final boolean last = index == count - 1;
+            final String sql = SqlStatementUtils.buildPartitionQuery(query, column, first, last);
+            final Object start = fromLong(low + stride * index, lower);
+            final Object end = fromLong(low + stride * (index + 1), lower);
+
+            if (first && last) {
+                partitions.add(new JdbcPartition(sql, parameters));
+            } else if (first) {
+                partitions.add(new JdbcPartition(sql, withParameters(end)));
+            } else if (last) {
+                partitions.add(new JdbcPartition(sql, withParameters(start)));
+            } else {
+                partitions.add(new JdbcPartition(sql, withParameters(start, end)));
+            }
+        }
+
+        return partitions;
+    }
+
+    /**
+     * The query's parameters followed by the given range bounds.
+     *
+     * @param bounds
+     * @return
+     */
+    private Object[] withParameters(final Object... bounds) {
+        final Object[] result = Arrays.copyOf(parameters, parameters.length + bounds.length);
+        System.arraycopy(bounds, 0, result, parameters.length, bounds.length);
+        return result;
+    }
+
+    /**
+     * The given bound as a long; dates as epoch milliseconds.
+     *
+     * @param bound
+     * @return
+     */
+    private static long toLong(final Object bound) {
+        if (bound instanceof Number) {
+            return ((Number) bound).longValue();
+        } else if (bound instanceof java.util.Date) {
+            return ((java.util.Date) bound).getTime();
+        } else if (bound instanceof LocalDate) {
+            return Date.valueOf((LocalDate) bound).getTime();
+        } else if (bound instanceof LocalDateTime) {
+            return Timestamp.valueOf((LocalDateTime) bound).getTime();
+        }
+
+        throw new IllegalArgumentException(
+                "partition column must be numeric or a date: " + bound.getClass().getName());
+    }
+
+    /**
+     * The given long as a bound of the same type as the given sample bound.
+     *
+     * @param value
+     * @param sample
+     * @return
+     */
+    private static Object fromLong(final long value, final Object sample) {
+        if (sample instanceof BigDecimal) {
+            return BigDecimal.valueOf(value);
+        } else if (sample instanceof Number) {
+            return value;
+        } else if (sample instanceof Date || sample instanceof LocalDate) {
+            return new Date(value);
+        }
+
+        return new Timestamp(value);
+    }
+}
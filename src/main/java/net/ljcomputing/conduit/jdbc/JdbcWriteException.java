@@ -0,0 +1,67 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.jdbc;
+
+import net.ljcomputing.conduit.exception.ConduitException;
+
+/**
+ * Exception thrown when chunks of a {@link net.ljcomputing.conduit.jdbc.JdbcParallelWriter parallel
+ * write} failed while the others were written. The {@link
+ * net.ljcomputing.conduit.jdbc.JdbcWriteResult result} holds the failed chunks' records for retry;
+ * the cause is the first chunk's failure and the others are suppressed.
+ */
+public class JdbcWriteException extends ConduitException {
+    private static final long serialVersionUID = 1L;
+
+    /** The result of the write. */
+    private final transient JdbcWriteResult result;
+
+    /**
+     * Constructor.
+     *
+     * @param table
+     * @param result
+     */
+    public JdbcWriteException(final String table, final JdbcWriteResult result) {
+        super(
+                String.format(
+                        "%d of %d chunks (%d records) failed writing to %s",
+                        result.getFailures().size(),
+                        result.getChunks(),
+                        result.getFailedRecords(),
+                        table),
+                result.getFailures().get(0).getCause());
+        this.result = result;
+
+        for (int index = 1; index < result.getFailures().size(); index++) {
+            addSuppressed(result.getFailures().get(index).getCause());
+        }
+    }
+
+    /**
+     * The result of the write.
+     *
+     * @return
+     */
+    public JdbcWriteResult getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.jdbc;
+
+import java.util.List;
+import lombok.Value;
+import net.ljcomputing.conduit.model.DatasetRecord;
+
+/** Outcome of a {@link net.ljcomputing.conduit.jdbc.JdbcParallelWriter parallel write}. */
+@Value
+public class JdbcWriteResult {
+    /** A chunk whose write failed. */
+    @Value
+    public static class ChunkFailure {
+        /** Index of the chunk, in record order. */
+        int chunk;
+
+        /** Index of the chunk's first record. */
+        long firstRecord;
+
+        /** The records of the chunk, so the chunk can be retried. */
+        List<DatasetRecord> records;
+
+        /** The failure. */
+        Exception cause;
+    }
+
+    /** Rows written by the chunks which succeeded. */
+    long rowsWritten;
+
+    /** Number of chunks written or attempted. */
+    int chunks;
+
+    /** The chunks whose write failed, in chunk order. */
+    List<ChunkFailure> failures;
+
+    /**
+     * Return true if every chunk was written.
+     *
+     * @return
+     */
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * Number of records of the chunks which failed.
+     *
+     * @return
+     */
+    public long getFailedRecords() {
+        return failures.stream().mapToLong(failure -> failure.getRecords().size()).sum();
+    }
+}
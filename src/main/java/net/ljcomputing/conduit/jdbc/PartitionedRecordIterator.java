@@ -0,0 +1,185 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.ljcomputing.conduit.exception.ConduitRuntimeException;
+
+/**
+ * {@link java.util.Iterator Iterator} over the rows of {@link
+ * net.ljcomputing.conduit.jdbc.JdbcPartition partitions} read concurrently, each on its own cursor
+ * and pooled connection. Rows are handed over in batches through a bounded queue, so readers block
+ * while the consumer falls behind. Rows of different partitions are interleaved in the order they
+ * arrive.
+ */
+public class PartitionedRecordIterator implements Iterator<Map<String, Object>>, AutoCloseable {
+    /** Marks the end of a partition. */
+    private static final Object END = new Object();
+
+    /** Sequence used to name reader threads. */
+    private static final AtomicInteger THREAD_SEQUENCE = new AtomicInteger();
+
+    /** The reader pool. */
+    private final ExecutorService executor;
+
+    /** Batches of rows, partition ends and failures. */
+    private final BlockingQueue<Object> queue;
+
+    /** Number of partitions not yet ended. */
+    private int remaining;
+
+    /** Rows of the current batch. */
+    private Iterator<Map<String, Object>> current = Collections.emptyIterator();
+
+    /**
+     * Start reading the given partitions.
+     *
+     * @param reader
+     * @param partitions
+     * @param parallelism number of partitions read at once
+     * @param batchSize number of rows per batch
+     */
+    PartitionedRecordIterator(
+            final JdbcCursorReader reader,
+            final List<JdbcPartition> partitions,
+            final int parallelism,
+            final int batchSize) {
+        final int threads = Math.max(1, Math.min(parallelism, partitions.size()));
+        this.remaining = partitions.size();
+        this.queue = new ArrayBlockingQueue<>(threads * 2);
+        this.executor =
+                Executors.newFixedThreadPool(
+                        threads,
+                        r -> {
+                            final Thread thread =
+                                    new Thread(
+                                            r,
+                                            "conduit-partition-"
+                                                    + THREAD_SEQUENCE.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+
+        partitions.forEach(partition -> executor.execute(() -> read(reader, partition, batchSize)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (remaining == 0) {
+                return false;
+            }
+
+            final Object item = take();
+
+            if (item == END) {
+                remaining--;
+            } else if (item instanceof Exception) {
+                throw new ConduitRuntimeException((Exception) item);
+            } else {
+                @SuppressWarnings("unchecked")
+                final List<Map<String, Object>> batch = (List<Map<String, Object>>) item;
+                current = batch.iterator();
+            }
+        }
+
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Object> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        return current.next();
+    }
+
+    /** Stop reading and release the pool; open cursors are closed by their readers. */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Read the given partition into the queue.
+     *
+     * @param reader
+     * @param partition
+     * @param batchSize
+     */
+    private void read(
+            final JdbcCursorReader reader, final JdbcPartition partition, final int batchSize) {
+        try (ResultSetRecordIterator it =
+                reader.open(partition.getSql(), partition.getParameters())) {
+            List<Map<String, Object>> batch = new ArrayList<>(batchSize);
+
+            while (it.hasNext()) {
+                batch.add(it.next());
+
+                if (batch.size() >= batchSize) {
+                    queue.put(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                queue.put(batch);
+            }
+
+            queue.put(END);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final Exception e) {
+            try {
+                queue.put(e);
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Wait for the next item of the queue.
+     *
+     * @return
+     */
+    private Object take() {
+        try {
+            return queue.take();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConduitRuntimeException(e);
+        }
+    }
+}
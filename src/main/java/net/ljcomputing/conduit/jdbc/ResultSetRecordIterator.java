@@ -0,0 +1,101 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import net.ljcomputing.conduit.exception.ConduitRuntimeException;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+
+/**
+ * {@link java.util.Iterator Iterator} backed by an open {@link java.sql.ResultSet ResultSet}. Rows
+ * are mapped one at a time as the iterator advances; the cursor is held open until {@link #close()}
+ * is called. Created by {@link net.ljcomputing.conduit.jdbc.JdbcCursorReader#open
+ * JdbcCursorReader}.
+ */
+public class ResultSetRecordIterator implements Iterator<Map<String, Object>>, AutoCloseable {
+    /** Maps the current row to a case insensitive map (same as JdbcTemplate#queryForList). */
+    private static final ColumnMapRowMapper ROW_MAPPER = new ColumnMapRowMapper();
+
+    /** The open cursor. */
+    private final JdbcCursor cursor;
+
+    /** The cursor's result set. */
+    private final ResultSet resultSet;
+
+    /** Number of rows mapped so far. */
+    private int rowNum;
+
+    /** True if the result set has been advanced to a row that has not been returned yet. */
+    private boolean fetched;
+
+    /** True if the result set is exhausted. */
+    private boolean exhausted;
+
+    /**
+     * Constructor.
+     *
+     * @param cursor
+     */
+    ResultSetRecordIterator(final JdbcCursor cursor) {
+        this.cursor = cursor;
+        this.resultSet = cursor.resultSet();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasNext() {
+        if (!fetched && !exhausted) {
+            try {
+                fetched = resultSet.next();
+                exhausted = !fetched;
+            } catch (final SQLException e) {
+                throw new ConduitRuntimeException(e);
+            }
+        }
+
+        return fetched;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Object> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        try {
+            fetched = false;
+            return ROW_MAPPER.mapRow(resultSet, rowNum++);
+        } catch (final SQLException e) {
+            throw new ConduitRuntimeException(e);
+        }
+    }
+
+    /** Release the cursor. */
+    @Override
+    public void close() {
+        cursor.close();
+    }
+}
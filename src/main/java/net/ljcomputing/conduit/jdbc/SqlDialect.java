@@ -0,0 +1,244 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lombok.Value;
+import net.ljcomputing.conduit.model.DatasetColumnDefinition;
+import net.ljcomputing.conduit.utils.SqlStatementUtils;
+
+/**
+ * SQL dialects of the databases written to. A dialect knows whether the database accepts multi-row
+ * values clauses, how many parameters a statement may bind, and how to upsert rows keyed on key
+ * columns: insert on conflict for PostgreSQL, insert on duplicate key for MySQL, and merge for
+ * HSQLDB, H2 and other databases. Generated statements are cached by dialect, table, columns, keys
+ * and row count.
+ */
+public enum SqlDialect {
+    POSTGRESQL(32767, true, "POSTGRESQL") {
+        @Override
+        protected String buildUpsert(
+                final String table,
+                final List<DatasetColumnDefinition> columns,
+                final List<String> keyColumns,
+                final int rows) {
+            return SqlStatementUtils.buildOnConflictStatement(table, columns, keyColumns, rows);
+        }
+    },
+    MYSQL(65535, true, "MYSQL", "MARIADB") {
+        @Override
+        protected String buildUpsert(
+                final String table,
+                final List<DatasetColumnDefinition> columns,
+                final List<String> keyColumns,
+                final int rows) {
+            return SqlStatementUtils.buildOnDuplicateKeyStatement(table, columns, keyColumns, rows);
+        }
+    },
+    HSQLDB(2000, true, "HSQL DATABASE ENGINE"),
+    H2(2000, true, "H2"),
+    STANDARD(2000, false);
+
+    /** Maximum number of generated statements cached; the cache is cleared when exceeded. */
+    private static final int MAX_CACHED_STATEMENTS = 1024;
+
+    /** Generated statements by signature. */
+    private static final Map<StatementKey, String> STATEMENTS = new ConcurrentHashMap<>();
+
+    /** Maximum number of parameters bound per statement. */
+    private final int maxParameters;
+
+    /** True if the database accepts several rows per values clause. */
+    private final boolean multiRowValues;
+
+    /** Database product names of the dialect, upper case. */
+    private final List<String> productNames;
+
+    SqlDialect(
+            final int maxParameters, final boolean multiRowValues, final String... productNames) {
+        this.maxParameters = maxParameters;
+        this.multiRowValues = multiRowValues;
+        this.productNames = Arrays.asList(productNames);
+    }
+
+    /**
+     * Return true if the database accepts several rows per values clause.
+     *
+     * @return
+     */
+    public boolean supportsMultiRowValues() {
+        return multiRowValues;
+    }
+
+    /**
+     * Maximum number of parameters bound per statement.
+     *
+     * @return
+     */
+    public int maxParameters() {
+        return maxParameters;
+    }
+
+    /**
+     * Number of rows of the given number of columns bound per statement: one if the dialect does
+     * not support multi-row values, otherwise as many as the parameter limit allows, up to the
+     * given maximum.
+     *
+     * @param columnCount
+     * @param maxRows
+     * @return
+     */
+    public int rowsPerStatement(final int columnCount, final int maxRows) {
+        if (!multiRowValues || columnCount == 0) {
+            return 1;
+        }
+
+        return Math.max(1, Math.min(maxRows, maxParameters / columnCount));
+    }
+
+    /**
+     * Insert statement of the given number of rows; see {@link
+     * net.ljcomputing.conduit.utils.SqlStatementUtils#buildMultiRowInsertStatement
+     * buildMultiRowInsertStatement}.
+     *
+     * @param table
+     * @param columns
+     * @param rows
+     * @return
+     */
+    public String insertStatement(
+            final String table, final List<DatasetColumnDefinition> columns, final int rows) {
+        return cached(
+                table,
+                columns,
+                Collections.emptyList(),
+                rows,
+                () -> SqlStatementUtils.buildMultiRowInsertStatement(table, columns, rows));
+    }
+
+    /**
+     * Upsert statement of the given number of rows keyed on the given key columns: rows whose key
+     * exists are updated, others are inserted.
+     *
+     * @param table
+     * @param columns
+     * @param keyColumns
+     * @param rows
+     * @return
+     */
+    public String upsertStatement(
+            final String table,
+            final List<DatasetColumnDefinition> columns,
+            final List<String> keyColumns,
+            final int rows) {
+        return cached(
+                table,
+                columns,
+                keyColumns,
+                rows,
+                () -> buildUpsert(table, columns, keyColumns, rows));
+    }
+
+    /**
+     * Build the dialect's upsert statement; a standard SQL merge unless overridden.
+     *
+     * @param table
+     * @param columns
+     * @param keyColumns
+     * @param rows
+     * @return
+     */
+    protected String buildUpsert(
+            final String table,
+            final List<DatasetColumnDefinition> columns,
+            final List<String> keyColumns,
+            final int rows) {
+        return SqlStatementUtils.buildMergeStatement(table, columns, keyColumns, rows);
+    }
+
+    /**
+     * The dialect of the given database product name; standard if not known.
+     *
+     * @param productName
+     * @return
+     */
+    public static SqlDialect findByProductName(final String productName) {
+        final String name = productName == null ? "" : productName.trim().toUpperCase();
+
+        for (final SqlDialect dialect : values()) {
+            if (dialect.productNames.contains(name)) {
+                return dialect;
+            }
+        }
+
+        return STANDARD;
+    }
+
+    /**
+     * The dialect of the given connection's database.
+     *
+     * @param connection
+     * @return
+     * @throws SQLException
+     */
+    public static SqlDialect of(final Connection connection) throws SQLException {
+        return findByProductName(connection.getMetaData().getDatabaseProductName());
+    }
+
+    private String cached(
+            final String table,
+            final List<DatasetColumnDefinition> columns,
+            final List<String> keyColumns,
+            final int rows,
+            final Supplier<String> builder) {
+        final StatementKey key =
+                new StatementKey(
+                        this,
+                        table,
+                        columns.stream().map(el -> el.getName()).collect(Collectors.toList()),
+                        keyColumns,
+                        rows);
+
+        if (STATEMENTS.size() > MAX_CACHED_STATEMENTS) {
+            STATEMENTS.clear();
+        }
+
+        return STATEMENTS.computeIfAbsent(key, k -> builder.get());
+    }
+
+    /** Signature of a generated statement. */
+    @Value
+    private static class StatementKey {
+        SqlDialect dialect;
+        String table;
+        List<String> columns;
+        List<String> keyColumns;
+        int rows;
+    }
+}
@@ -0,0 +1,252 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import net.ljcomputing.conduit.io.CountingInputStream;
+import net.ljcomputing.conduit.jdbc.JdbcBatchWriter;
+import net.ljcomputing.conduit.model.ConnectorProtocol;
+import net.ljcomputing.conduit.model.SourceType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Micrometer meters of connectors and source services, tagged by {@link
+ * net.ljcomputing.conduit.model.SourceType source type} or {@link
+ * net.ljcomputing.conduit.model.ConnectorProtocol connector protocol}. Exposed through the actuator
+ * metrics endpoint (ex. conduit.source.rows.read).
+ */
+@Component
+public class ConduitMetrics {
+    /** Metrics recorded nowhere; used where no registry is available. */
+    public static final ConduitMetrics NONE = new ConduitMetrics(new CompositeMeterRegistry());
+
+    /** Source type tag. */
+    public static final String SOURCE_TYPE = "source.type";
+
+    /** Connector protocol tag. */
+    public static final String PROTOCOL = "protocol";
+
+    /** Operation tag. */
+    public static final String OPERATION = "operation";
+
+    /** The registry meters are registered with. */
+    private final MeterRegistry registry;
+
+    /**
+     * Constructor.
+     *
+     * @param registry
+     */
+    public ConduitMetrics(final MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Time taken by connectors to connect.
+     *
+     * @param protocol
+     * @return
+     */
+    public Timer connect(final ConnectorProtocol protocol) {
+        return Timer.builder("conduit.connector.connect")
+                .description("time taken by a connector to connect")
+                .tag(PROTOCOL, tag(protocol))
+                .register(registry);
+    }
+
+    /**
+     * Number of failed connections.
+     *
+     * @param protocol
+     * @return
+     */
+    public Counter connectErrors(final ConnectorProtocol protocol) {
+        return Counter.builder("conduit.connector.errors")
+                .description("number of failed connections")
+                .tag(PROTOCOL, tag(protocol))
+                .register(registry);
+    }
+
+    /**
+     * Time taken to read a source, from the call until the last record is read.
+     *
+     * @param sourceType
+     * @param operation
+     * @return
+     */
+    public Timer read(final SourceType sourceType, final String operation) {
+        return Timer.builder("conduit.source.read")
+                .description("time taken to read a source")
+                .tag(SOURCE_TYPE, tag(sourceType))
+                .tag(OPERATION, operation)
+                .register(registry);
+    }
+
+    /**
+     * Time taken from the call to read a source until its first record is read.
+     *
+     * @param sourceType
+     * @return
+     */
+    public Timer firstRow(final SourceType sourceType) {
+        return Timer.builder("conduit.source.first.row")
+                .description("time taken until the first record of a source is read")
+                .tag(SOURCE_TYPE, tag(sourceType))
+                .register(registry);
+    }
+
+    /**
+     * Number of records read.
+     *
+     * @param sourceType
+     * @return
+     */
+    public Counter rowsRead(final SourceType sourceType) {
+        return Counter.builder("conduit.source.rows.read")
+                .description("number of records read")
+                .baseUnit("rows")
+                .tag(SOURCE_TYPE, tag(sourceType))
+                .register(registry);
+    }
+
+    /**
+     * Number of bytes read from source streams.
+     *
+     * @param sourceType
+     * @return
+     */
+    public Counter bytesRead(final SourceType sourceType) {
+        return Counter.builder("conduit.source.bytes.read")
+                .description("number of bytes read from source streams")
+                .baseUnit("bytes")
+                .tag(SOURCE_TYPE, tag(sourceType))
+                .register(registry);
+    }
+
+    /**
+     * Time taken to write records.
+     *
+     * @param sourceType
+     * @param operation
+     * @return
+     */
+    public Timer write(final SourceType sourceType, final String operation) {
+        return Timer.builder("conduit.target.write")
+                .description("time taken to write records")
+                .tag(SOURCE_TYPE, tag(sourceType))
+                .tag(OPERATION, operation)
+                .register(registry);
+    }
+
+    /**
+     * Number of records written.
+     *
+     * @param sourceType
+     * @return
+     */
+    public Counter rowsWritten(final SourceType sourceType) {
+        return Counter.builder("conduit.target.rows.written")
+                .description("number of records written")
+                .baseUnit("rows")
+                .tag(SOURCE_TYPE, tag(sourceType))
+                .register(registry);
+    }
+
+    /**
+     * Time taken to send each batch of records.
+     *
+     * @param sourceType
+     * @return
+     */
+    public Timer batch(final SourceType sourceType) {
+        return Timer.builder("conduit.target.batch")
+                .description("time taken to send a batch of records")
+                .tag(SOURCE_TYPE, tag(sourceType))
+                .register(registry);
+    }
+
+    /**
+     * Number of records of each batch sent.
+     *
+     * @param sourceType
+     * @return
+     */
+    public DistributionSummary batchRows(final SourceType sourceType) {
+        return DistributionSummary.builder("conduit.target.batch.rows")
+                .description("number of records of a batch")
+                .baseUnit("rows")
+                .tag(SOURCE_TYPE, tag(sourceType))
+                .register(registry);
+    }
+
+    /**
+     * Number of failed source service operations.
+     *
+     * @param sourceType
+     * @param operation
+     * @return
+     */
+    public Counter errors(final SourceType sourceType, final String operation) {
+        return Counter.builder("conduit.source.errors")
+                .description("number of failed source service operations")
+                .tag(SOURCE_TYPE, tag(sourceType))
+                .tag(OPERATION, operation)
+                .register(registry);
+    }
+
+    /**
+     * Wrap the given stream so the bytes read from it are counted.
+     *
+     * @param sourceType
+     * @param in
+     * @return
+     */
+    public InputStream countBytes(final SourceType sourceType, final InputStream in) {
+        final Counter counter = bytesRead(sourceType);
+        return new CountingInputStream(in, counter::increment);
+    }
+
+    /**
+     * A batch listener recording each batch's latency and size.
+     *
+     * @param sourceType
+     * @return
+     */
+    public JdbcBatchWriter.BatchListener batchListener(final SourceType sourceType) {
+        final Timer timer = batch(sourceType);
+        final DistributionSummary summary = batchRows(sourceType);
+
+        return (rows, elapsedNanos) -> {
+            timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            summary.record(rows);
+        };
+    }
+
+    private static String tag(final Enum<?> value) {
+        return value == null ? "unknown" : value.name().toLowerCase();
+    }
+}
@@ -0,0 +1,335 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import net.ljcomputing.conduit.exception.ConduitException;
+import net.ljcomputing.conduit.model.DataContext;
+import net.ljcomputing.conduit.model.Dataset;
+import net.ljcomputing.conduit.model.SourceType;
+import net.ljcomputing.conduit.service.RecordCallbackHandler;
+import net.ljcomputing.conduit.service.SourceService;
+
+/**
+ * {@link net.ljcomputing.conduit.service.SourceService Source service} recording {@link
+ * net.ljcomputing.conduit.metrics.ConduitMetrics metrics} of the source service it delegates to:
+ * read and write times, records read and written, time to first record (streamed and callback
+ * reads) and errors. Errors of streamed reads are counted whether the stream fails when opened or
+ * while it is consumed.
+ */
+public class MeteredSourceService implements SourceService {
+    /** The source service delegated to. */
+    private final SourceService delegate;
+
+    /** The metrics recorded. */
+    private final ConduitMetrics metrics;
+
+    /**
+     * Constructor.
+     *
+     * @param delegate
+     * @param metrics
+     */
+    public MeteredSourceService(final SourceService delegate, final ConduitMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    /**
+     * The source service delegated to.
+     *
+     * @return
+     */
+    public SourceService getDelegate() {
+        return delegate;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SourceType sourceType() {
+        return delegate.sourceType();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void init(final DataContext context) throws ConduitException {
+        delegate.init(context);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<Map<String, Object>> retrieve(final DataContext context) throws ConduitException {
+        final long start = System.nanoTime();
+
+        try {
+            final List<Map<String, Object>> records = delegate.retrieve(context);
+            read("retrieve", start, records.size());
+            return records;
+        } catch (final ConduitException | RuntimeException e) {
+            metrics.errors(sourceType(), "retrieve").increment();
+            throw e;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Stream<Map<String, Object>> stream(final DataContext context) throws ConduitException {
+        final ReadProgress progress = new ReadProgress("stream");
+
+        try {
+            final Stream<Map<String, Object>> stream = delegate.stream(context);
+            return StreamSupport.stream(
+                            new MeteredSpliterator(stream.spliterator(), progress),
+                            stream.isParallel())
+                    .onClose(stream::close)
+                    .onClose(progress::finish);
+        } catch (final ConduitException | RuntimeException e) {
+            metrics.errors(sourceType(), "stream").increment();
+            throw e;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long retrieve(final DataContext context, final RecordCallbackHandler handler)
+            throws ConduitException {
+        final ReadProgress progress = new ReadProgress("callback");
+
+        try {
+            final long rows =
+                    delegate.retrieve(
+                            context,
+                            record -> {
+                                progress.record(record);
+                                handler.processRecord(record);
+                            });
+            progress.finish();
+            return rows;
+        } catch (final ConduitException | RuntimeException e) {
+            metrics.errors(sourceType(), "callback").increment();
+            throw e;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Dataset retrieveDataset(final DataContext context) throws ConduitException {
+        final long start = System.nanoTime();
+
+        try {
+            final Dataset dataset = delegate.retrieveDataset(context);
+            read("dataset", start, dataset.getRecords().size());
+            return dataset;
+        } catch (final ConduitException | RuntimeException e) {
+            metrics.errors(sourceType(), "dataset").increment();
+            throw e;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void insertDataset(final DataContext context, final Dataset dataset)
+            throws ConduitException {
+        final long start = System.nanoTime();
+
+        try {
+            delegate.insertDataset(context, dataset);
+            written("dataset", start, dataset.getRecords().size());
+        } catch (final ConduitException | RuntimeException e) {
+            metrics.errors(sourceType(), "insert").increment();
+            throw e;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void insert(final DataContext context, final List<Map<String, Object>> records)
+            throws ConduitException {
+        final long start = System.nanoTime();
+
+        try {
+            delegate.insert(context, records);
+            written("records", start, records.size());
+        } catch (final ConduitException | RuntimeException e) {
+            metrics.errors(sourceType(), "insert").increment();
+            throw e;
+        }
+    }
+
+    private void read(final String operation, final long start, final long rows) {
+        metrics.read(sourceType(), operation)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        metrics.rowsRead(sourceType()).increment(rows);
+    }
+
+    private void written(final String operation, final long start, final long rows) {
+        metrics.write(sourceType(), operation)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        metrics.rowsWritten(sourceType()).increment(rows);
+    }
+
+    /** Progress of a read consumed record by record. */
+    private class ReadProgress {
+        /** The operation. */
+        private final String operation;
+
+        /** Time the read started. */
+        private final long start = System.nanoTime();
+
+        /** True once the first record is read. */
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        /** True once finished, so a read is recorded once. */
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        /** Number of records read. */
+        private final LongAdder rows = new LongAdder();
+
+        ReadProgress(final String operation) {
+            this.operation = operation;
+        }
+
+        void record(final Map<String, Object> record) {
+            if (!started.get() && started.compareAndSet(false, true)) {
+                metrics.firstRow(sourceType())
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+
+            rows.increment();
+        }
+
+        void finish() {
+            if (finished.compareAndSet(false, true)) {
+                read(operation, start, rows.sum());
+            }
+        }
+
+        void fail() {
+            if (finished.compareAndSet(false, true)) {
+                metrics.errors(sourceType(), operation).increment();
+            }
+        }
+    }
+
+    /**
+     * Spliterator of a streamed read, recording each record read and counting an error when the
+     * source fails while the stream is consumed. Exceptions thrown by the stream's consumer are not
+     * counted.
+     */
+    private static class MeteredSpliterator implements Spliterator<Map<String, Object>> {
+        /** The spliterator of the source's stream. */
+        private final Spliterator<Map<String, Object>> source;
+
+        /** The progress of the read. */
+        private final ReadProgress progress;
+
+        MeteredSpliterator(
+                final Spliterator<Map<String, Object>> source, final ReadProgress progress) {
+            this.source = source;
+            this.progress = progress;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean tryAdvance(final Consumer<? super Map<String, Object>> action) {
+            final RecordingConsumer consumer = new RecordingConsumer(action);
+
+            try {
+                return source.tryAdvance(consumer);
+            } catch (final RuntimeException | Error e) {
+                if (!consumer.failed) {
+                    progress.fail();
+                }
+
+                throw e;
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void forEachRemaining(final Consumer<? super Map<String, Object>> action) {
+            final RecordingConsumer consumer = new RecordingConsumer(action);
+
+            try {
+                source.forEachRemaining(consumer);
+            } catch (final RuntimeException | Error e) {
+                if (!consumer.failed) {
+                    progress.fail();
+                }
+
+                throw e;
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Spliterator<Map<String, Object>> trySplit() {
+            final Spliterator<Map<String, Object>> split = source.trySplit();
+            return split == null ? null : new MeteredSpliterator(split, progress);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int characteristics() {
+            return source.characteristics();
+        }
+
+        /** Consumer recording each record, and whether the consumer it delegates to failed. */
+        private class RecordingConsumer implements Consumer<Map<String, Object>> {
+            /** The consumer delegated to. */
+            private final Consumer<? super Map<String, Object>> action;
+
+            /** True if the consumer delegated to threw. */
+            private boolean failed;
+
+            RecordingConsumer(final Consumer<? super Map<String, Object>> action) {
+                this.action = action;
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            public void accept(final Map<String, Object> record) {
+                progress.record(record);
+
+                try {
+                    action.accept(record);
+                } catch (final RuntimeException | Error e) {
+                    failed = true;
+                    throw e;
+                }
+            }
+        }
+    }
+}
@@ -20,8 +20,14 @@ James G Willmore - LJ Computing - (C) 2023
 */
 package net.ljcomputing.conduit.model;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import javax.sql.DataSource;
 import lombok.Data;
+import net.ljcomputing.conduit.io.Compression;
+import net.ljcomputing.conduit.io.MappedFile;
 import org.springframework.core.io.Resource;
 
 /**
@@ -35,4 +41,57 @@ public class ConnectorContext {
 
     /** A Resource. */
     private Resource resource;
+
+    /** The local file of the resource; null if the resource is not a local file. */
+    private Path file;
+
+    /** The compression of the resource; null if not known until the resource is read. */
+    private Compression compression;
+
+    /**
+     * Return true if the resource is a local file, which can be read through a channel or mapped
+     * into memory.
+     *
+     * @return
+     */
+    public boolean hasFile() {
+        return file != null;
+    }
+
+    /**
+     * Return true if the resource is known to be compressed.
+     *
+     * @return
+     */
+    public boolean isCompressed() {
+        return compression != null && compression != Compression.NONE;
+    }
+
+    /**
+     * Open a read only {@link java.nio.channels.FileChannel channel} on the local file.
+     *
+     * @return
+     * @throws IOException
+     */
+    public FileChannel openChannel() throws IOException {
+        return FileChannel.open(requireFile(), StandardOpenOption.READ);
+    }
+
+    /**
+     * Map the local file into memory.
+     *
+     * @return
+     * @throws IOException
+     */
+    public MappedFile map() throws IOException {
+        return new MappedFile(requireFile());
+    }
+
+    private Path requireFile() {
+        if (file == null) {
+            throw new IllegalStateException("resource is not a local file: " + resource);
+        }
+
+        return file;
+    }
 }
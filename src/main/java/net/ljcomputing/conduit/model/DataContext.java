@@ -61,6 +61,24 @@ public class DataContext {
         return !properties.isEmpty();
     }
 
+    /**
+     * A copy of the data context with its own properties, so a call can set properties without
+     * affecting others sharing this context.
+     *
+     * @return
+     */
+    public DataContext copy() {
+        final DataContext copy =
+                init(sourceType, url)
+                        .user(user)
+                        .password(password)
+                        .driverClassName(driverClassName)
+                        .query(query)
+                        .build();
+        copy.properties.putAll(properties);
+        return copy;
+    }
+
     /**
      * Get the given property. Default value will be an empty String if not defined.
      *
@@ -82,6 +100,67 @@ public class DataContext {
         return getProperties().getProperty(property.property(), defaultValue);
     }
 
+    /**
+     * Get the given property as an int. Default value will be the given default value if not
+     * defined.
+     *
+     * @param property
+     * @param defaultValue
+     * @return
+     */
+    public int getIntProperty(final DataContextProperties property, final int defaultValue) {
+        final String value = getProperty(property);
+        return value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    /**
+     * Get the given property as a boolean. Default value will be the given default value if not
+     * defined.
+     *
+     * @param property
+     * @param defaultValue
+     * @return
+     */
+    public boolean getBooleanProperty(
+            final DataContextProperties property, final boolean defaultValue) {
+        final String value = getProperty(property);
+        return value.isBlank() ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    /**
+     * Get the given property as a size in bytes; the value may end with a k, m or g (binary) unit
+     * suffix (ex. 512m). Default value will be the given default value if not defined.
+     *
+     * @param property
+     * @param defaultValue
+     * @return
+     */
+    public long getSizeProperty(final DataContextProperties property, final long defaultValue) {
+        final String value = getProperty(property).trim().toLowerCase();
+
+        if (value.isEmpty()) {
+            return defaultValue;
+        }
+
+        final int shift;
+
+        switch (value.charAt(value.length() - 1)) {
+            case 'k':
+                shift = 10;
+                break;
+            case 'm':
+                shift = 20;
+                break;
+            case 'g':
+                shift = 30;
+                break;
+            default:
+                return Long.parseLong(value);
+        }
+
+        return Long.parseLong(value.substring(0, value.length() - 1).trim()) << shift;
+    }
+
     /**
      * Returns the protocol string of the data context (ex. if the url value is
      * jdbc:postgresql://localhost:5432/insurance this method will return jdbc).
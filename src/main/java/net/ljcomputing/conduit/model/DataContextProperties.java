@@ -22,10 +22,48 @@ package net.ljcomputing.conduit.model;
 
 /** Enumeration of all additional data context properties available. */
 public enum DataContextProperties {
+    BATCH_SIZE("batch_size"),
+    CHECKPOINT_COLUMN("checkpoint_column"),
+    CHECKPOINT_INTERVAL("checkpoint_interval"),
+    CHECKPOINT_VALUE("checkpoint_value"),
+    CHUNK_ROWS("chunk_rows"),
+    CHUNK_SIZE("chunk_size"),
+    COLUMNAR("columnar"),
+    COLUMN_TYPES("column_types"),
     COLUMNS("columns"),
+    COMMIT_INTERVAL("commit_interval"),
     DELIMITER("delimiter"),
+    EXCLUDED_COLUMNS("excluded_columns"),
+    FETCH_SIZE("fetch_size"),
+    HTTP_CACHE("http_cache"),
+    HTTP_CACHE_DIRECTORY("http_cache_directory"),
+    HTTP_CACHE_MAX_SIZE("http_cache_max_size"),
+    HTTP_RANGE_SIZE("http_range_size"),
+    JOB_ID("job_id"),
+    KEY_COLUMNS("key_columns"),
+    LOAD_MODE("load_mode"),
+    MEMORY_BUDGET("memory_budget"),
+    MEMORY_MAPPED("memory_mapped"),
+    MULTI_ROW_VALUES("multi_row_values"),
+    ORDERED("ordered"),
+    PARALLEL("parallel"),
+    PARALLELISM("parallelism"),
+    PARTITION_COLUMN("partition_column"),
+    PARTITION_COUNT("partition_count"),
+    PARTITION_LOWER_BOUND("partition_lower_bound"),
+    PARTITION_UPPER_BOUND("partition_upper_bound"),
+    POOL_IDLE_TIMEOUT("pool_idle_timeout"),
+    POOL_MAX_SIZE("pool_max_size"),
+    POOL_MIN_IDLE("pool_min_idle"),
+    RECORD_POINTER("record_pointer"),
+    SCHEMA_SAMPLE_SIZE("schema_sample_size"),
+    SKIP_RECORDS("skip_records"),
+    SPILL_DIRECTORY("spill_directory"),
     TARGET_TABLE("target_table"),
-    USE_BIND_VARIABLES("use_bind_variables");
+    TYPED("typed"),
+    USE_BIND_VARIABLES("use_bind_variables"),
+    WATERMARK_COLUMN("watermark_column"),
+    WATERMARK_VALUE("watermark_value");
 
     /** Name of the property. */
     private String property;
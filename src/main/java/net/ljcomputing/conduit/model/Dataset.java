@@ -21,10 +21,15 @@ James G Willmore - LJ Computing - (C) 2023
 package net.ljcomputing.conduit.model;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 /** Model representing a dataset. */
 @Data
@@ -35,6 +40,34 @@ public class Dataset {
     /** Dataset records. */
     @Getter private final List<DatasetRecord> records = new ArrayList<>();
 
+    /** Index of each column definition by name. */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final Map<String, Integer> columnIndex = new HashMap<>();
+
+    /** Record schema of the column definitions; rebuilt when a column definition is added. */
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private DatasetSchema schema;
+
+    /**
+     * The {@link net.ljcomputing.conduit.model.DatasetSchema record schema} of the dataset's column
+     * definitions. The same instance is returned until a column definition is added, so records
+     * created with it share one schema.
+     *
+     * @return
+     */
+    public DatasetSchema getSchema() {
+        if (schema == null) {
+            schema = DatasetSchema.ofDefinitions(columnDefinitions);
+        }
+
+        return schema;
+    }
+
     /** Add a record to the dataset. */
     public void addRecord(final DatasetRecord record) {
         getRecords().add(record);
@@ -47,11 +80,7 @@ public class Dataset {
      * @return
      */
     public boolean hasColumnDefinition(final DatasetColumnDefinition datasetColumnDefinition) {
-        final Optional<DatasetColumnDefinition> result =
-                columnDefinitions.stream()
-                        .filter(el -> datasetColumnDefinition.getName().equals(el.getName()))
-                        .findFirst();
-        return result.isPresent();
+        return columnIndex.containsKey(datasetColumnDefinition.getName());
     }
 
     /**
@@ -62,7 +91,25 @@ public class Dataset {
      */
     public void addColumnDefinition(final DatasetColumnDefinition datasetColumnDefinition) {
         if (!hasColumnDefinition(datasetColumnDefinition)) {
+            columnIndex.put(datasetColumnDefinition.getName(), columnDefinitions.size());
             columnDefinitions.add(datasetColumnDefinition);
+            schema = null;
+        }
+    }
+
+    /**
+     * Replace the column definition of the same name as the given column definition (ex. with a
+     * widened type), keeping its order; added if the dataset has no such column definition.
+     *
+     * @param datasetColumnDefinition
+     */
+    public void replaceColumnDefinition(final DatasetColumnDefinition datasetColumnDefinition) {
+        final Integer index = columnIndex.get(datasetColumnDefinition.getName());
+
+        if (index == null) {
+            addColumnDefinition(datasetColumnDefinition);
+        } else {
+            columnDefinitions.set(index, datasetColumnDefinition);
         }
     }
 }
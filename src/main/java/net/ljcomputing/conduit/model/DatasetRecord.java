@@ -20,16 +20,195 @@ James G Willmore - LJ Computing - (C) 2023
 */
 package net.ljcomputing.conduit.model;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
-import lombok.Data;
-import lombok.Getter;
+import java.util.Objects;
 
-@Data
+/**
+ * A {@link net.ljcomputing.conduit.model.Dataset Dataset's} record. Values are held in a slot array
+ * bound to a shared {@link net.ljcomputing.conduit.model.DatasetSchema schema}, so values are
+ * accessed by ordinal or by name in constant time.
+ */
 public class DatasetRecord {
-    @Getter private final List<DatasetRecordColumn> columns = new ArrayList<>();
+    /** The schema the record's values are laid out by. */
+    private DatasetSchema schema;
 
+    /** The values, by ordinal. */
+    private Object[] values;
+
+    /** Constructor. Creates an empty record; columns are added with {@link #addColumn}. */
+    public DatasetRecord() {
+        this(DatasetSchema.EMPTY, new Object[0]);
+    }
+
+    /**
+     * Constructor. Creates a record of the given schema with all values null.
+     *
+     * @param schema
+     */
+    public DatasetRecord(final DatasetSchema schema) {
+        this(schema, new Object[schema.size()]);
+    }
+
+    /**
+     * Constructor. The given values array is used as is; it is not copied.
+     *
+     * @param schema
+     * @param values
+     */
+    public DatasetRecord(final DatasetSchema schema, final Object[] values) {
+        if (schema.size() != values.length) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "%d values given for a schema of %d columns",
+                            values.length, schema.size()));
+        }
+
+        this.schema = schema;
+        this.values = values;
+    }
+
+    /**
+     * The schema of the record.
+     *
+     * @return
+     */
+    public DatasetSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Number of values in the record.
+     *
+     * @return
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * The value at the given ordinal.
+     *
+     * @param ordinal
+     * @return
+     */
+    public Object get(final int ordinal) {
+        return values[ordinal];
+    }
+
+    /**
+     * The value of the given column name.
+     *
+     * @param name
+     * @return
+     */
+    public Object get(final String name) {
+        return values[ordinal(name)];
+    }
+
+    /**
+     * Set the value at the given ordinal.
+     *
+     * @param ordinal
+     * @param value
+     */
+    public void set(final int ordinal, final Object value) {
+        values[ordinal] = value;
+    }
+
+    /**
+     * Set the value of the given column name.
+     *
+     * @param name
+     * @param value
+     */
+    public void set(final String name, final Object value) {
+        values[ordinal(name)] = value;
+    }
+
+    /**
+     * Read only view of the record as a list of columns. Column objects are created on access;
+     * prefer {@link #get(int)} or {@link #get(String)}.
+     *
+     * <p>The list used to be the record's backing store and could be modified in place; it is now a
+     * view over the slot array, so {@code add}, {@code set} and {@code remove} throw {@link
+     * UnsupportedOperationException}, and setting a value on a returned column does not change the
+     * record. Use {@link #set(int, Object)}, {@link #set(String, Object)} or {@link #addColumn}
+     * instead.
+     *
+     * @return
+     */
+    public List<DatasetRecordColumn> getColumns() {
+        return new AbstractList<DatasetRecordColumn>() {
+            @Override
+            public DatasetRecordColumn get(final int index) {
+                return new DatasetRecordColumn(schema.name(index), values[index]);
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+
+    /**
+     * Append the given column to the record. The record is re-bound to a new schema; records built
+     * in bulk should be created with a shared schema instead.
+     *
+     * @param column
+     */
     public void addColumn(final DatasetRecordColumn column) {
-        getColumns().add(column);
+        schema = schema.with(column.getName());
+        values = Arrays.copyOf(values, values.length + 1);
+        values[values.length - 1] = column.getValue();
+    }
+
+    /**
+     * The ordinal of the given column name. Unlike {@link DatasetSchema#indexOf(String)}, which
+     * returns -1 for a column the schema does not contain, an unknown name is an error here, so
+     * that {@link #get(String)} and {@link #set(String, Object)} never index the slot array with
+     * -1.
+     *
+     * @param name
+     * @return
+     * @throws IllegalArgumentException if the schema does not contain the column
+     */
+    private int ordinal(final String name) {
+        final int ordinal = schema.indexOf(name);
+
+        if (ordinal < 0) {
+            throw new IllegalArgumentException("unknown column: " + name);
+        }
+
+        return ordinal;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof DatasetRecord)) {
+            return false;
+        }
+
+        final DatasetRecord other = (DatasetRecord) o;
+        return schema.equals(other.schema) && Arrays.equals(values, other.values);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return Objects.hash(schema, Arrays.hashCode(values));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "DatasetRecord(columns=" + getColumns() + ")";
     }
 }
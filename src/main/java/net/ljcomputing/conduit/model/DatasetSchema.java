@@ -0,0 +1,160 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Immutable, shareable layout of a {@link net.ljcomputing.conduit.model.DatasetRecord dataset
+ * record}: the ordered column names and a hash index from name to ordinal. Records bound to the
+ * same schema share one instance, so column names are not repeated per record.
+ */
+@EqualsAndHashCode(of = "names")
+@ToString(of = "names")
+public final class DatasetSchema {
+    /** Schema without columns. */
+    public static final DatasetSchema EMPTY = new DatasetSchema(Collections.emptyList());
+
+    /** Column names in ordinal order. */
+    private final List<String> names;
+
+    /** Ordinal of each column by name. */
+    private final Map<String, Integer> index;
+
+    /**
+     * Private constructor.
+     *
+     * @param names
+     */
+    private DatasetSchema(final List<String> names) {
+        this.names = Collections.unmodifiableList(names);
+        this.index = new HashMap<>(names.size() * 2);
+
+        for (int ordinal = 0; ordinal < names.size(); ordinal++) {
+            if (index.putIfAbsent(names.get(ordinal), ordinal) != null) {
+                throw new IllegalArgumentException("duplicate column name: " + names.get(ordinal));
+            }
+        }
+    }
+
+    /**
+     * Create a schema of the given column names.
+     *
+     * @param names
+     * @return
+     */
+    public static DatasetSchema of(final String... names) {
+        return new DatasetSchema(new ArrayList<>(Arrays.asList(names)));
+    }
+
+    /**
+     * Create a schema of the given column names.
+     *
+     * @param names
+     * @return
+     */
+    public static DatasetSchema of(final Collection<String> names) {
+        return new DatasetSchema(new ArrayList<>(names));
+    }
+
+    /**
+     * Create a schema of the given column definitions' names, in list order.
+     *
+     * @param columnDefinitions
+     * @return
+     */
+    public static DatasetSchema ofDefinitions(
+            final List<DatasetColumnDefinition> columnDefinitions) {
+        final List<String> names = new ArrayList<>(columnDefinitions.size());
+        columnDefinitions.forEach(definition -> names.add(definition.getName()));
+        return new DatasetSchema(names);
+    }
+
+    /**
+     * Create a new schema with the given column name appended.
+     *
+     * @param name
+     * @return
+     */
+    public DatasetSchema with(final String name) {
+        final List<String> result = new ArrayList<>(names.size() + 1);
+        result.addAll(names);
+        result.add(name);
+        return new DatasetSchema(result);
+    }
+
+    /**
+     * Number of columns.
+     *
+     * @return
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * The column name at the given ordinal.
+     *
+     * @param ordinal
+     * @return
+     */
+    public String name(final int ordinal) {
+        return names.get(ordinal);
+    }
+
+    /**
+     * The column names in ordinal order.
+     *
+     * @return
+     */
+    public List<String> names() {
+        return names;
+    }
+
+    /**
+     * The ordinal of the given column name; -1 if the schema does not contain the column.
+     *
+     * @param name
+     * @return
+     */
+    public int indexOf(final String name) {
+        final Integer ordinal = index.get(name);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Return true if the schema contains the given column name.
+     *
+     * @param name
+     * @return
+     */
+    public boolean contains(final String name) {
+        return index.containsKey(name);
+    }
+}
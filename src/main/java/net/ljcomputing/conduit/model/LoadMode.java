@@ -0,0 +1,65 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.model;
+
+/** Enum of supported ways records are loaded into JDBC targets. */
+public enum LoadMode {
+    INSERT("insert"),
+    BULK("bulk"),
+    PARALLEL("parallel");
+
+    /** Load mode (ex. insert, bulk, parallel) */
+    private String mode;
+
+    /**
+     * Private constructor.
+     *
+     * @param mode
+     */
+    private LoadMode(final String mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * The String representation of the given mode.
+     *
+     * @return
+     */
+    public String mode() {
+        return mode;
+    }
+
+    /**
+     * Find the Load Mode by the given mode; null if not supported.
+     *
+     * @param value
+     * @return
+     */
+    public static LoadMode findByMode(final String value) {
+        for (final LoadMode current : values()) {
+            if (current.mode().equalsIgnoreCase(value.trim())) {
+                return current;
+            }
+        }
+
+        return null;
+    }
+}
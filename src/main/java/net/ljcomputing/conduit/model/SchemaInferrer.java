@@ -0,0 +1,214 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Infers {@link net.ljcomputing.conduit.model.DatasetColumnDefinition column definitions} from
+ * records. Columns are kept in a hash index by name, in the order first seen. A column's type is
+ * the type of its values, widened as values of other types are seen: Integer to Long to BigDecimal
+ * for numbers, and String for any other mix. Nulls do not affect a column's type; a column with
+ * only nulls is an Object column.
+ *
+ * <p>Inference runs over every record, or over the first sample size records after which the schema
+ * is frozen. The definitions must hold every value, so a frozen schema still adds columns first
+ * seen in later records and still widens a column by a value it cannot hold; observing a record
+ * costs a lookup and a class comparison per field whether or not the schema is frozen.
+ */
+public class SchemaInferrer {
+    /** Sample size inferring over every record. */
+    public static final int ALL = 0;
+
+    /** Inferred columns by name, in the order first seen. */
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+
+    /** Number of records inferred over before the schema is frozen; {@link #ALL} for all. */
+    private final int sampleSize;
+
+    /** Number of records observed. */
+    private long observed;
+
+    /** True once the schema is frozen. */
+    private boolean frozen;
+
+    /** Constructor inferring over every record. */
+    public SchemaInferrer() {
+        this(ALL);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sampleSize number of records inferred over before the schema is frozen; {@link #ALL}
+     *     for all
+     */
+    public SchemaInferrer(final int sampleSize) {
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * Infer over the given record.
+     *
+     * @param record
+     */
+    public void observe(final Map<String, Object> record) {
+        for (final Map.Entry<String, Object> el : record.entrySet()) {
+            final Object value = el.getValue();
+            final Class<?> type = value == null ? null : value.getClass();
+            final Column column = columns.get(el.getKey());
+
+            if (column == null) {
+                columns.put(el.getKey(), new Column(el.getKey(), type, columns.size() + 1));
+            } else if (type != null && column.type != type) {
+                column.type = widen(column.type, type);
+            }
+        }
+
+        if (!frozen && sampleSize > ALL && ++observed >= sampleSize) {
+            frozen = true;
+        }
+    }
+
+    /** Freeze the schema, ending the sample. */
+    public void freeze() {
+        frozen = true;
+    }
+
+    /**
+     * Return true if the schema is frozen.
+     *
+     * @return
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Number of columns inferred.
+     *
+     * @return
+     */
+    public int size() {
+        return columns.size();
+    }
+
+    /**
+     * The inferred type of the given column; null if the column is unknown or only null so far.
+     *
+     * @param name
+     * @return
+     */
+    public Class<?> typeOf(final String name) {
+        final Column column = columns.get(name);
+        return column == null ? null : column.type;
+    }
+
+    /**
+     * The inferred column definitions, in the order first seen.
+     *
+     * @return
+     */
+    public List<DatasetColumnDefinition> getColumnDefinitions() {
+        final List<DatasetColumnDefinition> result = new ArrayList<>(columns.size());
+
+        columns.values()
+                .forEach(
+                        column ->
+                                result.add(
+                                        new DatasetColumnDefinition(
+                                                column.name,
+                                                column.type == null ? Object.class : column.type,
+                                                column.order)));
+
+        return result;
+    }
+
+    /**
+     * The common type of values of the given types.
+     *
+     * @param left
+     * @param right
+     * @return
+     */
+    public static Class<?> widen(final Class<?> left, final Class<?> right) {
+        if (left == null || left == right) {
+            return right;
+        } else if (right == null) {
+            return left;
+        }
+
+        final int leftRank = numericRank(left);
+        final int rightRank = numericRank(right);
+
+        if (leftRank < 0 || rightRank < 0) {
+            return String.class;
+        }
+
+        final int rank = Math.max(leftRank, rightRank);
+        return rank == 0 ? Integer.class : rank == 1 ? Long.class : BigDecimal.class;
+    }
+
+    /**
+     * Rank of the given numeric type: 0 for Integer (and narrower), 1 for Long, 2 for BigDecimal
+     * (and other numbers); -1 if not numeric.
+     *
+     * @param type
+     * @return
+     */
+    private static int numericRank(final Class<?> type) {
+        if (type == Integer.class || type == Short.class || type == Byte.class) {
+            return 0;
+        } else if (type == Long.class) {
+            return 1;
+        } else if (type == BigDecimal.class
+                || type == BigInteger.class
+                || type == Double.class
+                || type == Float.class) {
+            return 2;
+        }
+
+        return -1;
+    }
+
+    /** An inferred column. */
+    private static class Column {
+        /** Name of the column. */
+        private final String name;
+
+        /** Inferred type; null while only nulls were seen. */
+        private Class<?> type;
+
+        /** Order of the column. */
+        private final int order;
+
+        Column(final String name, final Class<?> type, final int order) {
+            this.name = name;
+            this.type = type;
+            this.order = order;
+        }
+    }
+}
@@ -24,9 +24,10 @@ package net.ljcomputing.conduit.model;
 public enum SourceType {
     JDBC("jdbc"),
     CSV("csv"),
-    JSON("json");
+    JSON("json"),
+    NDJSON("ndjson");
 
-    /** Source type (ex. JDBC, CSV, JSON, etc.) */
+    /** Source type (ex. JDBC, CSV, JSON, NDJSON, etc.) */
     private String type;
 
     /**
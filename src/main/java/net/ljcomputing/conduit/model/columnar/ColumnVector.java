@@ -0,0 +1,232 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.model.columnar;
+
+import java.util.BitSet;
+
+/**
+ * A single column of a {@link net.ljcomputing.conduit.model.columnar.ColumnarDataset
+ * ColumnarDataset}. Values are appended in row order; nulls are tracked in a bitmap so
+ * implementations can keep their values in primitive arrays.
+ */
+public abstract class ColumnVector {
+    /** Initial capacity of the backing arrays. */
+    protected static final int INITIAL_CAPACITY = 16;
+
+    /** Null bitmap; a set bit marks a null value in that row. */
+    private final BitSet nulls = new BitSet();
+
+    /** Number of values in the vector. */
+    private int size;
+
+    /** Number of null values in the vector. */
+    private int nullCount;
+
+    /**
+     * Create a vector suited to values of the given type.
+     *
+     * @param type
+     * @return
+     */
+    public static ColumnVector forType(final Class<?> type) {
+        if (Integer.class.equals(type) || Short.class.equals(type) || Byte.class.equals(type)) {
+            return new IntColumnVector();
+        } else if (Long.class.equals(type)) {
+            return new LongColumnVector();
+        } else if (Double.class.equals(type) || Float.class.equals(type)) {
+            return new DoubleColumnVector();
+        } else if (Boolean.class.equals(type)) {
+            return new BooleanColumnVector();
+        } else if (String.class.equals(type)) {
+            return new StringColumnVector();
+        }
+
+        return new ObjectColumnVector();
+    }
+
+    /**
+     * A vector holding the values of the given vector followed by the given value, which the given
+     * vector cannot hold. A vector of only nulls takes the type of the value; int values widen to
+     * long, int and long values widen to double (long values beyond 2^53 lose precision), and any
+     * other mix is held as objects.
+     *
+     * @param vector
+     * @param value
+     * @return
+     */
+    public static ColumnVector widen(final ColumnVector vector, final Object value) {
+        if (vector.nullCount() == vector.size()) {
+            return copyOf(vector, forType(value.getClass()));
+        } else if (vector instanceof IntColumnVector && value instanceof Long) {
+            return copyOf(vector, new LongColumnVector());
+        } else if ((vector instanceof IntColumnVector || vector instanceof LongColumnVector)
+                && (value instanceof Double || value instanceof Float)) {
+            return copyOf(vector, new DoubleColumnVector());
+        }
+
+        return ObjectColumnVector.copyOf(vector);
+    }
+
+    /**
+     * A vector of the given type holding the values of the given vector; the given vector if it is
+     * of that type, and an object vector if the type cannot hold its values.
+     *
+     * @param vector
+     * @param type
+     * @return
+     */
+    public static ColumnVector convert(final ColumnVector vector, final Class<?> type) {
+        final ColumnVector target = forType(type);
+        return target.getClass() == vector.getClass() ? vector : copyOf(vector, target);
+    }
+
+    /**
+     * Append the values of the given vector to the given empty target; an object vector holding
+     * them if the target cannot.
+     *
+     * @param vector
+     * @param target
+     * @return
+     */
+    private static ColumnVector copyOf(final ColumnVector vector, final ColumnVector target) {
+        for (int row = 0; row < vector.size(); row++) {
+            final Object value = vector.get(row);
+
+            if (value != null && !target.accepts(value)) {
+                return ObjectColumnVector.copyOf(vector);
+            }
+
+            target.append(value);
+        }
+
+        return target;
+    }
+
+    /**
+     * Number of values in the vector.
+     *
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of null values in the vector.
+     *
+     * @return
+     */
+    public int nullCount() {
+        return nullCount;
+    }
+
+    /**
+     * Return true if the value at the given row is null.
+     *
+     * @param row
+     * @return
+     */
+    public boolean isNull(final int row) {
+        checkRow(row);
+        return nulls.get(row);
+    }
+
+    /**
+     * The (boxed) value at the given row.
+     *
+     * @param row
+     * @return
+     */
+    public Object get(final int row) {
+        return isNull(row) ? null : getValue(row);
+    }
+
+    /**
+     * Append the given value. The value must be null or {@link #accepts(Object) accepted} by the
+     * vector.
+     *
+     * @param value
+     */
+    public void append(final Object value) {
+        if (value == null) {
+            nulls.set(size);
+            nullCount++;
+            appendNull();
+        } else if (accepts(value)) {
+            appendValue(value);
+        } else {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "%s cannot hold value of type %s",
+                            getClass().getSimpleName(), value.getClass().getName()));
+        }
+
+        size++;
+    }
+
+    /**
+     * Return true if the vector can hold the given non-null value.
+     *
+     * @param value
+     * @return
+     */
+    public abstract boolean accepts(Object value);
+
+    /**
+     * The value at the given non-null row.
+     *
+     * @param row
+     * @return
+     */
+    protected abstract Object getValue(int row);
+
+    /**
+     * Append the given non-null value at index {@link #size()}.
+     *
+     * @param value
+     */
+    protected abstract void appendValue(Object value);
+
+    /** Reserve the slot at index {@link #size()} for a null value. */
+    protected abstract void appendNull();
+
+    /**
+     * Verify the given row is within the vector.
+     *
+     * @param row
+     */
+    protected void checkRow(final int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException(
+                    String.format("row %d is out of bounds for size %d", row, size));
+        }
+    }
+
+    /**
+     * The capacity needed to hold one more value than the given current capacity allows.
+     *
+     * @param capacity
+     * @return
+     */
+    protected static int grow(final int capacity) {
+        return Math.max(INITIAL_CAPACITY, capacity + (capacity >> 1));
+    }
+}
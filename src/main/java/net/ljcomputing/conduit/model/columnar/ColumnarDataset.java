@@ -0,0 +1,205 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.model.columnar;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.ljcomputing.conduit.model.Dataset;
+import net.ljcomputing.conduit.model.DatasetColumnDefinition;
+import net.ljcomputing.conduit.model.DatasetRecord;
+import net.ljcomputing.conduit.model.DatasetSchema;
+
+/**
+ * Columnar {@link net.ljcomputing.conduit.model.Dataset Dataset}. Instead of one object per record
+ * and per cell, values are kept in one {@link net.ljcomputing.conduit.model.columnar.ColumnVector
+ * typed vector} per column definition. {@link #getRecords()} returns a read only row view over the
+ * vectors, so callers written against a row based dataset keep working.
+ *
+ * <p>A vector's type follows its column definition, or the first non null value of a column defined
+ * by a record. A vector is {@link net.ljcomputing.conduit.model.columnar.ColumnVector#widen
+ * widened} when a value it cannot hold is added (ex. int to long), and {@link
+ * net.ljcomputing.conduit.model.columnar.ColumnVector#convert converted} when its column definition
+ * is replaced (ex. with a widened type).
+ */
+public class ColumnarDataset extends Dataset {
+    /** The column vectors, in column definition order. */
+    private final List<ColumnVector> vectors = new ArrayList<>();
+
+    /** Index of each column vector by column name. */
+    private final Map<String, Integer> columnIndex = new HashMap<>();
+
+    /** Row view over the column vectors. */
+    private final List<DatasetRecord> rowView = new RowView();
+
+    /** Number of rows in the dataset. */
+    private int rowCount;
+
+    /**
+     * Number of rows in the dataset.
+     *
+     * @return
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * The column vector of the given column name; null if the column is not defined.
+     *
+     * @param name
+     * @return
+     */
+    public ColumnVector getVector(final String name) {
+        final Integer index = columnIndex.get(name);
+        return index == null ? null : vectors.get(index);
+    }
+
+    /**
+     * Read only row view over the column vectors. Each access builds the record from the vectors.
+     *
+     * @return
+     */
+    @Override
+    public List<DatasetRecord> getRecords() {
+        return rowView;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasColumnDefinition(final DatasetColumnDefinition datasetColumnDefinition) {
+        return columnIndex.containsKey(datasetColumnDefinition.getName());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addColumnDefinition(final DatasetColumnDefinition datasetColumnDefinition) {
+        if (!hasColumnDefinition(datasetColumnDefinition)) {
+            super.addColumnDefinition(datasetColumnDefinition);
+
+            final ColumnVector vector =
+                    ColumnVector.forType(datasetColumnDefinition.getDatatypeClass());
+
+            for (int row = 0; row < rowCount; row++) {
+                vector.append(null);
+            }
+
+            columnIndex.put(datasetColumnDefinition.getName(), vectors.size());
+            vectors.add(vector);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void replaceColumnDefinition(final DatasetColumnDefinition datasetColumnDefinition) {
+        final Integer index = columnIndex.get(datasetColumnDefinition.getName());
+        super.replaceColumnDefinition(datasetColumnDefinition);
+
+        if (index != null) {
+            vectors.set(
+                    index,
+                    ColumnVector.convert(
+                            vectors.get(index), datasetColumnDefinition.getDatatypeClass()));
+        }
+    }
+
+    /**
+     * Add a record to the dataset. Columns not yet defined are added using the type of the record's
+     * value; columns missing from the record are null.
+     */
+    @Override
+    public void addRecord(final DatasetRecord record) {
+        final DatasetSchema recordSchema = record.getSchema();
+
+        for (int ordinal = 0; ordinal < record.size(); ordinal++) {
+            if (!columnIndex.containsKey(recordSchema.name(ordinal))) {
+                final Object value = record.get(ordinal);
+                addColumnDefinition(
+                        new DatasetColumnDefinition(
+                                recordSchema.name(ordinal),
+                                value == null ? Object.class : value.getClass(),
+                                vectors.size() + 1));
+            }
+        }
+
+        final Object[] row = new Object[vectors.size()];
+
+        for (int ordinal = 0; ordinal < record.size(); ordinal++) {
+            row[columnIndex.get(recordSchema.name(ordinal))] = record.get(ordinal);
+        }
+
+        for (int index = 0; index < row.length; index++) {
+            append(index, row[index]);
+        }
+
+        rowCount++;
+    }
+
+    /**
+     * Append the given value to the vector at the given index, {@link ColumnVector#widen widening}
+     * the vector if it cannot hold the value, or if it is an object vector of only nulls so the
+     * first value sets its type.
+     *
+     * @param index
+     * @param value
+     */
+    private void append(final int index, final Object value) {
+        ColumnVector vector = vectors.get(index);
+
+        if (value != null
+                && (!vector.accepts(value)
+                        || (vector instanceof ObjectColumnVector
+                                && vector.nullCount() == vector.size()))) {
+            vector = ColumnVector.widen(vector, value);
+            vectors.set(index, vector);
+        }
+
+        vector.append(value);
+    }
+
+    /** Read only list of records backed by the column vectors. */
+    private class RowView extends AbstractList<DatasetRecord> {
+        /** {@inheritDoc} */
+        @Override
+        public DatasetRecord get(final int row) {
+            if (row < 0 || row >= rowCount) {
+                throw new IndexOutOfBoundsException(
+                        String.format("row %d is out of bounds for size %d", row, rowCount));
+            }
+
+            final Object[] values = new Object[vectors.size()];
+
+            for (int index = 0; index < values.length; index++) {
+                values[index] = vectors.get(index).get(row);
+            }
+
+            return new DatasetRecord(getSchema(), values);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int size() {
+            return rowCount;
+        }
+    }
+}
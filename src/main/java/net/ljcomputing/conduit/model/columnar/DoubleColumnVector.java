@@ -0,0 +1,76 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.model.columnar;
+
+import java.util.Arrays;
+
+/** {@link net.ljcomputing.conduit.model.columnar.ColumnVector Column vector} of double values. */
+public class DoubleColumnVector extends ColumnVector {
+    /** The values. */
+    private double[] values = new double[INITIAL_CAPACITY];
+
+    /**
+     * The primitive value at the given row; 0 if the value is null.
+     *
+     * @param row
+     * @return
+     */
+    public double getDouble(final int row) {
+        checkRow(row);
+        return values[row];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean accepts(final Object value) {
+        return value instanceof Double
+                || value instanceof Float
+                || value instanceof Long
+                || value instanceof Integer
+                || value instanceof Short
+                || value instanceof Byte;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Object getValue(final int row) {
+        return values[row];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void appendValue(final Object value) {
+        ensureCapacity();
+        values[size()] = ((Number) value).doubleValue();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void appendNull() {
+        ensureCapacity();
+    }
+
+    private void ensureCapacity() {
+        if (size() == values.length) {
+            values = Arrays.copyOf(values, grow(values.length));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.model.columnar;
+
+import java.util.Arrays;
+
+/**
+ * {@link net.ljcomputing.conduit.model.columnar.ColumnVector Column vector} of values without a
+ * primitive representation (ex. BigDecimal, dates). Also holds columns whose values turned out to
+ * be of mixed types.
+ */
+public class ObjectColumnVector extends ColumnVector {
+    /** The values. */
+    private Object[] values = new Object[INITIAL_CAPACITY];
+
+    /**
+     * Create an object vector holding the values of the given vector.
+     *
+     * @param vector
+     * @return
+     */
+    public static ObjectColumnVector copyOf(final ColumnVector vector) {
+        final ObjectColumnVector result = new ObjectColumnVector();
+
+        for (int row = 0; row < vector.size(); row++) {
+            result.append(vector.get(row));
+        }
+
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean accepts(final Object value) {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Object getValue(final int row) {
+        return values[row];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void appendValue(final Object value) {
+        ensureCapacity();
+        values[size()] = value;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void appendNull() {
+        ensureCapacity();
+    }
+
+    private void ensureCapacity() {
+        if (size() == values.length) {
+            values = Arrays.copyOf(values, grow(values.length));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.model.columnar;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * {@link net.ljcomputing.conduit.model.columnar.ColumnVector Column vector} of String values. All
+ * values are stored UTF-8 encoded in one byte array, with the start of each value kept in an
+ * offsets array (the value at row n spans offsets[n] to offsets[n + 1]).
+ */
+public class StringColumnVector extends ColumnVector {
+    /** The UTF-8 encoded values. */
+    private byte[] data = new byte[INITIAL_CAPACITY * 8];
+
+    /** The offsets of each value in the data array; one more entry than there are values. */
+    private int[] offsets = new int[INITIAL_CAPACITY + 1];
+
+    /**
+     * The UTF-8 encoded length of the value at the given row.
+     *
+     * @param row
+     * @return
+     */
+    public int byteLength(final int row) {
+        checkRow(row);
+        return offsets[row + 1] - offsets[row];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean accepts(final Object value) {
+        return value instanceof String;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Object getValue(final int row) {
+        return new String(
+                data, offsets[row], offsets[row + 1] - offsets[row], StandardCharsets.UTF_8);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void appendValue(final Object value) {
+        final byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+        final int start = offsets[size()];
+        ensureCapacity(start + bytes.length);
+        System.arraycopy(bytes, 0, data, start, bytes.length);
+        offsets[size() + 1] = start + bytes.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void appendNull() {
+        ensureCapacity(offsets[size()]);
+        offsets[size() + 1] = offsets[size()];
+    }
+
+    private void ensureCapacity(final int dataLength) {
+        if (size() + 1 == offsets.length) {
+            offsets = Arrays.copyOf(offsets, grow(offsets.length));
+        }
+
+        if (dataLength > data.length) {
+            data = Arrays.copyOf(data, Math.max(dataLength, grow(data.length)));
+        }
+    }
+}
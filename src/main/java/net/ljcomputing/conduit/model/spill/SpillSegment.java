@@ -0,0 +1,415 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.model.spill;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import net.ljcomputing.conduit.exception.ConduitRuntimeException;
+import net.ljcomputing.conduit.model.DatasetRecord;
+import net.ljcomputing.conduit.model.DatasetSchema;
+
+/**
+ * A batch of records spilled to a temp file in a compact binary row encoding: each record is its
+ * schema's number in the segment (the column names follow the first record of each schema) and one
+ * type tag and payload per value. Values of types without a tag are written with Java
+ * serialization.
+ */
+final class SpillSegment {
+    private static final int NULL = 0;
+    private static final int STRING = 1;
+    private static final int INT = 2;
+    private static final int LONG = 3;
+    private static final int DOUBLE = 4;
+    private static final int FLOAT = 5;
+    private static final int BOOLEAN = 6;
+    private static final int DECIMAL = 7;
+    private static final int BIG_INTEGER = 8;
+    private static final int DATE = 9;
+    private static final int TIMESTAMP = 10;
+    private static final int UTIL_DATE = 11;
+    private static final int SHORT = 12;
+    private static final int BYTE = 13;
+    private static final int LOCAL_DATE = 14;
+    private static final int LOCAL_DATE_TIME = 15;
+    private static final int TIME = 16;
+    private static final int BYTES = 17;
+    private static final int SERIALIZED = 99;
+
+    /** Size of the file buffers. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** The segment's file. */
+    private final Path file;
+
+    /** Number of records in the segment. */
+    private final int count;
+
+    private SpillSegment(final Path file, final int count) {
+        this.file = file;
+        this.count = count;
+    }
+
+    /**
+     * Number of records in the segment.
+     *
+     * @return
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Write the given records to a new segment file in the given directory.
+     *
+     * @param directory
+     * @param records
+     * @return
+     * @throws IOException
+     */
+    static SpillSegment write(final Path directory, final List<DatasetRecord> records)
+            throws IOException {
+        Files.createDirectories(directory);
+        final Path file = Files.createTempFile(directory, "conduit-spill", ".bin");
+        file.toFile().deleteOnExit();
+
+        final Map<DatasetSchema, Integer> schemas = new IdentityHashMap<>();
+
+        try (DataOutputStream out =
+                new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE))) {
+            for (final DatasetRecord record : records) {
+                final DatasetSchema schema = record.getSchema();
+                final Integer id = schemas.get(schema);
+
+                if (id == null) {
+                    out.writeInt(schemas.size());
+                    schemas.put(schema, schemas.size());
+                    out.writeInt(schema.size());
+
+                    for (final String name : schema.names()) {
+                        writeString(out, name);
+                    }
+                } else {
+                    out.writeInt(id);
+                }
+
+                for (int ordinal = 0; ordinal < record.size(); ordinal++) {
+                    writeValue(out, record.get(ordinal));
+                }
+            }
+        }
+
+        return new SpillSegment(file, records.size());
+    }
+
+    /**
+     * Read every record of the segment.
+     *
+     * @return
+     */
+    List<DatasetRecord> readAll() {
+        final List<DatasetRecord> records = new ArrayList<>(count);
+        final Iterator<DatasetRecord> it = iterator();
+        it.forEachRemaining(records::add);
+        return records;
+    }
+
+    /**
+     * Iterator streaming the records of the segment; the file is closed once every record is read.
+     *
+     * @return
+     */
+    Iterator<DatasetRecord> iterator() {
+        try {
+            return new SegmentIterator(
+                    new DataInputStream(
+                            new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE)));
+        } catch (final IOException e) {
+            throw new ConduitRuntimeException(e);
+        }
+    }
+
+    /**
+     * Delete the segment's file.
+     *
+     * @throws IOException
+     */
+    void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private static void writeString(final DataOutputStream out, final String value)
+            throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeValue(final DataOutputStream out, final Object value)
+            throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof BigDecimal) {
+            final BigDecimal decimal = (BigDecimal) value;
+            out.writeByte(DECIMAL);
+            out.writeInt(decimal.scale());
+            writeBytes(out, decimal.unscaledValue().toByteArray());
+        } else if (value instanceof BigInteger) {
+            out.writeByte(BIG_INTEGER);
+            writeBytes(out, ((BigInteger) value).toByteArray());
+        } else if (value instanceof Date) {
+            out.writeByte(DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof Timestamp) {
+            out.writeByte(TIMESTAMP);
+            out.writeLong(((Timestamp) value).getTime());
+            out.writeInt(((Timestamp) value).getNanos());
+        } else if (value instanceof Time) {
+            out.writeByte(TIME);
+            out.writeLong(((Time) value).getTime());
+        } else if (value.getClass() == java.util.Date.class) {
+            out.writeByte(UTIL_DATE);
+            out.writeLong(((java.util.Date) value).getTime());
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof LocalDate) {
+            out.writeByte(LOCAL_DATE);
+            out.writeLong(((LocalDate) value).toEpochDay());
+        } else if (value instanceof LocalDateTime) {
+            final LocalDateTime dateTime = (LocalDateTime) value;
+            out.writeByte(LOCAL_DATE_TIME);
+            out.writeLong(dateTime.toLocalDate().toEpochDay());
+            out.writeLong(dateTime.toLocalTime().toNanoOfDay());
+        } else if (value instanceof byte[]) {
+            out.writeByte(BYTES);
+            writeBytes(out, (byte[]) value);
+        } else if (value instanceof Serializable) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+            try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+                objects.writeObject(value);
+            }
+
+            out.writeByte(SERIALIZED);
+            writeBytes(out, bytes.toByteArray());
+        } else {
+            throw new IOException("cannot spill a value of " + value.getClass());
+        }
+    }
+
+    private static Object readValue(final DataInputStream in) throws IOException {
+        final int tag = in.readUnsignedByte();
+
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case INT:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case FLOAT:
+                return in.readFloat();
+            case BOOLEAN:
+                return in.readBoolean();
+            case DECIMAL:
+                final int scale = in.readInt();
+                return new BigDecimal(new BigInteger(readBytes(in)), scale);
+            case BIG_INTEGER:
+                return new BigInteger(readBytes(in));
+            case DATE:
+                return new Date(in.readLong());
+            case TIMESTAMP:
+                final Timestamp timestamp = new Timestamp(in.readLong());
+                timestamp.setNanos(in.readInt());
+                return timestamp;
+            case TIME:
+                return new Time(in.readLong());
+            case UTIL_DATE:
+                return new java.util.Date(in.readLong());
+            case SHORT:
+                return in.readShort();
+            case BYTE:
+                return in.readByte();
+            case LOCAL_DATE:
+                return LocalDate.ofEpochDay(in.readLong());
+            case LOCAL_DATE_TIME:
+                final LocalDate date = LocalDate.ofEpochDay(in.readLong());
+                return date.atTime(java.time.LocalTime.ofNanoOfDay(in.readLong()));
+            case BYTES:
+                return readBytes(in);
+            case SERIALIZED:
+                try (ObjectInputStream objects =
+                        new ObjectInputStream(new ByteArrayInputStream(readBytes(in)))) {
+                    return objects.readObject();
+                } catch (final ClassNotFoundException e) {
+                    throw new IOException(e);
+                }
+            default:
+                throw new IOException("unknown spilled value type " + tag);
+        }
+    }
+
+    private static void writeBytes(final DataOutputStream out, final byte[] bytes)
+            throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(final DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /** Iterator reading the records of the segment's file. */
+    private class SegmentIterator implements Iterator<DatasetRecord> {
+        /** The file's stream; null once closed. */
+        private DataInputStream in;
+
+        /** Schemas of the segment, by number. */
+        private final List<DatasetSchema> schemas = new ArrayList<>();
+
+        /** Number of records read. */
+        private int read;
+
+        SegmentIterator(final DataInputStream in) {
+            this.in = in;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean hasNext() {
+            if (read < count) {
+                return true;
+            }
+
+            close();
+            return false;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public DatasetRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            try {
+                final int id = in.readInt();
+
+                if (id == schemas.size()) {
+                    final String[] names = new String[in.readInt()];
+
+                    for (int index = 0; index < names.length; index++) {
+                        names[index] = readString(in);
+                    }
+
+                    schemas.add(DatasetSchema.of(names));
+                }
+
+                final DatasetSchema schema = schemas.get(id);
+                final Object[] values = new Object[schema.size()];
+
+                for (int ordinal = 0; ordinal < values.length; ordinal++) {
+                    values[ordinal] = readValue(in);
+                }
+
+                read++;
+                return new DatasetRecord(schema, values);
+            } catch (final EOFException e) {
+                close();
+                throw new ConduitRuntimeException("spill file " + file + " is truncated", e);
+            } catch (final IOException e) {
+                close();
+                throw new ConduitRuntimeException(e);
+            }
+        }
+
+        private void close() {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (final IOException e) {
+                    throw new ConduitRuntimeException(e);
+                } finally {
+                    in = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,316 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.model.spill;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import net.ljcomputing.conduit.exception.ConduitRuntimeException;
+import net.ljcomputing.conduit.model.Dataset;
+import net.ljcomputing.conduit.model.DatasetRecord;
+
+/**
+ * Out of core {@link net.ljcomputing.conduit.model.Dataset Dataset}. Records are buffered in memory
+ * until their estimated size passes the memory budget; the buffer is then written to a temp segment
+ * file in a compact binary encoding and cleared. {@link #getRecords()} returns a view over the
+ * spilled segments followed by the buffer: iteration streams segments one at a time in insertion
+ * order, and random access reads the segment holding the record (the last segment read is kept), so
+ * at most about twice the budget is held in memory. Close the dataset to delete the segment files;
+ * files not deleted are removed when the JVM exits.
+ *
+ * <p>Like {@link net.ljcomputing.conduit.model.Dataset Dataset}, the dataset is not thread-safe,
+ * and that includes reads: random access replaces the cached segment, so a dataset shared between
+ * threads must be read under external synchronization.
+ */
+public class SpillingDataset extends Dataset implements AutoCloseable {
+    /** Estimated size of a record and its values array. */
+    private static final long RECORD_OVERHEAD = 48;
+
+    /** Estimated size of a value reference and boxed value. */
+    private static final long VALUE_OVERHEAD = 24;
+
+    /** Maximum estimated size of the buffered records, in bytes. */
+    private final long memoryBudget;
+
+    /** Directory of the segment files. */
+    private final Path directory;
+
+    /** Records not spilled yet. */
+    private final List<DatasetRecord> buffer = new ArrayList<>();
+
+    /** The spilled segments, in insertion order. */
+    private final List<SpillSegment> segments = new ArrayList<>();
+
+    /** Index of the first record of each segment. */
+    private final List<Integer> segmentStarts = new ArrayList<>();
+
+    /** View over the spilled segments and the buffer. */
+    private final List<DatasetRecord> recordView = new RecordView();
+
+    /** Estimated size of the buffered records, in bytes. */
+    private long bufferSize;
+
+    /** Number of spilled records. */
+    private int spilledCount;
+
+    /** Index of the segment read last by random access; -1 if none. Not guarded; see above. */
+    private int cachedSegment = -1;
+
+    /** Records of the segment read last by random access. */
+    private List<DatasetRecord> cachedRecords = Collections.emptyList();
+
+    /**
+     * Constructor spilling to the system temp directory.
+     *
+     * @param memoryBudget maximum estimated size of the buffered records, in bytes
+     */
+    public SpillingDataset(final long memoryBudget) {
+        this(memoryBudget, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param memoryBudget maximum estimated size of the buffered records, in bytes
+     * @param directory directory of the segment files; the system temp directory if null
+     */
+    public SpillingDataset(final long memoryBudget, final Path directory) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("memory budget must be positive: " + memoryBudget);
+        }
+
+        this.memoryBudget = memoryBudget;
+        this.directory =
+                directory == null ? Paths.get(System.getProperty("java.io.tmpdir")) : directory;
+    }
+
+    /**
+     * Number of spilled segment files.
+     *
+     * @return
+     */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Number of records written to segment files.
+     *
+     * @return
+     */
+    public int getSpilledCount() {
+        return spilledCount;
+    }
+
+    /**
+     * View over the spilled segments, in insertion order, followed by the buffered records.
+     *
+     * @return
+     */
+    @Override
+    public List<DatasetRecord> getRecords() {
+        return recordView;
+    }
+
+    /**
+     * Add a record to the dataset, spilling the buffer once its estimated size passes the memory
+     * budget.
+     */
+    @Override
+    public void addRecord(final DatasetRecord record) {
+        buffer.add(record);
+        bufferSize += estimateSize(record);
+
+        if (bufferSize > memoryBudget) {
+            spill();
+        }
+    }
+
+    /** Delete the segment files and discard the records. */
+    @Override
+    public void close() {
+        IOException failure = null;
+
+        for (final SpillSegment segment : segments) {
+            try {
+                segment.delete();
+            } catch (final IOException e) {
+                failure = e;
+            }
+        }
+
+        segments.clear();
+        segmentStarts.clear();
+        buffer.clear();
+        cachedRecords = Collections.emptyList();
+        cachedSegment = -1;
+        bufferSize = 0;
+        spilledCount = 0;
+
+        if (failure != null) {
+            throw new ConduitRuntimeException(failure);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format(
+                "SpillingDataset(columnDefinitions=%s, records=%d, spilledSegments=%d)",
+                getColumnDefinitions(), recordView.size(), segments.size());
+    }
+
+    /** Write the buffered records to a new segment. */
+    private void spill() {
+        try {
+            segments.add(SpillSegment.write(directory, buffer));
+        } catch (final IOException e) {
+            throw new ConduitRuntimeException(e);
+        }
+
+        segmentStarts.add(spilledCount);
+        spilledCount += buffer.size();
+        buffer.clear();
+        bufferSize = 0;
+    }
+
+    /**
+     * Estimated heap size of the given record.
+     *
+     * @param record
+     * @return
+     */
+    static long estimateSize(final DatasetRecord record) {
+        long size = RECORD_OVERHEAD;
+
+        for (int ordinal = 0; ordinal < record.size(); ordinal++) {
+            final Object value = record.get(ordinal);
+            size += VALUE_OVERHEAD;
+
+            if (value instanceof CharSequence) {
+                size += 40 + ((CharSequence) value).length();
+            } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+                size += 40;
+            } else if (value instanceof byte[]) {
+                size += 16 + ((byte[]) value).length;
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Index of the segment holding the given spilled record.
+     *
+     * @param index
+     * @return
+     */
+    private int segmentOf(final int index) {
+        final int found = Collections.binarySearch(segmentStarts, index);
+        return found >= 0 ? found : -found - 2;
+    }
+
+    /** List of the spilled and buffered records; adding a record spills as needed. */
+    private class RecordView extends AbstractList<DatasetRecord> {
+        /** {@inheritDoc} */
+        @Override
+        public DatasetRecord get(final int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException(
+                        String.format("record %d is out of bounds for size %d", index, size()));
+            }
+
+            if (index >= spilledCount) {
+                return buffer.get(index - spilledCount);
+            }
+
+            final int segment = segmentOf(index);
+
+            if (segment != cachedSegment) {
+                cachedRecords = segments.get(segment).readAll();
+                cachedSegment = segment;
+            }
+
+            return cachedRecords.get(index - segmentStarts.get(segment));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int size() {
+            return spilledCount + buffer.size();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean add(final DatasetRecord record) {
+            addRecord(record);
+            return true;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Iterator<DatasetRecord> iterator() {
+            return new Iterator<>() {
+                /** Index of the next segment to read. */
+                private int nextSegment;
+
+                /** Records of the current segment, or of the buffer once every segment is read. */
+                private Iterator<DatasetRecord> current = Collections.emptyIterator();
+
+                /** True once the buffer is being read. */
+                private boolean buffered;
+
+                @Override
+                public boolean hasNext() {
+                    while (!current.hasNext()) {
+                        if (nextSegment < segments.size()) {
+                            current = segments.get(nextSegment++).iterator();
+                        } else if (!buffered) {
+                            current = buffer.iterator();
+                            buffered = true;
+                        } else {
+                            return false;
+                        }
+                    }
+
+                    return true;
+                }
+
+                @Override
+                public DatasetRecord next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+
+                    return current.next();
+                }
+            };
+        }
+    }
+}
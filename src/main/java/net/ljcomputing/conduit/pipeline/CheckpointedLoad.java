@@ -0,0 +1,251 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.pipeline;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import net.ljcomputing.conduit.exception.ConduitException;
+import net.ljcomputing.conduit.model.DataContext;
+import net.ljcomputing.conduit.model.DataContextProperties;
+import net.ljcomputing.conduit.model.SourceType;
+import net.ljcomputing.conduit.service.SourceService;
+import net.ljcomputing.conduit.state.Checkpoint;
+import net.ljcomputing.conduit.state.StateStore;
+import net.ljcomputing.conduit.utils.SqlValueUtils;
+
+/**
+ * Load of the records of a source into a {@link net.ljcomputing.conduit.pipeline.RecordSink sink}
+ * which can be resumed. Records are written in batches of the source context's checkpoint interval
+ * (default: {@value #DEFAULT_CHECKPOINT_INTERVAL}); after each batch is written, a {@link
+ * net.ljcomputing.conduit.state.Checkpoint checkpoint} of the records committed is stored in the
+ * {@link net.ljcomputing.conduit.state.StateStore state store} under the context's job id (default:
+ * a digest of the url and query). A load run again with the same job id after a failure resumes
+ * from its last checkpoint; once a load completes, its checkpoint is cleared. The source is read
+ * with a {@link net.ljcomputing.conduit.model.DataContext#copy copy} of the context, which is not
+ * changed.
+ *
+ * <p>A JDBC source with the checkpoint column property set (a numeric or date key) is read ordered
+ * by that column, and resumes from the last key committed, so rows before it are not read again.
+ * Keys need not be unique: rows with the last key committed are read and written again, so the
+ * target must upsert on key columns. Other sources skip the committed records: local uncompressed
+ * CSV and JSON Lines files are read from the offset past them without parsing them; other sources
+ * read them but do not write them again.
+ *
+ * <p>Each batch should be committed as one transaction (ex. a checkpoint interval no greater than a
+ * JDBC target's commit interval). A batch written but not yet checkpointed when the load fails is
+ * written again on resume; upserting on key columns makes that idempotent.
+ */
+@Slf4j
+public class CheckpointedLoad {
+    /** Default number of records written per checkpoint. */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 10000;
+
+    /** The state store. */
+    private final StateStore stateStore;
+
+    /** The source service. */
+    private final SourceService service;
+
+    /** The source data context. */
+    private final DataContext context;
+
+    /** The sink. */
+    private final RecordSink sink;
+
+    /** The job's state key. */
+    private final String jobId;
+
+    /** The key column of the source; null if not keyed. */
+    private final String keyColumn;
+
+    /** Number of records written per checkpoint. */
+    private final int checkpointInterval;
+
+    /**
+     * Constructor.
+     *
+     * @param stateStore
+     * @param service
+     * @param context
+     * @param sink
+     * @throws ConduitException if a keyed JDBC source is partitioned, so not read in key order
+     */
+    public CheckpointedLoad(
+            final StateStore stateStore,
+            final SourceService service,
+            final DataContext context,
+            final RecordSink sink)
+            throws ConduitException {
+        final String column = context.getProperty(DataContextProperties.CHECKPOINT_COLUMN);
+
+        if (!column.isBlank()
+                && context.getSourceType() == SourceType.JDBC
+                && !context.getProperty(DataContextProperties.PARTITION_COLUMN).isBlank()) {
+            throw new ConduitException("checkpoint column set on a partitioned query");
+        }
+
+        this.stateStore = stateStore;
+        this.service = service;
+        this.context = context;
+        this.sink = sink;
+        this.jobId =
+                context.getProperty(DataContextProperties.JOB_ID, StateStore.defaultJobId(context));
+        this.keyColumn = column.isBlank() ? null : column.trim();
+        this.checkpointInterval =
+                Math.max(
+                        1,
+                        context.getIntProperty(
+                                DataContextProperties.CHECKPOINT_INTERVAL,
+                                DEFAULT_CHECKPOINT_INTERVAL));
+    }
+
+    /**
+     * The job's last checkpoint.
+     *
+     * @return
+     * @throws ConduitException
+     */
+    public Checkpoint checkpoint() throws ConduitException {
+        return Checkpoint.parse(stateStore.get(jobId));
+    }
+
+    /**
+     * Run the load, resuming from the job's last checkpoint.
+     *
+     * @return the records read and written by this run
+     * @throws ConduitException
+     */
+    public PipelineResult run() throws ConduitException {
+        final long start = System.currentTimeMillis();
+        final Checkpoint resumed = checkpoint();
+        long read = 0;
+        long committed = resumed.getRecords();
+        long batches = 0;
+
+        if (resumed.isStarted()) {
+            log.info("job {} resuming after {}", jobId, resumed.format());
+        }
+
+        try (Stream<Map<String, Object>> records = service.stream(resume(resumed))) {
+            final Iterator<Map<String, Object>> it = records.iterator();
+            List<Map<String, Object>> batch = new ArrayList<>(checkpointInterval);
+
+            while (it.hasNext()) {
+                batch.add(it.next());
+                read++;
+
+                if (batch.size() >= checkpointInterval) {
+                    committed = write(batch, committed);
+                    batches++;
+                    batch = new ArrayList<>(checkpointInterval);
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                committed = write(batch, committed);
+                batches++;
+            }
+        } catch (final ConduitException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new ConduitException(e);
+        }
+
+        stateStore.put(jobId, "");
+        log.debug("job {} completed; {} records committed", jobId, committed);
+
+        return new PipelineResult(
+                read,
+                committed - resumed.getRecords(),
+                batches,
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * A copy of the context whose records start at the given checkpoint.
+     *
+     * @param checkpoint
+     * @return
+     */
+    private DataContext resume(final Checkpoint checkpoint) {
+        final DataContext run = context.copy();
+        run.getProperties().remove(DataContextProperties.SKIP_RECORDS.property());
+        run.getProperties().remove(DataContextProperties.CHECKPOINT_VALUE.property());
+
+        if (!checkpoint.isStarted()) {
+            return run;
+        }
+
+        if (checkpoint.getKey() != null && run.getSourceType() == SourceType.JDBC) {
+            run.getProperties()
+                    .setProperty(
+                            DataContextProperties.CHECKPOINT_VALUE.property(),
+                            SqlValueUtils.format(checkpoint.getKey()));
+        } else {
+            run.getProperties()
+                    .setProperty(
+                            DataContextProperties.SKIP_RECORDS.property(),
+                            Long.toString(checkpoint.getRecords()));
+        }
+
+        return run;
+    }
+
+    /**
+     * Write the given batch and store the checkpoint after it.
+     *
+     * @param batch
+     * @param committed records committed before the batch
+     * @return records committed after the batch
+     * @throws Exception
+     */
+    private long write(final List<Map<String, Object>> batch, final long committed)
+            throws Exception {
+        sink.write(batch);
+
+        final long total = committed + batch.size();
+        final Checkpoint checkpoint = new Checkpoint(total, key(batch.get(batch.size() - 1)));
+        stateStore.put(jobId, checkpoint.format());
+        log.debug("job {} checkpoint: {}", jobId, checkpoint.format());
+        return total;
+    }
+
+    /**
+     * The key of the given record; null if the load is not keyed or the key is not a number or
+     * date, which cannot be resumed past.
+     *
+     * @param record
+     * @return
+     */
+    private Object key(final Map<String, Object> record) {
+        if (keyColumn == null) {
+            return null;
+        }
+
+        final Object value = record.get(keyColumn);
+        return value instanceof Number || value instanceof Date ? value : null;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.pipeline;
+
+import java.util.Map;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import net.ljcomputing.conduit.exception.ConduitException;
+import net.ljcomputing.conduit.model.DataContext;
+import net.ljcomputing.conduit.model.DataContextProperties;
+import net.ljcomputing.conduit.service.SourceService;
+import net.ljcomputing.conduit.state.StateStore;
+import net.ljcomputing.conduit.state.Watermark;
+import net.ljcomputing.conduit.utils.SqlValueUtils;
+
+/**
+ * {@link net.ljcomputing.conduit.pipeline.RecordSource Source} of the records added or changed
+ * since the last run of a job. The context's watermark column names a column that only increases
+ * (ex. updated_at or a monotonic id); the last committed watermark is read from the {@link
+ * net.ljcomputing.conduit.state.StateStore state store} under the context's job id (default: a
+ * {@link net.ljcomputing.conduit.state.StateStore#defaultJobId digest} of the url and query) and
+ * only rows past it are read. The maximum value seen is {@link #commit() committed} once the
+ * records have been written, so a failed run is read again by the next one.
+ */
+@Slf4j
+public class IncrementalSource implements RecordSource {
+    /** The state store. */
+    private final StateStore stateStore;
+
+    /** The source service. */
+    private final SourceService service;
+
+    /** The source data context. */
+    private final DataContext context;
+
+    /** The job's state key. */
+    private final String jobId;
+
+    /** The watermark of the current run. */
+    private Watermark watermark;
+
+    /**
+     * Constructor.
+     *
+     * @param stateStore
+     * @param service
+     * @param context
+     * @throws ConduitException if the context has no watermark column
+     */
+    public IncrementalSource(
+            final StateStore stateStore, final SourceService service, final DataContext context)
+            throws ConduitException {
+        if (context.getProperty(DataContextProperties.WATERMARK_COLUMN).isBlank()) {
+            throw new ConduitException("watermark column not set");
+        }
+
+        this.stateStore = stateStore;
+        this.service = service;
+        this.context = context;
+        this.jobId =
+                context.getProperty(DataContextProperties.JOB_ID, StateStore.defaultJobId(context));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The source is read with a {@link net.ljcomputing.conduit.model.DataContext#copy copy} of
+     * the context whose watermark value property is the last committed watermark; the context
+     * itself is not changed, so it can be shared by other jobs.
+     */
+    @Override
+    public Stream<Map<String, Object>> open() throws ConduitException {
+        final String last = stateStore.get(jobId);
+        log.debug("job {} last watermark: {}", jobId, last);
+        final DataContext run = context.copy();
+
+        if (last == null) {
+            run.getProperties().remove(DataContextProperties.WATERMARK_VALUE.property());
+        } else {
+            run.getProperties().setProperty(DataContextProperties.WATERMARK_VALUE.property(), last);
+        }
+
+        watermark =
+                new Watermark(
+                        run.getProperty(DataContextProperties.WATERMARK_COLUMN),
+                        last == null ? null : SqlValueUtils.parse(last));
+        return service.stream(run).peek(watermark::observe);
+    }
+
+    /**
+     * Commit the maximum watermark seen by the last {@link #open() opened} stream.
+     *
+     * @throws ConduitException
+     */
+    public void commit() throws ConduitException {
+        if (watermark != null && watermark.getValue() != null) {
+            final String value = SqlValueUtils.format(watermark.getValue());
+            stateStore.put(jobId, value);
+            log.debug("job {} committed watermark: {}", jobId, value);
+        }
+    }
+
+    /**
+     * Run a pipeline built from the given builder with this as its source, committing the watermark
+     * only if the pipeline succeeds.
+     *
+     * @param builder
+     * @return
+     * @throws ConduitException
+     */
+    public PipelineResult run(final Pipeline.PipelineBuilder builder) throws ConduitException {
+        final PipelineResult result = builder.source(this).build().run();
+        commit();
+        return result;
+    }
+}
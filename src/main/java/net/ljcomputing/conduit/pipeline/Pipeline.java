@@ -0,0 +1,326 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.pipeline;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.extern.slf4j.Slf4j;
+import net.ljcomputing.conduit.exception.ConduitException;
+
+/**
+ * A staged pipeline: a {@link net.ljcomputing.conduit.pipeline.RecordSource source}, zero or more
+ * {@link net.ljcomputing.conduit.pipeline.TransformStage transform stages} and a {@link
+ * net.ljcomputing.conduit.pipeline.RecordSink sink}, each on its own threads. Stages are joined by
+ * bounded queues of record batches; when a queue is full the stage feeding it blocks, so a slow
+ * sink holds back the source rather than letting records pile up in memory. Records keep their
+ * source order only if every stage after the source runs on one thread.
+ *
+ * <p>The first failure of any stage stops the run and is rethrown by {@link #run()}.
+ */
+@Builder
+@Slf4j
+public class Pipeline {
+    /** Default number of records per batch. */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /** Default number of batches each queue holds. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 4;
+
+    /** Marks the end of the batches of a queue. */
+    private static final List<Map<String, Object>> END = new ArrayList<>(0);
+
+    /** Sequence used to name stage threads. */
+    private static final AtomicInteger THREAD_SEQUENCE = new AtomicInteger();
+
+    /** The source. */
+    @NonNull private final RecordSource source;
+
+    /** The transform stages, in order. */
+    @Singular private final List<TransformStage> transforms;
+
+    /** The sink. */
+    @NonNull private final RecordSink sink;
+
+    /** Number of records per batch. */
+    @Builder.Default private final int batchSize = DEFAULT_BATCH_SIZE;
+
+    /** Number of batches each queue holds. */
+    @Builder.Default private final int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    /** Number of threads running the sink. */
+    @Builder.Default private final int sinkThreads = 1;
+
+    /**
+     * Run the pipeline to completion.
+     *
+     * @return
+     * @throws ConduitException if any stage fails
+     */
+    public PipelineResult run() throws ConduitException {
+        return new Execution().run();
+    }
+
+    /** State of one run. */
+    private class Execution {
+        /** Queues feeding each stage after the source. */
+        private final List<BlockingQueue<List<Map<String, Object>>>> queues = new ArrayList<>();
+
+        /** Runs every stage. */
+        private final ExecutorService executor =
+                Executors.newCachedThreadPool(
+                        r -> {
+                            final Thread thread =
+                                    new Thread(
+                                            r,
+                                            "conduit-pipeline-"
+                                                    + THREAD_SEQUENCE.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+
+        /** Released when the sink completes or any stage fails. */
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        /** First failure of any stage. */
+        private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+        private final AtomicLong recordsRead = new AtomicLong();
+        private final AtomicLong recordsWritten = new AtomicLong();
+        private final AtomicLong batchesWritten = new AtomicLong();
+
+        PipelineResult run() throws ConduitException {
+            final long started = System.currentTimeMillis();
+
+            for (int stage = 0; stage <= transforms.size(); stage++) {
+                queues.add(new ArrayBlockingQueue<>(Math.max(1, queueCapacity)));
+            }
+
+            executor.execute(this::read);
+
+            for (int stage = 0; stage < transforms.size(); stage++) {
+                final TransformStage transform = transforms.get(stage);
+                final BlockingQueue<List<Map<String, Object>>> in = queues.get(stage);
+                final BlockingQueue<List<Map<String, Object>>> out = queues.get(stage + 1);
+                final int threads = Math.max(1, transform.getThreads());
+                final AtomicInteger remaining = new AtomicInteger(threads);
+
+                for (int thread = 0; thread < threads; thread++) {
+                    executor.execute(
+                            () ->
+                                    consume(
+                                            in,
+                                            batch -> transform(transform, batch, out),
+                                            remaining,
+                                            () -> out.put(END)));
+                }
+            }
+
+            final BlockingQueue<List<Map<String, Object>>> sinkQueue =
+                    queues.get(transforms.size());
+            final int threads = Math.max(1, sinkThreads);
+            final AtomicInteger remaining = new AtomicInteger(threads);
+
+            for (int thread = 0; thread < threads; thread++) {
+                executor.execute(
+                        () -> consume(sinkQueue, this::write, remaining, finished::countDown));
+            }
+
+            try {
+                finished.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure.compareAndSet(null, e);
+            } finally {
+                executor.shutdownNow();
+            }
+
+            awaitTermination();
+
+            if (failure.get() != null) {
+                throw new ConduitException(failure.get());
+            }
+
+            final PipelineResult result =
+                    new PipelineResult(
+                            recordsRead.get(),
+                            recordsWritten.get(),
+                            batchesWritten.get(),
+                            System.currentTimeMillis() - started);
+            log.debug("pipeline completed: {}", result);
+            return result;
+        }
+
+        /** Read the source into batches. */
+        private void read() {
+            final BlockingQueue<List<Map<String, Object>>> out = queues.get(0);
+
+            try (Stream<Map<String, Object>> records = source.open()) {
+                final Iterator<Map<String, Object>> it = records.iterator();
+                List<Map<String, Object>> batch = new ArrayList<>(batchSize);
+
+                while (it.hasNext()) {
+                    batch.add(it.next());
+                    recordsRead.incrementAndGet();
+
+                    if (batch.size() >= batchSize) {
+                        out.put(batch);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+
+                if (!batch.isEmpty()) {
+                    out.put(batch);
+                }
+
+                out.put(END);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (final Exception e) {
+                fail(e);
+            }
+        }
+
+        /**
+         * Transform the given batch into the given queue; records transformed to null are dropped.
+         *
+         * @param transform
+         * @param batch
+         * @param out
+         * @throws Exception
+         */
+        private void transform(
+                final TransformStage transform,
+                final List<Map<String, Object>> batch,
+                final BlockingQueue<List<Map<String, Object>>> out)
+                throws Exception {
+            final List<Map<String, Object>> result = new ArrayList<>(batch.size());
+
+            for (final Map<String, Object> record : batch) {
+                final Map<String, Object> transformed =
+                        transform.getTransformer().transform(record);
+
+                if (transformed != null) {
+                    result.add(transformed);
+                }
+            }
+
+            if (!result.isEmpty()) {
+                out.put(result);
+            }
+        }
+
+        /**
+         * Write the given batch to the sink.
+         *
+         * @param batch
+         * @throws Exception
+         */
+        private void write(final List<Map<String, Object>> batch) throws Exception {
+            sink.write(batch);
+            recordsWritten.addAndGet(batch.size());
+            batchesWritten.incrementAndGet();
+        }
+
+        /**
+         * Process the batches of the given queue until its end. The end marker is put back for the
+         * stage's other threads, and the last thread of the stage to finish runs the given action.
+         *
+         * @param in
+         * @param processor
+         * @param remaining threads of the stage still running
+         * @param onLast
+         */
+        private void consume(
+                final BlockingQueue<List<Map<String, Object>>> in,
+                final BatchProcessor processor,
+                final AtomicInteger remaining,
+                final StageAction onLast) {
+            try {
+                List<Map<String, Object>> batch;
+
+                while ((batch = in.take()) != END) {
+                    processor.process(batch);
+                }
+
+                in.put(END);
+
+                if (remaining.decrementAndGet() == 0) {
+                    onLast.run();
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (final Exception e) {
+                fail(e);
+            }
+        }
+
+        /**
+         * Record the given failure and stop the run.
+         *
+         * @param e
+         */
+        private void fail(final Exception e) {
+            if (failure.compareAndSet(null, e)) {
+                log.error("pipeline stage failed", e);
+            }
+
+            finished.countDown();
+        }
+
+        /** Wait for the stage threads to stop. */
+        private void awaitTermination() {
+            try {
+                if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    log.warn("pipeline stages did not stop");
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /** Processes a batch of a stage. */
+    @FunctionalInterface
+    private interface BatchProcessor {
+        void process(List<Map<String, Object>> batch) throws Exception;
+    }
+
+    /** Action run when a stage completes. */
+    @FunctionalInterface
+    private interface StageAction {
+        void run() throws Exception;
+    }
+}
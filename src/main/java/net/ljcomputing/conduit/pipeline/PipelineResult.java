@@ -0,0 +1,39 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.pipeline;
+
+import lombok.Value;
+
+/** Outcome of a {@link net.ljcomputing.conduit.pipeline.Pipeline pipeline} run. */
+@Value
+public class PipelineResult {
+    /** Records read from the source. */
+    long recordsRead;
+
+    /** Records written to the sink. */
+    long recordsWritten;
+
+    /** Batches written to the sink. */
+    long batchesWritten;
+
+    /** Duration of the run, in milliseconds. */
+    long elapsed;
+}
@@ -0,0 +1,50 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.pipeline;
+
+import java.util.Map;
+import java.util.stream.Stream;
+import net.ljcomputing.conduit.exception.ConduitException;
+import net.ljcomputing.conduit.model.DataContext;
+import net.ljcomputing.conduit.service.SourceService;
+
+/** The source stage of a {@link net.ljcomputing.conduit.pipeline.Pipeline pipeline}. */
+@FunctionalInterface
+public interface RecordSource {
+    /**
+     * Open the stream of records; the stream is closed by the pipeline.
+     *
+     * @return
+     * @throws ConduitException
+     */
+    Stream<Map<String, Object>> open() throws ConduitException;
+
+    /**
+     * Source streaming the records of the given data context from the given service.
+     *
+     * @param service
+     * @param context
+     * @return
+     */
+    static RecordSource of(final SourceService service, final DataContext context) {
+        return () -> service.stream(context);
+    }
+}
@@ -0,0 +1,39 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.pipeline;
+
+import java.util.Map;
+
+/**
+ * A transform stage of a {@link net.ljcomputing.conduit.pipeline.Pipeline pipeline}. A transformer
+ * run on more than one thread must be safe for concurrent use.
+ */
+@FunctionalInterface
+public interface RecordTransformer {
+    /**
+     * Transform the given record.
+     *
+     * @param record
+     * @return the transformed record; null to drop the record
+     * @throws Exception
+     */
+    Map<String, Object> transform(Map<String, Object> record) throws Exception;
+}
@@ -0,0 +1,38 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.service;
+
+import java.util.Map;
+
+/**
+ * Callback handed each record of a source as it is read (see {@link
+ * net.ljcomputing.conduit.service.SourceService#retrieve(net.ljcomputing.conduit.model.DataContext,
+ * RecordCallbackHandler) SourceService#retrieve}).
+ */
+@FunctionalInterface
+public interface RecordCallbackHandler {
+    /**
+     * Process the given record.
+     *
+     * @param record
+     */
+    void processRecord(Map<String, Object> record);
+}
@@ -22,6 +22,7 @@ package net.ljcomputing.conduit.service;
 
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 import net.ljcomputing.conduit.exception.ConduitException;
 import net.ljcomputing.conduit.model.DataContext;
 import net.ljcomputing.conduit.model.Dataset;
@@ -53,6 +54,27 @@ public interface SourceService {
      */
     List<Map<String, Object>> retrieve(DataContext context) throws ConduitException;
 
+    /**
+     * Stream the source data. Records are read from the source as the stream is consumed, so memory
+     * use does not depend on the size of the source. The returned stream holds the underlying
+     * source open and must be closed (ex. try-with-resources).
+     *
+     * @param context data context
+     * @return records streamed from the source of data
+     * @throws ConduitException
+     */
+    Stream<Map<String, Object>> stream(DataContext context) throws ConduitException;
+
+    /**
+     * Retrieve the source data, handing each record to the given handler as it is read.
+     *
+     * @param context data context
+     * @param handler record handler
+     * @return number of records retrieved
+     * @throws ConduitException
+     */
+    long retrieve(DataContext context, RecordCallbackHandler handler) throws ConduitException;
+
     /**
      * Retrieve the source data.
      *
@@ -71,4 +93,13 @@ public interface SourceService {
      * @throws ConduitException
      */
     void insertDataset(DataContext context, Dataset dataset) throws ConduitException;
+
+    /**
+     * Insert the given records into the given data source.
+     *
+     * @param context
+     * @param records
+     * @throws ConduitException
+     */
+    void insert(DataContext context, List<Map<String, Object>> records) throws ConduitException;
 }
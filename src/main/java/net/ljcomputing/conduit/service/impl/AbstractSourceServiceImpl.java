@@ -20,26 +20,83 @@ James G Willmore - LJ Computing - (C) 2023
 */
 package net.ljcomputing.conduit.service.impl;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import lombok.extern.slf4j.Slf4j;
 import net.ljcomputing.conduit.connector.Connector;
 import net.ljcomputing.conduit.connector.impl.ConnectorFactory;
 import net.ljcomputing.conduit.exception.ConduitException;
+import net.ljcomputing.conduit.exception.ConduitRuntimeException;
+import net.ljcomputing.conduit.io.ByteRange;
+import net.ljcomputing.conduit.io.ChunkedRecordIterator;
+import net.ljcomputing.conduit.io.Compression;
+import net.ljcomputing.conduit.io.FileRangeInputStream;
+import net.ljcomputing.conduit.io.MappedFile;
+import net.ljcomputing.conduit.metrics.ConduitMetrics;
 import net.ljcomputing.conduit.model.ConnectorContext;
 import net.ljcomputing.conduit.model.ConnectorProtocol;
 import net.ljcomputing.conduit.model.DataContext;
+import net.ljcomputing.conduit.model.DataContextProperties;
 import net.ljcomputing.conduit.model.Dataset;
-import net.ljcomputing.conduit.model.DatasetColumnDefinition;
 import net.ljcomputing.conduit.model.DatasetRecord;
-import net.ljcomputing.conduit.model.DatasetRecordColumn;
+import net.ljcomputing.conduit.model.DatasetSchema;
+import net.ljcomputing.conduit.model.SchemaInferrer;
+import net.ljcomputing.conduit.model.columnar.ColumnarDataset;
+import net.ljcomputing.conduit.model.spill.SpillingDataset;
+import net.ljcomputing.conduit.service.RecordCallbackHandler;
 import net.ljcomputing.conduit.service.SourceService;
 import org.springframework.beans.factory.annotation.Autowired;
 
-/** Abstract dataset source service implementation. */
+/**
+ * Abstract dataset source service implementation. Services are singletons called concurrently, so
+ * implementations keep no per-call state in fields; it is held by a {@link
+ * net.ljcomputing.conduit.service.impl.SourceSession session} opened for each call.
+ */
+@Slf4j
 public abstract class AbstractSourceServiceImpl implements SourceService {
+    /** Default size, in bytes, of the chunks a file is split into for parallel parsing. */
+    protected static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+
+    /**
+     * Parses the records of a chunk of a file.
+     *
+     * @param <T> record type
+     */
+    @FunctionalInterface
+    protected interface StreamParser<T> {
+        /**
+         * Parse the records of the given chunk; the stream is closed by the caller.
+         *
+         * @param in
+         * @return
+         * @throws Exception
+         */
+        List<T> parse(InputStream in) throws Exception;
+    }
+
     /** The {@link net.ljcomputing.conduit.connector.impl.ConnectorFactory ConnectorFactory}. */
     @Autowired protected ConnectorFactory connectorFactory;
 
+    /** The metrics recorded; none if not run in an application context. */
+    @Autowired(required = false)
+    protected ConduitMetrics metrics = ConduitMetrics.NONE;
+
     /**
      * Connect to a datasource using the given {@link net.ljcomputing.conduit.model.DataContext
      * context}.
@@ -51,7 +108,285 @@ public abstract class AbstractSourceServiceImpl implements SourceService {
         final String protocol = context.protocolString();
         final ConnectorProtocol connectorProtocol = ConnectorProtocol.findByProtocol(protocol);
         final Connector connector = connectorFactory.locate(connectorProtocol);
-        return connector.connect(context);
+        final long start = System.nanoTime();
+
+        try {
+            return connector.connect(context);
+        } catch (final RuntimeException e) {
+            metrics.connectErrors(connectorProtocol).increment();
+            throw e;
+        } finally {
+            metrics.connect(connectorProtocol)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Open a {@link net.ljcomputing.conduit.service.impl.SourceSession session} for a call using
+     * the given context, connected to its source.
+     *
+     * @param context
+     * @return
+     */
+    protected SourceSession openSession(final DataContext context) {
+        return new SourceSession(context, connect(context));
+    }
+
+    /**
+     * Return true if the given resource should be parsed in parallel chunks; the context's parallel
+     * property is true and the resource is an uncompressed local file.
+     *
+     * @param context
+     * @param connectorContext
+     * @return
+     */
+    protected boolean parallelEligible(
+            final DataContext context, final ConnectorContext connectorContext) {
+        return context.getBooleanProperty(DataContextProperties.PARALLEL, false)
+                && connectorContext.hasFile()
+                && !connectorContext.isCompressed();
+    }
+
+    /**
+     * Return true if the given connection's file should be read from mapped memory; the context's
+     * memory mapped property is true and the resource is a local file.
+     *
+     * @param context
+     * @param connectorContext
+     * @return
+     */
+    protected boolean memoryMapped(
+            final DataContext context, final ConnectorContext connectorContext) {
+        return context.getBooleanProperty(DataContextProperties.MEMORY_MAPPED, false)
+                && connectorContext.hasFile();
+    }
+
+    /**
+     * Open an {@link java.io.InputStream input stream} on the given connection's resource; read
+     * from mapped memory if {@link #memoryMapped memory mapped}. Compressed resources are decoded
+     * as they are read; if the connection does not know the compression, it is detected by the
+     * resource's leading bytes. Bytes read (before decoding) are counted.
+     *
+     * @param context
+     * @param connectorContext
+     * @return
+     * @throws IOException
+     */
+    protected InputStream openInputStream(
+            final DataContext context, final ConnectorContext connectorContext) throws IOException {
+        final InputStream in =
+                memoryMapped(context, connectorContext)
+                        ? MappedFile.openInputStream(connectorContext.getFile())
+                        : connectorContext.getResource().getInputStream();
+        final InputStream counted = metrics.countBytes(sourceType(), in);
+        final Compression compression = connectorContext.getCompression();
+        return compression == null ? Compression.decompress(counted) : compression.decode(counted);
+    }
+
+    /**
+     * Number of records skipped at the start of the source; the context's skip records property
+     * (default: none).
+     *
+     * @param context
+     * @return
+     */
+    protected long skipCount(final DataContext context) {
+        final String value = context.getProperty(DataContextProperties.SKIP_RECORDS);
+        return value.isBlank() ? 0 : Long.parseLong(value.trim());
+    }
+
+    /**
+     * Return true if records should be skipped by seeking past them in the given connection's
+     * resource rather than parsing them; the context's skip records property is set and the
+     * resource is an uncompressed local file.
+     *
+     * @param context
+     * @param connectorContext
+     * @return
+     */
+    protected boolean seekEligible(
+            final DataContext context, final ConnectorContext connectorContext) {
+        return skipCount(context) > 0
+                && connectorContext.hasFile()
+                && !connectorContext.isCompressed();
+    }
+
+    /**
+     * Open an {@link java.io.InputStream input stream} on the given connection's local file from
+     * the given offset. Bytes read are counted.
+     *
+     * @param connectorContext
+     * @param offset
+     * @return
+     * @throws IOException
+     */
+    protected InputStream openInputStream(
+            final ConnectorContext connectorContext, final long offset) throws IOException {
+        final Path file = connectorContext.getFile();
+        return metrics.countBytes(
+                sourceType(),
+                new FileRangeInputStream(file, new ByteRange(offset, Files.size(file))));
+    }
+
+    /**
+     * Skip the context's {@link #skipCount skip count} records of the given stream; the records are
+     * still read, but not returned.
+     *
+     * @param <T>
+     * @param context
+     * @param stream
+     * @return
+     */
+    protected <T> Stream<T> skipRecords(final DataContext context, final Stream<T> stream) {
+        final long count = skipCount(context);
+        return count > 0 ? stream.skip(count) : stream;
+    }
+
+    /**
+     * Stream the records of the given byte ranges, parsed concurrently using the context's
+     * parallelism (default: available processors) and ordered properties.
+     *
+     * @param <T>
+     * @param context
+     * @param ranges
+     * @param parser
+     * @return
+     */
+    protected <T> Stream<T> parallelStream(
+            final DataContext context,
+            final List<ByteRange> ranges,
+            final ChunkedRecordIterator.ChunkParser<T> parser) {
+        final int parallelism =
+                context.getIntProperty(
+                        DataContextProperties.PARALLELISM,
+                        Runtime.getRuntime().availableProcessors());
+        final boolean ordered = context.getBooleanProperty(DataContextProperties.ORDERED, true);
+        log.debug("parsing {} chunks on {} threads", ranges.size(), parallelism);
+
+        final ChunkedRecordIterator<T> it =
+                new ChunkedRecordIterator<>(ranges, parser, parallelism, ordered);
+        return toStream(it, it);
+    }
+
+    /**
+     * Stream the records of the given byte ranges of the given connection's local file, parsed
+     * concurrently by the given reader; see {@link #parallelStream(DataContext, ConnectorContext,
+     * List, StreamParser)}.
+     *
+     * @param context
+     * @param connectorContext
+     * @param ranges
+     * @param reader
+     * @return
+     * @throws IOException
+     */
+    protected Stream<Map<String, Object>> parallelStream(
+            final DataContext context,
+            final ConnectorContext connectorContext,
+            final List<ByteRange> ranges,
+            final ObjectReader reader)
+            throws IOException {
+        return parallelStream(context, connectorContext, ranges, in -> readChunk(reader, in));
+    }
+
+    /**
+     * Stream the records of the given byte ranges of the given connection's local file, parsed
+     * concurrently by the given parser; see {@link #parallelStream(DataContext, List,
+     * ChunkedRecordIterator.ChunkParser)}. Chunks are read from mapped memory if {@link
+     * #memoryMapped memory mapped}.
+     *
+     * @param <T>
+     * @param context
+     * @param connectorContext
+     * @param ranges
+     * @param parser
+     * @return
+     * @throws IOException
+     */
+    protected <T> Stream<T> parallelStream(
+            final DataContext context,
+            final ConnectorContext connectorContext,
+            final List<ByteRange> ranges,
+            final StreamParser<T> parser)
+            throws IOException {
+        final Path file = connectorContext.getFile();
+        final MappedFile mapped =
+                memoryMapped(context, connectorContext) ? new MappedFile(file) : null;
+
+        return parallelStream(
+                        context,
+                        ranges,
+                        range -> {
+                            try (InputStream in =
+                                    metrics.countBytes(
+                                            sourceType(),
+                                            mapped == null
+                                                    ? new FileRangeInputStream(file, range)
+                                                    : mapped.inputStream(range))) {
+                                return parser.parse(in);
+                            }
+                        })
+                .onClose(() -> close(mapped));
+    }
+
+    /**
+     * Parse the records of the given chunk.
+     *
+     * @param reader
+     * @param in
+     * @return
+     * @throws IOException
+     */
+    private static List<Map<String, Object>> readChunk(
+            final ObjectReader reader, final InputStream in) throws IOException {
+        try (MappingIterator<Map<String, Object>> it = reader.readValues(in)) {
+            return it.readAll(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Size, in bytes, of the chunks a file is split into for parallel parsing.
+     *
+     * @param context
+     * @return
+     */
+    protected long chunkSize(final DataContext context) {
+        return context.getIntProperty(DataContextProperties.CHUNK_SIZE, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Wrap the given {@link java.util.Iterator iterator} in a sequential {@link
+     * java.util.stream.Stream stream} that closes the given resource when the stream is closed.
+     *
+     * @param <T>
+     * @param iterator
+     * @param resource
+     * @return
+     */
+    protected static <T> Stream<T> toStream(
+            final Iterator<T> iterator, final AutoCloseable resource) {
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(
+                                iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+                        false)
+                .onClose(() -> close(resource));
+    }
+
+    /**
+     * Close the given resource, if any, rethrowing failures unchecked.
+     *
+     * @param resource
+     */
+    protected static void close(final AutoCloseable resource) {
+        if (resource == null) {
+            return;
+        }
+
+        try {
+            resource.close();
+        } catch (final Exception e) {
+            throw new ConduitRuntimeException(e);
+        }
     }
 
     /**
@@ -62,69 +397,166 @@ public abstract class AbstractSourceServiceImpl implements SourceService {
      * @return
      */
     protected DatasetRecord convertMapToRecord(final Map<String, Object> map) {
-        final DatasetRecord record = new DatasetRecord();
-
-        map.entrySet().stream()
-                .forEach(
-                        el -> {
-                            record.addColumn(new DatasetRecordColumn(el.getKey(), el.getValue()));
-                        });
-        return record;
+        return convertMapToRecord(map, DatasetSchema.of(map.keySet()));
     }
 
     /**
-     * Add {@link net.ljcomputing.conduit.model.DatasetColumnDefinition column definitions} to the
-     * given {@link net.ljcomputing.conduit.model.Dataset dataset} using the given {@link
-     * java.util.Map map}.
+     * Convert the given {@link java.util.Map map} to a {@link
+     * net.ljcomputing.conduit.model.DatasetRecord dataset record} bound to the given shared {@link
+     * net.ljcomputing.conduit.model.DatasetSchema schema}. Keys of the map missing from the schema
+     * are ignored; columns of the schema missing from the map are null.
      *
      * @param map
-     * @param dataset
+     * @param schema
+     * @return
      */
-    protected void addColumnDefinitionsToDataset(
-            final Map<String, Object> map, final Dataset dataset) {
-        final AtomicInteger count = new AtomicInteger(0);
+    protected DatasetRecord convertMapToRecord(
+            final Map<String, Object> map, final DatasetSchema schema) {
+        final Object[] values = new Object[schema.size()];
+
+        for (final Map.Entry<String, Object> el : map.entrySet()) {
+            final int ordinal = schema.indexOf(el.getKey());
+
+            if (ordinal >= 0) {
+                values[ordinal] = el.getValue();
+            }
+        }
 
-        map.entrySet().stream()
-                .forEach(
-                        el -> {
-                            dataset.addColumnDefinition(
-                                    new DatasetColumnDefinition(
-                                            el.getKey(),
-                                            el.getValue().getClass(),
-                                            count.incrementAndGet()));
-                        });
+        return new DatasetRecord(schema, values);
     }
 
     /**
-     * Add the given {@link java.util.Map map} to the given {@link
-     * net.ljcomputing.conduit.model.Dataset dataset}
+     * Add the given records to the given {@link net.ljcomputing.conduit.model.Dataset dataset},
+     * inferring its column definitions with the given {@link
+     * net.ljcomputing.conduit.model.SchemaInferrer inferrer}. Column definitions are added as new
+     * columns are seen, and replaced with their widened types once every record is added.
      *
-     * @param map
+     * @param records
      * @param dataset
+     * @param inferrer
      */
-    protected void addMapToDataset(final Map<String, Object> map, final Dataset dataset) {
-        dataset.addRecord(convertMapToRecord(map));
-        addColumnDefinitionsToDataset(map, dataset);
+    protected void addRecordsToDataset(
+            final Iterator<Map<String, Object>> records,
+            final Dataset dataset,
+            final SchemaInferrer inferrer) {
+        records.forEachRemaining(
+                row -> {
+                    inferrer.observe(row);
+
+                    if (inferrer.size() > dataset.getColumnDefinitions().size()) {
+                        inferrer.getColumnDefinitions().forEach(dataset::addColumnDefinition);
+                    }
+
+                    dataset.addRecord(convertMapToRecord(row, dataset.getSchema()));
+                });
+
+        inferrer.getColumnDefinitions().forEach(dataset::replaceColumnDefinition);
+    }
+
+    /**
+     * Create the {@link net.ljcomputing.conduit.model.SchemaInferrer schema inferrer} of the given
+     * context, using its schema sample size property (default: every record).
+     *
+     * @param context
+     * @return
+     */
+    protected SchemaInferrer createSchemaInferrer(final DataContext context) {
+        return new SchemaInferrer(
+                context.getIntProperty(
+                        DataContextProperties.SCHEMA_SAMPLE_SIZE, SchemaInferrer.ALL));
+    }
+
+    /**
+     * Create the {@link net.ljcomputing.conduit.model.Dataset dataset} records are retrieved into;
+     * a {@link net.ljcomputing.conduit.model.columnar.ColumnarDataset columnar dataset} if the
+     * given context's columnar property is true, otherwise a {@link
+     * net.ljcomputing.conduit.model.spill.SpillingDataset spilling dataset} if its memory budget
+     * property is set (spilled to its spill directory property, default: the system temp
+     * directory). The caller closes a spilling dataset to delete its files.
+     *
+     * @param context
+     * @return
+     */
+    protected Dataset createDataset(final DataContext context) {
+        if (context.getBooleanProperty(DataContextProperties.COLUMNAR, false)) {
+            return new ColumnarDataset();
+        }
+
+        final long memoryBudget = context.getSizeProperty(DataContextProperties.MEMORY_BUDGET, 0);
+
+        if (memoryBudget > 0) {
+            final String directory = context.getProperty(DataContextProperties.SPILL_DIRECTORY);
+            return new SpillingDataset(
+                    memoryBudget, directory.isBlank() ? null : Paths.get(directory));
+        }
+
+        return new Dataset();
     }
 
     /** {@inheritDoc} */
     @Override
-    public Dataset retrieveDataset(final DataContext context) throws ConduitException {
-        try {
-            final Dataset dataset = new Dataset();
+    public List<Map<String, Object>> retrieve(final DataContext context) throws ConduitException {
+        try (Stream<Map<String, Object>> records = stream(context)) {
+            return records.collect(Collectors.toList());
+        } catch (final Exception e) {
+            throw new ConduitException(e);
+        }
+    }
 
-            retrieve(context)
-                    .forEach(
-                            row -> {
-                                addMapToDataset(row, dataset);
-                            });
+    /** {@inheritDoc} */
+    @Override
+    public long retrieve(final DataContext context, final RecordCallbackHandler handler)
+            throws ConduitException {
+        try (Stream<Map<String, Object>> records = stream(context)) {
+            final AtomicLong count = new AtomicLong();
 
+            records.forEach(
+                    row -> {
+                        handler.processRecord(row);
+                        count.incrementAndGet();
+                    });
+
+            return count.get();
+        } catch (final Exception e) {
+            throw new ConduitException(e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Dataset retrieveDataset(final DataContext context) throws ConduitException {
+        final Dataset dataset = createDataset(context);
+
+        try (Stream<Map<String, Object>> records = stream(context)) {
+            addRecordsToDataset(records.iterator(), dataset, createSchemaInferrer(context));
             return dataset;
         } catch (final Exception e) {
+            if (dataset instanceof SpillingDataset) {
+                try {
+                    ((SpillingDataset) dataset).close();
+                } catch (final RuntimeException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+
             throw new ConduitException(e);
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The records are collected into a {@link net.ljcomputing.conduit.model.Dataset dataset}
+     * which is {@link #insertDataset inserted}.
+     */
+    @Override
+    public void insert(final DataContext context, final List<Map<String, Object>> records)
+            throws ConduitException {
+        final Dataset dataset = new Dataset();
+        addRecordsToDataset(records.iterator(), dataset, createSchemaInferrer(context));
+        insertDataset(context, dataset);
+    }
+
     @Override
     public void insertDataset(final DataContext context, final Dataset dataset)
             throws ConduitException {
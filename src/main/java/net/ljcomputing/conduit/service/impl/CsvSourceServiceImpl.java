@@ -21,28 +21,67 @@ James G Willmore - LJ Computing - (C) 2023
 package net.ljcomputing.conduit.service.impl;
 
 import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
+import net.ljcomputing.conduit.csv.CsvFieldType;
+import net.ljcomputing.conduit.csv.TypedCsvRecordIterator;
 import net.ljcomputing.conduit.exception.ConduitException;
+import net.ljcomputing.conduit.io.ByteRange;
+import net.ljcomputing.conduit.io.FileRangeInputStream;
+import net.ljcomputing.conduit.io.FileSplitter;
 import net.ljcomputing.conduit.model.ConnectorContext;
 import net.ljcomputing.conduit.model.DataContext;
 import net.ljcomputing.conduit.model.DataContextProperties;
 import net.ljcomputing.conduit.model.SourceType;
-import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
-/** CSV Source Service Implementation. */
+/**
+ * CSV Source Service Implementation. The mapper and the compiled schemas and readers are shared by
+ * concurrent calls; per-call state is held by a {@link CsvSession session}.
+ */
 @Service("csv")
 @Slf4j
 public class CsvSourceServiceImpl extends AbstractSourceServiceImpl {
-    private CsvSchema schema;
-    private CsvMapper mapper;
-    private Resource resource;
+    /** Default number of records column types are inferred from. */
+    public static final int DEFAULT_TYPE_SAMPLE_SIZE = 1000;
+
+    /** The mapper; thread safe once configured. */
+    private final CsvMapper mapper = new CsvMapper();
+
+    /** Compiled schemas by columns and delimiter. */
+    private final Map<String, CsvSchema> schemas = new ConcurrentHashMap<>();
+
+    /** Record readers by columns and delimiter. */
+    private final Map<String, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    /** {@link net.ljcomputing.conduit.service.impl.SourceSession Session} of a CSV call. */
+    private static final class CsvSession extends SourceSession {
+        /** The schema of the context's columns and delimiter. */
+        private final CsvSchema schema;
+
+        /** Record reader of the schema. */
+        private final ObjectReader reader;
+
+        CsvSession(final SourceSession session, final CsvSchema schema, final ObjectReader reader) {
+            super(session.getContext(), session.getConnectorContext());
+            this.schema = schema;
+            this.reader = reader;
+        }
+    }
 
     /** {@inheritDoc} */
     @Override
@@ -50,9 +89,54 @@ public class CsvSourceServiceImpl extends AbstractSourceServiceImpl {
         return SourceType.CSV;
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Compiles the schema of the context's columns and delimiter properties, if not compiled
+     * yet.
+     */
     @Override
     public void init(final DataContext context) {
+        schema(context);
+    }
+
+    /**
+     * The schema of the context's columns (or a header record if not set) and delimiter properties;
+     * compiled once per distinct columns and delimiter.
+     *
+     * @param context
+     * @return
+     */
+    private CsvSchema schema(final DataContext context) {
+        return schemas.computeIfAbsent(schemaKey(context), key -> compileSchema(context));
+    }
+
+    /**
+     * The record reader of the context's {@link #schema schema}.
+     *
+     * @param context
+     * @return
+     */
+    private ObjectReader reader(final DataContext context) {
+        return readers.computeIfAbsent(
+                schemaKey(context), key -> mapper.readerFor(Map.class).with(schema(context)));
+    }
+
+    /**
+     * Key of the context's schema: its columns and delimiter properties.
+     *
+     * @param context
+     * @return
+     */
+    private String schemaKey(final DataContext context) {
+        return context.getProperty(DataContextProperties.DELIMITER, ",")
+                + "|"
+                + (columnsPropertyPresent(context) ? String.join(",", getColumns(context)) : "");
+    }
+
+    private CsvSchema compileSchema(final DataContext context) {
+        CsvSchema schema;
+
         if (columnsPropertyPresent(context)) {
             final String[] columns = getColumns(context);
             CsvSchema.Builder builder = CsvSchema.builder();
@@ -68,7 +152,7 @@ public class CsvSourceServiceImpl extends AbstractSourceServiceImpl {
 
         final char columnSeparator =
                 context.getProperty(DataContextProperties.DELIMITER, ",").toCharArray()[0];
-        schema = schema.withColumnSeparator(columnSeparator);
+        return schema.withColumnSeparator(columnSeparator);
     }
 
     private boolean columnsPropertyPresent(final DataContext context) {
@@ -83,30 +167,257 @@ public class CsvSourceServiceImpl extends AbstractSourceServiceImpl {
         return columns;
     }
 
-    private void loadResource(final DataContext context) {
-        final ConnectorContext connectorContext = connect(context);
-        this.resource = connectorContext.getResource();
+    /**
+     * Return true if fields should be parsed into typed values; the context's typed property is
+     * true or its column types property is set.
+     *
+     * @param context
+     * @return
+     */
+    private boolean typed(final DataContext context) {
+        return context.getBooleanProperty(DataContextProperties.TYPED, false)
+                || !context.getProperty(DataContextProperties.COLUMN_TYPES).isBlank();
     }
 
-    /** {@inheritDoc} */
+    /**
+     * The declared column types; entries of the column types property are either name:type pairs
+     * or, alongside the columns property, types in column order.
+     *
+     * @param context
+     * @return
+     */
+    private Map<String, CsvFieldType> declaredTypes(final DataContext context) {
+        final Map<String, CsvFieldType> result = new HashMap<>();
+        final String property = context.getProperty(DataContextProperties.COLUMN_TYPES);
+
+        if (property.isBlank()) {
+            return result;
+        }
+
+        final String[] entries = property.split(",");
+        final String[] columns = columnsPropertyPresent(context) ? getColumns(context) : null;
+
+        for (int index = 0; index < entries.length; index++) {
+            final String entry = entries[index].trim();
+            final int separator = entry.indexOf(':');
+
+            if (separator > 0) {
+                result.put(
+                        entry.substring(0, separator).trim(),
+                        CsvFieldType.findByType(entry.substring(separator + 1)));
+            } else if (columns != null && index < columns.length) {
+                result.put(columns[index], CsvFieldType.findByType(entry));
+            } else {
+                throw new IllegalArgumentException("column type " + entry + " has no column name");
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Open a typed iterator over the given stream.
+     *
+     * @param in
+     * @param csvSchema
+     * @param types declared types by column name
+     * @param sampleSize number of records types of undeclared columns are inferred from
+     * @return
+     * @throws IOException
+     */
+    private TypedCsvRecordIterator typedIterator(
+            final InputStream in,
+            final CsvSchema csvSchema,
+            final Map<String, CsvFieldType> types,
+            final int sampleSize)
+            throws IOException {
+        final CsvParser parser = mapper.getFactory().createParser(in);
+        parser.setSchema(csvSchema);
+        return new TypedCsvRecordIterator(parser, types, sampleSize);
+    }
+
+    /**
+     * Open a session for a call using the given context.
+     *
+     * @param context
+     * @return
+     */
+    private CsvSession openCsvSession(final DataContext context) {
+        return new CsvSession(openSession(context), schema(context), reader(context));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If the context's parallel property is true and the resource is a local file, the file is
+     * split into chunks on record boundaries which are parsed concurrently. If the context's memory
+     * mapped property is true and the resource is a local file, the file is parsed from mapped
+     * memory.
+     *
+     * <p>If the context's typed property is true or its column types property is set, fields are
+     * parsed into typed values (int, long, decimal, boolean, date, timestamp or string). Columns
+     * without a declared type are inferred from the first schema sample size records (default:
+     * {@value #DEFAULT_TYPE_SAMPLE_SIZE}).
+     *
+     * <p>If the context's skip records property is set, that many records are skipped; if the
+     * resource is an uncompressed local file, the stream starts past them without parsing them.
+     */
     @Override
-    public List<Map<String, Object>> retrieve(final DataContext context) throws ConduitException {
+    public Stream<Map<String, Object>> stream(final DataContext context) throws ConduitException {
         try {
-            init(context);
-            loadResource(context);
-            mapper = new CsvMapper();
-            final List<Map<String, Object>> records = new ArrayList<>();
-            MappingIterator<Map<String, Object>> it =
-                    mapper.readerFor(Map.class).with(schema).readValues(resource.getInputStream());
-            while (it.hasNext()) {
-                final Map<String, Object> rowAsMap = it.next();
-                log.debug("row: {}", rowAsMap);
-                records.add(rowAsMap);
+            final CsvSession session = openCsvSession(context);
+            final ConnectorContext connectorContext = session.getConnectorContext();
+
+            if (parallelEligible(context, connectorContext)) {
+                return parallelStream(session, connectorContext.getFile());
+            }
+
+            if (seekEligible(context, connectorContext)) {
+                return seekStream(session);
             }
 
-            return records;
+            if (typed(context)) {
+                final TypedCsvRecordIterator it =
+                        typedIterator(
+                                openInputStream(context, connectorContext),
+                                session.schema,
+                                declaredTypes(context),
+                                context.getIntProperty(
+                                        DataContextProperties.SCHEMA_SAMPLE_SIZE,
+                                        DEFAULT_TYPE_SAMPLE_SIZE));
+                return skipRecords(context, toStream(it, it));
+            }
+
+            final MappingIterator<Map<String, Object>> it =
+                    session.reader.readValues(openInputStream(context, connectorContext));
+            return skipRecords(context, toStream(it, it))
+                    .peek(rowAsMap -> log.debug("row: {}", rowAsMap));
         } catch (final Exception e) {
             throw new ConduitException(e);
         }
     }
+
+    /**
+     * Stream the records of the session's local file after the context's {@link #skipCount skip
+     * count}, seeking past the skipped records instead of parsing them. The header, if the schema
+     * uses one, is parsed first so the records are read with its columns.
+     *
+     * @param session
+     * @return
+     * @throws IOException
+     */
+    private Stream<Map<String, Object>> seekStream(final CsvSession session) throws IOException {
+        final DataContext context = session.getContext();
+        final Path file = session.getConnectorContext().getFile();
+        final int quote = session.schema.getQuoteChar();
+        CsvSchema dataSchema = session.schema;
+        long start = 0;
+
+        if (dataSchema.usesHeader()) {
+            start = FileSplitter.recordEnd(file, 0, quote);
+            dataSchema = readHeader(session, new ByteRange(0, start)).withoutHeader();
+        }
+
+        final long offset = FileSplitter.skipRecords(file, start, skipCount(context), quote);
+        log.debug("skipped {} records of {} to offset {}", skipCount(context), file, offset);
+        final InputStream in = openInputStream(session.getConnectorContext(), offset);
+
+        if (typed(context)) {
+            final TypedCsvRecordIterator it =
+                    typedIterator(
+                            in,
+                            dataSchema,
+                            declaredTypes(context),
+                            context.getIntProperty(
+                                    DataContextProperties.SCHEMA_SAMPLE_SIZE,
+                                    DEFAULT_TYPE_SAMPLE_SIZE));
+            return toStream(it, it);
+        }
+
+        final MappingIterator<Map<String, Object>> it =
+                mapper.readerFor(Map.class).with(dataSchema).readValues(in);
+        return toStream(it, it);
+    }
+
+    /**
+     * Stream the given file by parsing chunks of it concurrently. The header, if the schema uses
+     * one, is parsed first so every chunk is read with the same columns. If typed, column types are
+     * inferred from the start of the file first so every chunk is read with the same types.
+     *
+     * @param session
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    private Stream<Map<String, Object>> parallelStream(final CsvSession session, final Path file)
+            throws IOException {
+        final DataContext context = session.getContext();
+        final ConnectorContext connectorContext = session.getConnectorContext();
+        final CsvSchema schema = session.schema;
+        final int quote = schema.getQuoteChar();
+        CsvSchema chunkSchema = schema;
+        long dataStart = 0;
+
+        if (schema.usesHeader()) {
+            dataStart = FileSplitter.recordEnd(file, 0, quote);
+            chunkSchema = readHeader(session, new ByteRange(0, dataStart)).withoutHeader();
+        }
+
+        dataStart = FileSplitter.skipRecords(file, dataStart, skipCount(context), quote);
+
+        final List<ByteRange> ranges =
+                FileSplitter.splitRecords(file, dataStart, chunkSize(context), quote);
+
+        if (typed(context)) {
+            final Map<String, CsvFieldType> types;
+
+            try (TypedCsvRecordIterator it =
+                    typedIterator(
+                            new FileRangeInputStream(file, new ByteRange(0, Files.size(file))),
+                            schema,
+                            declaredTypes(context),
+                            context.getIntProperty(
+                                    DataContextProperties.SCHEMA_SAMPLE_SIZE,
+                                    DEFAULT_TYPE_SAMPLE_SIZE))) {
+                types = it.resolveTypes();
+            }
+
+            final CsvSchema typedSchema = chunkSchema;
+
+            return parallelStream(
+                    context,
+                    connectorContext,
+                    ranges,
+                    in -> {
+                        final List<Map<String, Object>> records = new ArrayList<>();
+
+                        try (TypedCsvRecordIterator it = typedIterator(in, typedSchema, types, 0)) {
+                            it.forEachRemaining(records::add);
+                        }
+
+                        return records;
+                    });
+        }
+
+        return parallelStream(
+                context, connectorContext, ranges, mapper.readerFor(Map.class).with(chunkSchema));
+    }
+
+    /**
+     * Parse the header record in the given range into a schema.
+     *
+     * @param session
+     * @param range
+     * @return
+     * @throws IOException
+     */
+    private CsvSchema readHeader(final CsvSession session, final ByteRange range)
+            throws IOException {
+        try (InputStream in =
+                        new FileRangeInputStream(session.getConnectorContext().getFile(), range);
+                MappingIterator<Map<String, Object>> it = session.reader.readValues(in)) {
+            it.hasNext();
+            return (CsvSchema) it.getParser().getSchema();
+        }
+    }
 }
@@ -20,84 +20,443 @@ James G Willmore - LJ Computing - (C) 2023
 */
 package net.ljcomputing.conduit.service.impl;
 
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 import javax.sql.DataSource;
 import lombok.extern.slf4j.Slf4j;
 import net.ljcomputing.conduit.exception.ConduitException;
-import net.ljcomputing.conduit.model.ConnectorContext;
+import net.ljcomputing.conduit.jdbc.JdbcBatchWriter;
+import net.ljcomputing.conduit.jdbc.JdbcBulkLoader;
+import net.ljcomputing.conduit.jdbc.JdbcCursorReader;
+import net.ljcomputing.conduit.jdbc.JdbcParallelWriter;
+import net.ljcomputing.conduit.jdbc.JdbcPartitionedReader;
+import net.ljcomputing.conduit.jdbc.JdbcWriteException;
+import net.ljcomputing.conduit.jdbc.JdbcWriteResult;
+import net.ljcomputing.conduit.jdbc.PartitionedRecordIterator;
+import net.ljcomputing.conduit.jdbc.ResultSetRecordIterator;
 import net.ljcomputing.conduit.model.DataContext;
 import net.ljcomputing.conduit.model.DataContextProperties;
 import net.ljcomputing.conduit.model.Dataset;
+import net.ljcomputing.conduit.model.LoadMode;
 import net.ljcomputing.conduit.model.SourceType;
+import net.ljcomputing.conduit.service.RecordCallbackHandler;
 import net.ljcomputing.conduit.utils.SqlStatementUtils;
-import org.springframework.jdbc.core.JdbcTemplate;
+import net.ljcomputing.conduit.utils.SqlValueUtils;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
 import org.springframework.stereotype.Service;
 
-/** JDBC Source Service Implementation. */
+/**
+ * JDBC Source Service Implementation. Data sources are pooled by the connector and shared by
+ * concurrent calls; each call takes its data source from its own {@link
+ * net.ljcomputing.conduit.service.impl.SourceSession session}.
+ */
 @Service("jdbc")
 @Slf4j
 public class JdbcSourceServiceImpl extends AbstractSourceServiceImpl {
-    private DataSource dataSource;
-
     /** {@inheritDoc} */
     @Override
     public SourceType sourceType() {
         return SourceType.JDBC;
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Connects to the context's data source, creating its pool if not created yet.
+     */
     @Override
     public void init(final DataContext context) {
-        final ConnectorContext connectorContext = connect(context);
-        this.dataSource = connectorContext.getDataSource();
+        openSession(context);
     }
 
-    /** {@inheritDoc} */
+    /**
+     * The data source of a new session using the given context.
+     *
+     * @param context
+     * @return
+     */
+    private DataSource dataSource(final DataContext context) {
+        return openSession(context).getConnectorContext().getDataSource();
+    }
+
+    /**
+     * A cursor reader of the given data source using the context's fetch size.
+     *
+     * @param context
+     * @param dataSource
+     * @return
+     */
+    private JdbcCursorReader cursorReader(final DataContext context, final DataSource dataSource) {
+        return new JdbcCursorReader(
+                dataSource,
+                context.getIntProperty(
+                        DataContextProperties.FETCH_SIZE, JdbcCursorReader.DEFAULT_FETCH_SIZE));
+    }
+
+    /**
+     * Return true if the context's watermark column and value properties are set.
+     *
+     * @param context
+     * @return
+     */
+    private boolean incremental(final DataContext context) {
+        return !context.getProperty(DataContextProperties.WATERMARK_COLUMN).isBlank()
+                && !context.getProperty(DataContextProperties.WATERMARK_VALUE).isBlank();
+    }
+
+    /**
+     * Return true if the context's checkpoint column property is set.
+     *
+     * @param context
+     * @return
+     */
+    private boolean checkpointed(final DataContext context) {
+        return !context.getProperty(DataContextProperties.CHECKPOINT_COLUMN).isBlank();
+    }
+
+    /**
+     * The context's query; restricted to rows past the watermark value if {@link #incremental
+     * incremental}, and ordered by the checkpoint column from the checkpoint value if {@link
+     * #checkpointed checkpointed}.
+     *
+     * @param context
+     * @return
+     */
+    private String query(final DataContext context) {
+        String query = context.getQuery();
+
+        if (incremental(context)) {
+            query =
+                    SqlStatementUtils.buildWatermarkQuery(
+                            query, context.getProperty(DataContextProperties.WATERMARK_COLUMN));
+        }
+
+        if (checkpointed(context)) {
+            query =
+                    SqlStatementUtils.buildCheckpointQuery(
+                            query,
+                            context.getProperty(DataContextProperties.CHECKPOINT_COLUMN).trim(),
+                            !context.getProperty(DataContextProperties.CHECKPOINT_VALUE).isBlank());
+        }
+
+        return query;
+    }
+
+    /**
+     * The positional parameters of the context's {@link #query query}.
+     *
+     * @param context
+     * @return
+     */
+    private Object[] queryParameters(final DataContext context) {
+        final List<Object> parameters = new ArrayList<>(2);
+
+        if (incremental(context)) {
+            parameters.add(
+                    SqlValueUtils.parse(
+                            context.getProperty(DataContextProperties.WATERMARK_VALUE)));
+        }
+
+        if (checkpointed(context)
+                && !context.getProperty(DataContextProperties.CHECKPOINT_VALUE).isBlank()) {
+            parameters.add(
+                    SqlValueUtils.parse(
+                            context.getProperty(DataContextProperties.CHECKPOINT_VALUE)));
+        }
+
+        return parameters.toArray();
+    }
+
+    /**
+     * Maximum number of connections of the given data source's pool; 0 if it is not a HikariCP
+     * pool.
+     *
+     * @param dataSource
+     * @return
+     */
+    private int maxConnections(final DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class)
+                    ? dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize()
+                    : 0;
+        } catch (final SQLException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Return true if the context's partition column property is set.
+     *
+     * @param context
+     * @return
+     */
+    private boolean partitioned(final DataContext context) {
+        return !context.getProperty(DataContextProperties.PARTITION_COLUMN).isBlank();
+    }
+
+    /**
+     * A partitioned reader of the given data source using the context's partition column, count and
+     * bounds, parallelism and fetch size. By default there is a partition per processor, read at
+     * once up to the maximum size of the pool (see {@link
+     * net.ljcomputing.conduit.model.DataContextProperties#POOL_MAX_SIZE pool_max_size}).
+     *
+     * @param context
+     * @param dataSource
+     * @return
+     */
+    private JdbcPartitionedReader partitionedReader(
+            final DataContext context, final DataSource dataSource) {
+        final String lowerBound = context.getProperty(DataContextProperties.PARTITION_LOWER_BOUND);
+        final String upperBound = context.getProperty(DataContextProperties.PARTITION_UPPER_BOUND);
+
+        return JdbcPartitionedReader.builder()
+                .dataSource(dataSource)
+                .query(query(context))
+                .parameters(queryParameters(context))
+                .column(context.getProperty(DataContextProperties.PARTITION_COLUMN))
+                .partitionCount(
+                        context.getIntProperty(
+                                DataContextProperties.PARTITION_COUNT,
+                                Runtime.getRuntime().availableProcessors()))
+                .lowerBound(lowerBound.isBlank() ? null : SqlValueUtils.parse(lowerBound))
+                .upperBound(upperBound.isBlank() ? null : SqlValueUtils.parse(upperBound))
+                .parallelism(context.getIntProperty(DataContextProperties.PARALLELISM, 0))
+                .maxConnections(maxConnections(dataSource))
+                .fetchSize(
+                        context.getIntProperty(
+                                DataContextProperties.FETCH_SIZE,
+                                JdbcCursorReader.DEFAULT_FETCH_SIZE))
+                .build();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If the context's partition column property is set, the query is split into range bounded
+     * queries over that column which are read concurrently on pooled connections; rows of different
+     * partitions are interleaved.
+     *
+     * <p>If the context's skip records property is set, that many rows are read but skipped; to
+     * resume past a key instead, use the watermark column and value properties.
+     */
     @Override
-    public List<Map<String, Object>> retrieve(final DataContext context) throws ConduitException {
+    public Stream<Map<String, Object>> stream(final DataContext context) throws ConduitException {
         try {
-            init(context);
-            final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
-            return jdbcTemplate.queryForList(context.getQuery());
+            final DataSource dataSource = dataSource(context);
+
+            if (partitioned(context)) {
+                final PartitionedRecordIterator it = partitionedReader(context, dataSource).open();
+                return skipRecords(context, toStream(it, it));
+            }
+
+            final ResultSetRecordIterator it =
+                    cursorReader(context, dataSource)
+                            .open(query(context), queryParameters(context));
+            return skipRecords(context, toStream(it, it));
         } catch (final Exception e) {
             throw new ConduitException(e);
         }
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Rows are read on a forward only cursor using the context's fetch size and mapped as they
+     * arrive, so memory use does not depend on the size of the result. Partitioned queries are read
+     * as a {@link #stream stream}, as are queries with rows to skip.
+     */
     @Override
-    public void insertDataset(final DataContext context, final Dataset dataset)
+    public long retrieve(final DataContext context, final RecordCallbackHandler handler)
             throws ConduitException {
+        if (partitioned(context) || skipCount(context) > 0) {
+            return super.retrieve(context, handler);
+        }
+
         try {
-            init(context);
+            final DataSource dataSource = dataSource(context);
+            final ColumnMapRowMapper rowMapper = new ColumnMapRowMapper();
+            final AtomicInteger rowNum = new AtomicInteger();
 
+            return cursorReader(context, dataSource)
+                    .read(
+                            query(context),
+                            rs ->
+                                    handler.processRecord(
+                                            rowMapper.mapRow(rs, rowNum.getAndIncrement())),
+                            queryParameters(context));
+        } catch (final Exception e) {
+            throw new ConduitException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Records are written in batches by a {@link net.ljcomputing.conduit.jdbc.JdbcBatchWriter
+     * JdbcBatchWriter} using positional parameters bound by each column definition's type. If the
+     * context's load mode property is bulk, records are loaded by a {@link
+     * net.ljcomputing.conduit.jdbc.JdbcBulkLoader JdbcBulkLoader} instead (ex. PostgreSQL copy).
+     *
+     * <p>If the context's key columns property is set (comma separated), records are upserted on
+     * those columns using the database's {@link net.ljcomputing.conduit.jdbc.SqlDialect dialect}
+     * (ex. insert on conflict for PostgreSQL, merge for HSQLDB), so reloads do not duplicate rows.
+     *
+     * <p>If the context's load mode property is parallel, records are split into chunks of the
+     * chunk rows property (default: the commit interval) written concurrently by a {@link
+     * net.ljcomputing.conduit.jdbc.JdbcParallelWriter JdbcParallelWriter} on parallelism pooled
+     * connections (default: {@value JdbcParallelWriter#DEFAULT_PARALLELISM}). Failed chunks do not
+     * stop the others; once every chunk is attempted, a {@link
+     * net.ljcomputing.conduit.jdbc.JdbcWriteException JdbcWriteException} reports the failed chunks
+     * and their records.
+     */
+    @Override
+    public void insertDataset(final DataContext context, final Dataset dataset)
+            throws ConduitException {
+        try {
+            final DataSource dataSource = dataSource(context);
             final String table = context.getProperty(DataContextProperties.TARGET_TABLE);
 
-            final boolean useBindVariables =
-                    Boolean.getBoolean(
-                            context.getProperty(DataContextProperties.USE_BIND_VARIABLES, "true"));
-
-            final String sql =
-                    SqlStatementUtils.buildInsertStatement(
-                            table, dataset.getColumnDefinitions(), useBindVariables, "id");
-            final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
-
-            dataset.getRecords().stream()
-                    .forEach(
-                            r -> {
-                                log.debug("record: {}", r.getColumns());
-                                log.debug(
-                                        "{} {}",
-                                        r.getColumns().get(1).getValue(),
-                                        r.getColumns().get(2).getValue());
-                                jdbcTemplate.update(
-                                        sql,
-                                        r.getColumns().get(1).getValue(),
-                                        r.getColumns().get(2).getValue());
-                            });
+            if (loadMode(context) == LoadMode.BULK) {
+                final long rows =
+                        JdbcBulkLoader.builder()
+                                .dataSource(dataSource)
+                                .table(table)
+                                .columnDefinitions(dataset.getColumnDefinitions())
+                                .excludedColumns(excludedColumns(context))
+                                .keyColumns(keyColumns(context))
+                                .batchSize(
+                                        context.getIntProperty(
+                                                DataContextProperties.BATCH_SIZE,
+                                                JdbcBatchWriter.DEFAULT_BATCH_SIZE))
+                                .commitInterval(
+                                        context.getIntProperty(
+                                                DataContextProperties.COMMIT_INTERVAL,
+                                                JdbcBatchWriter.DEFAULT_COMMIT_INTERVAL))
+                                .batchListener(metrics.batchListener(sourceType()))
+                                .build()
+                                .load(dataset.getRecords());
+                log.debug("bulk loaded {} rows into {}", rows, table);
+                return;
+            }
+
+            final JdbcBatchWriter writer =
+                    JdbcBatchWriter.builder()
+                            .dataSource(dataSource)
+                            .table(table)
+                            .columnDefinitions(dataset.getColumnDefinitions())
+                            .excludedColumns(excludedColumns(context))
+                            .keyColumns(keyColumns(context))
+                            .batchSize(
+                                    context.getIntProperty(
+                                            DataContextProperties.BATCH_SIZE,
+                                            JdbcBatchWriter.DEFAULT_BATCH_SIZE))
+                            .commitInterval(
+                                    context.getIntProperty(
+                                            DataContextProperties.COMMIT_INTERVAL,
+                                            JdbcBatchWriter.DEFAULT_COMMIT_INTERVAL))
+                            .multiRowValues(
+                                    context.getBooleanProperty(
+                                            DataContextProperties.MULTI_ROW_VALUES, false))
+                            .batchListener(metrics.batchListener(sourceType()))
+                            .build();
+
+            if (loadMode(context) == LoadMode.PARALLEL) {
+                final int commitInterval =
+                        context.getIntProperty(
+                                DataContextProperties.COMMIT_INTERVAL,
+                                JdbcBatchWriter.DEFAULT_COMMIT_INTERVAL);
+                final JdbcWriteResult result =
+                        JdbcParallelWriter.builder()
+                                .writer(writer)
+                                .parallelism(
+                                        context.getIntProperty(
+                                                DataContextProperties.PARALLELISM,
+                                                JdbcParallelWriter.DEFAULT_PARALLELISM))
+                                .chunkSize(
+                                        context.getIntProperty(
+                                                DataContextProperties.CHUNK_ROWS, commitInterval))
+                                .build()
+                                .write(dataset.getRecords());
+
+                if (!result.isSuccessful()) {
+                    throw new JdbcWriteException(table, result);
+                }
+
+                log.debug(
+                        "inserted {} rows into {} in {} chunks",
+                        result.getRowsWritten(),
+                        table,
+                        result.getChunks());
+                return;
+            }
+
+            final long rows = writer.write(dataset.getRecords());
+            log.debug("inserted {} rows into {}", rows, table);
+        } catch (final ConduitException e) {
+            throw e;
         } catch (final Exception e) {
             throw new ConduitException(e);
         }
     }
+
+    /**
+     * The context's load mode; defaults to insert.
+     *
+     * @param context
+     * @return
+     * @throws ConduitException
+     */
+    private LoadMode loadMode(final DataContext context) throws ConduitException {
+        final String property =
+                context.getProperty(DataContextProperties.LOAD_MODE, LoadMode.INSERT.mode());
+        final LoadMode mode = LoadMode.findByMode(property);
+
+        if (mode == null) {
+            throw new ConduitException("unsupported load mode: " + property);
+        }
+
+        return mode;
+    }
+
+    /**
+     * The columns records are upserted on (comma separated); none by default.
+     *
+     * @param context
+     * @return
+     */
+    private String[] keyColumns(final DataContext context) {
+        return splitColumns(context.getProperty(DataContextProperties.KEY_COLUMNS));
+    }
+
+    /**
+     * The columns not inserted (comma separated); defaults to id.
+     *
+     * @param context
+     * @return
+     */
+    private String[] excludedColumns(final DataContext context) {
+        return splitColumns(context.getProperty(DataContextProperties.EXCLUDED_COLUMNS, "id"));
+    }
+
+    /**
+     * Split the given comma separated column names.
+     *
+     * @param property
+     * @return
+     */
+    private static String[] splitColumns(final String property) {
+        if (property.isBlank()) {
+            return new String[0];
+        }
+
+        final String[] columns = property.split(",");
+        Arrays.setAll(columns, (i) -> columns[i].trim());
+        return columns;
+    }
 }
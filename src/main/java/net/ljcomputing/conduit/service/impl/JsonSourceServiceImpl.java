@@ -20,22 +20,28 @@ James G Willmore - LJ Computing - (C) 2023
 */
 package net.ljcomputing.conduit.service.impl;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import java.util.List;
+import com.fasterxml.jackson.databind.ObjectReader;
 import java.util.Map;
+import java.util.stream.Stream;
 import net.ljcomputing.conduit.exception.ConduitException;
+import net.ljcomputing.conduit.io.JsonRecordIterator;
 import net.ljcomputing.conduit.model.ConnectorContext;
 import net.ljcomputing.conduit.model.DataContext;
+import net.ljcomputing.conduit.model.DataContextProperties;
 import net.ljcomputing.conduit.model.SourceType;
-import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
-/** CSV Source Service Implementation. */
+/** JSON Source Service Implementation. */
 @Service("json")
 public class JsonSourceServiceImpl extends AbstractSourceServiceImpl {
-    private ObjectMapper mapper;
-    private Resource resource;
+    /** The mapper; thread safe once configured. */
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /** Record reader; immutable, so shared by concurrent calls. */
+    private final ObjectReader reader = mapper.readerFor(Map.class);
 
     /** {@inheritDoc} */
     @Override
@@ -49,23 +55,37 @@ public class JsonSourceServiceImpl extends AbstractSourceServiceImpl {
         // empty implementation at this time
     }
 
-    private void loadResource(final DataContext context) {
-        final ConnectorContext connectorContext = connect(context);
-        this.resource = connectorContext.getResource();
-    }
-
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The source must be an array of records; the array is read incrementally from the parser's
+     * token stream, one record per element. If the context's memory mapped property is true and the
+     * resource is a local file, the file is parsed from mapped memory.
+     *
+     * <p>If the context's record pointer property is set (ex. /data/items), the records are the
+     * elements of the array at that JSON pointer instead; the rest of the document is skipped
+     * without being bound.
+     *
+     * <p>If the context's skip records property is set, that many records are read but skipped.
+     */
     @Override
-    public List<Map<String, Object>> retrieve(final DataContext context) throws ConduitException {
+    public Stream<Map<String, Object>> stream(final DataContext context) throws ConduitException {
         try {
-            init(context);
-            loadResource(context);
-            mapper = new ObjectMapper();
-            List<Map<String, Object>> records =
-                    mapper.readValue(
-                            resource.getInputStream(),
-                            new TypeReference<List<Map<String, Object>>>() {});
-            return records;
+            final ConnectorContext connectorContext = openSession(context).getConnectorContext();
+            final String pointer = context.getProperty(DataContextProperties.RECORD_POINTER);
+
+            if (!pointer.isBlank()) {
+                final JsonRecordIterator<Map<String, Object>> it =
+                        new JsonRecordIterator<>(
+                                mapper.createParser(openInputStream(context, connectorContext)),
+                                reader,
+                                JsonPointer.compile(pointer));
+                return skipRecords(context, toStream(it, it));
+            }
+
+            final MappingIterator<Map<String, Object>> it =
+                    reader.readValues(openInputStream(context, connectorContext));
+            return skipRecords(context, toStream(it, it));
         } catch (final Exception e) {
             throw new ConduitException(e);
         }
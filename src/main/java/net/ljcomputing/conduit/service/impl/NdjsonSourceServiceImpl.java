@@ -0,0 +1,104 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.service.impl;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Stream;
+import net.ljcomputing.conduit.exception.ConduitException;
+import net.ljcomputing.conduit.io.FileSplitter;
+import net.ljcomputing.conduit.model.ConnectorContext;
+import net.ljcomputing.conduit.model.DataContext;
+import net.ljcomputing.conduit.model.SourceType;
+import org.springframework.stereotype.Service;
+
+/** JSON Lines (newline delimited JSON) Source Service Implementation. */
+@Service("ndjson")
+public class NdjsonSourceServiceImpl extends AbstractSourceServiceImpl {
+    /** Record reader; immutable, so shared by concurrent calls. */
+    private final ObjectReader reader = new ObjectMapper().readerFor(Map.class);
+
+    /** {@inheritDoc} */
+    @Override
+    public SourceType sourceType() {
+        return SourceType.NDJSON;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void init(final DataContext context) {
+        // empty implementation at this time
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The source must hold one object per line; records are read one at a time. If the context's
+     * parallel property is true and the resource is a local file, the file is split into chunks on
+     * newlines which are parsed concurrently; no scan is needed since a newline can only end a
+     * record. If the context's memory mapped property is true and the resource is a local file, the
+     * file is parsed from mapped memory.
+     *
+     * <p>If the context's skip records property is set, that many records are skipped; if the
+     * resource is an uncompressed local file, the stream starts past them without parsing them.
+     */
+    @Override
+    public Stream<Map<String, Object>> stream(final DataContext context) throws ConduitException {
+        try {
+            final ConnectorContext connectorContext = openSession(context).getConnectorContext();
+
+            if (parallelEligible(context, connectorContext)) {
+                final Path file = connectorContext.getFile();
+                return parallelStream(
+                        context,
+                        connectorContext,
+                        FileSplitter.splitLines(
+                                file,
+                                FileSplitter.skipRecords(file, 0, skipCount(context), -1, false),
+                                chunkSize(context)),
+                        reader);
+            }
+
+            if (seekEligible(context, connectorContext)) {
+                final MappingIterator<Map<String, Object>> it =
+                        reader.readValues(
+                                openInputStream(
+                                        connectorContext,
+                                        FileSplitter.skipRecords(
+                                                connectorContext.getFile(),
+                                                0,
+                                                skipCount(context),
+                                                -1,
+                                                false)));
+                return toStream(it, it);
+            }
+
+            final MappingIterator<Map<String, Object>> it =
+                    reader.readValues(openInputStream(context, connectorContext));
+            return skipRecords(context, toStream(it, it));
+        } catch (final Exception e) {
+            throw new ConduitException(e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.service.impl;
+
+import lombok.Getter;
+import net.ljcomputing.conduit.model.ConnectorContext;
+import net.ljcomputing.conduit.model.DataContext;
+
+/**
+ * State of one source service call: the {@link net.ljcomputing.conduit.model.DataContext data
+ * context} and the {@link net.ljcomputing.conduit.model.ConnectorContext connection} made for it.
+ * Services are singletons shared by concurrent calls, so per-call state is held by a session rather
+ * than by the service.
+ */
+@Getter
+public class SourceSession {
+    /** The data context of the call. */
+    private final DataContext context;
+
+    /** The connection to the context's source. */
+    private final ConnectorContext connectorContext;
+
+    /**
+     * Constructor.
+     *
+     * @param context
+     * @param connectorContext
+     */
+    public SourceSession(final DataContext context, final ConnectorContext connectorContext) {
+        this.context = context;
+        this.connectorContext = connectorContext;
+    }
+}
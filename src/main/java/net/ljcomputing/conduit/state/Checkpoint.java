@@ -0,0 +1,76 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.state;
+
+import lombok.Value;
+import net.ljcomputing.conduit.utils.SqlValueUtils;
+
+/**
+ * Progress of a checkpointed load: the number of records committed to the target and, if the load
+ * is keyed, the key of the last one. Stored in a {@link net.ljcomputing.conduit.state.StateStore
+ * state store} as the record count followed by the {@link
+ * net.ljcomputing.conduit.utils.SqlValueUtils#format formatted} key (ex. 48000000 2023-06-01).
+ */
+@Value
+public class Checkpoint {
+    /** No progress. */
+    public static final Checkpoint NONE = new Checkpoint(0, null);
+
+    /** Number of records committed; for keyed loads, counting rows of a key written again. */
+    long records;
+
+    /** Key of the last record committed; null if the load is not keyed. */
+    Object key;
+
+    /**
+     * Return true if records were committed.
+     *
+     * @return
+     */
+    public boolean isStarted() {
+        return records > 0;
+    }
+
+    /**
+     * Format the checkpoint so it can be {@link #parse parsed}.
+     *
+     * @return
+     */
+    public String format() {
+        return key == null ? Long.toString(records) : records + " " + SqlValueUtils.format(key);
+    }
+
+    /**
+     * Parse the given formatted checkpoint; {@link #NONE none} if null or blank.
+     *
+     * @param value
+     * @return
+     */
+    public static Checkpoint parse(final String value) {
+        if (value == null || value.isBlank()) {
+            return NONE;
+        }
+
+        final String[] parts = value.trim().split(" ", 2);
+        return new Checkpoint(
+                Long.parseLong(parts[0]), parts.length > 1 ? SqlValueUtils.parse(parts[1]) : null);
+    }
+}
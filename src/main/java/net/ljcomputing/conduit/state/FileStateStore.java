@@ -0,0 +1,94 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.state;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import net.ljcomputing.conduit.exception.ConduitException;
+
+/**
+ * {@link net.ljcomputing.conduit.state.StateStore State store} backed by a local properties file.
+ * The file is rewritten on every put through a temporary file moved over it, so a crash never
+ * leaves it half written.
+ */
+public class FileStateStore implements StateStore {
+    /** The properties file. */
+    private final Path file;
+
+    /**
+     * Constructor.
+     *
+     * @param file the properties file; created on first put
+     */
+    public FileStateStore(final Path file) {
+        this.file = file;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized String get(final String jobId) throws ConduitException {
+        return load().getProperty(jobId);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void put(final String jobId, final String value) throws ConduitException {
+        final Properties state = load();
+        state.setProperty(jobId, value);
+
+        try {
+            final Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            final Path temp =
+                    Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                state.store(out, null);
+            }
+
+            Files.move(
+                    temp,
+                    file,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (final Exception e) {
+            throw new ConduitException(e);
+        }
+    }
+
+    private Properties load() throws ConduitException {
+        final Properties state = new Properties();
+
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                state.load(in);
+            } catch (final Exception e) {
+                throw new ConduitException(e);
+            }
+        }
+
+        return state;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.state;
+
+import java.util.List;
+import javax.sql.DataSource;
+import net.ljcomputing.conduit.exception.ConduitException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * {@link net.ljcomputing.conduit.state.StateStore State store} backed by a database table (job_id,
+ * state_value, updated_at), created if it does not exist.
+ */
+public class JdbcStateStore implements StateStore {
+    /** Default state table. */
+    public static final String DEFAULT_TABLE = "conduit_state";
+
+    /** Template used to access the table. */
+    private final JdbcTemplate jdbcTemplate;
+
+    /** The state table. */
+    private final String table;
+
+    /**
+     * Constructor using the default table.
+     *
+     * @param dataSource
+     * @throws ConduitException
+     */
+    public JdbcStateStore(final DataSource dataSource) throws ConduitException {
+        this(dataSource, DEFAULT_TABLE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param dataSource
+     * @param table
+     * @throws ConduitException
+     */
+    public JdbcStateStore(final DataSource dataSource, final String table) throws ConduitException {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.table = table;
+
+        try {
+            jdbcTemplate.queryForList("select job_id from " + table + " where 1 = 0");
+        } catch (final DataAccessException e) {
+            try {
+                jdbcTemplate.execute(
+                        "create table "
+                                + table
+                                + " (job_id varchar(255) primary key, state_value"
+                                + " varchar(4000), updated_at timestamp)");
+            } catch (final DataAccessException ce) {
+                throw new ConduitException(ce);
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String get(final String jobId) throws ConduitException {
+        try {
+            final List<String> values =
+                    jdbcTemplate.queryForList(
+                            "select state_value from " + table + " where job_id = ?",
+                            String.class,
+                            jobId);
+            return values.isEmpty() ? null : values.get(0);
+        } catch (final DataAccessException e) {
+            throw new ConduitException(e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void put(final String jobId, final String value) throws ConduitException {
+        try {
+            final int updated =
+                    jdbcTemplate.update(
+                            "update "
+                                    + table
+                                    + " set state_value = ?, updated_at = current_timestamp"
+                                    + " where job_id = ?",
+                            value,
+                            jobId);
+
+            if (updated == 0) {
+                jdbcTemplate.update(
+                        "insert into "
+                                + table
+                                + " (job_id, state_value, updated_at) values (?, ?,"
+                                + " current_timestamp)",
+                        jobId,
+                        value);
+            }
+        } catch (final DataAccessException e) {
+            throw new ConduitException(e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.state;
+
+import net.ljcomputing.conduit.exception.ConduitException;
+import net.ljcomputing.conduit.model.DataContext;
+import net.ljcomputing.conduit.utils.DigestUtils;
+
+/** Durable store of the state of jobs (ex. the high-water mark of an incremental extract). */
+public interface StateStore {
+    /**
+     * The state of the given job.
+     *
+     * @param jobId
+     * @return the state; null if none was stored
+     * @throws ConduitException
+     */
+    String get(String jobId) throws ConduitException;
+
+    /**
+     * Store the state of the given job, replacing any previous state.
+     *
+     * @param jobId
+     * @param value
+     * @throws ConduitException
+     */
+    void put(String jobId, String value) throws ConduitException;
+
+    /**
+     * Default id of a job reading the given context; the {@link
+     * net.ljcomputing.conduit.utils.DigestUtils#sha256Hex digest} of its url and query, so it fits
+     * a store's key however long the query.
+     *
+     * @param context
+     * @return
+     */
+    static String defaultJobId(final DataContext context) {
+        return DigestUtils.sha256Hex(context.getUrl() + " " + context.getQuery());
+    }
+}
@@ -0,0 +1,96 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.state;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Tracks the high-water mark of a column (ex. updated_at or a monotonic id) over the records of an
+ * incremental extract. Safe for concurrent use.
+ */
+public class Watermark {
+    /** The watermark column. */
+    private final String column;
+
+    /** Maximum value seen; the last committed value until a greater one is seen. */
+    private Object value;
+
+    /**
+     * Constructor.
+     *
+     * @param column the watermark column
+     * @param value the last committed value, if any
+     */
+    public Watermark(final String column, final Object value) {
+        this.column = column;
+        this.value = value;
+    }
+
+    /**
+     * Observe the watermark column of the given record.
+     *
+     * @param record
+     */
+    public void observe(final Map<String, Object> record) {
+        final Object candidate = record.get(column);
+
+        if (candidate != null) {
+            synchronized (this) {
+                if (value == null || compare(candidate, value) > 0) {
+                    value = candidate;
+                }
+            }
+        }
+    }
+
+    /**
+     * The watermark column.
+     *
+     * @return
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * The maximum value seen.
+     *
+     * @return
+     */
+    public synchronized Object getValue() {
+        return value;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(final Object left, final Object right) {
+        if (left instanceof Number && right instanceof Number) {
+            return new BigDecimal(left.toString()).compareTo(new BigDecimal(right.toString()));
+        } else if (left.getClass() != right.getClass()
+                && left instanceof java.util.Date
+                && right instanceof java.util.Date) {
+            return Long.compare(
+                    ((java.util.Date) left).getTime(), ((java.util.Date) right).getTime());
+        }
+
+        return ((Comparable) left).compareTo(right);
+    }
+}
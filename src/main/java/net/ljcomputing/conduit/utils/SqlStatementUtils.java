@@ -22,6 +22,7 @@ package net.ljcomputing.conduit.utils;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import net.ljcomputing.conduit.model.DatasetColumnDefinition;
 
@@ -41,13 +42,8 @@ public enum SqlStatementUtils {
             final List<DatasetColumnDefinition> columnDefinitions,
             final boolean useBindVariables,
             final String... excludedColumns) {
-        final List<String> exclude = Arrays.asList(excludedColumns);
-        exclude.replaceAll(String::toUpperCase);
-
         final List<DatasetColumnDefinition> filteredColumnDefinitions =
-                columnDefinitions.stream()
-                        .filter(d -> !exclude.contains(d.getName().toUpperCase()))
-                        .collect(Collectors.toList());
+                filterColumnDefinitions(columnDefinitions, excludedColumns);
 
         final String columnNames =
                 filteredColumnDefinitions.stream()
@@ -76,4 +72,311 @@ public enum SqlStatementUtils {
 
         return builder.toString();
     }
+
+    /**
+     * Build an insert statement with the given number of rows in its values clause (ex. insert into
+     * foo (a, b) values (?, ?), (?, ?)), using positional parameters.
+     *
+     * @param datasetName
+     * @param columnDefinitions
+     * @param rows
+     * @param excludedColumns
+     * @return
+     */
+    public static String buildMultiRowInsertStatement(
+            final String datasetName,
+            final List<DatasetColumnDefinition> columnDefinitions,
+            final int rows,
+            final String... excludedColumns) {
+        final List<DatasetColumnDefinition> filteredColumnDefinitions =
+                filterColumnDefinitions(columnDefinitions, excludedColumns);
+
+        final String columnNames =
+                filteredColumnDefinitions.stream()
+                        .map(el -> el.getName())
+                        .collect(Collectors.joining(", "));
+
+        final String rowStatement =
+                filteredColumnDefinitions.stream()
+                        .map(el -> "?")
+                        .collect(Collectors.joining(", ", "(", ")"));
+
+        final StringBuilder builder = new StringBuilder("insert into ");
+
+        builder.append(datasetName).append(" (").append(columnNames).append(") values ");
+
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) {
+                builder.append(", ");
+            }
+
+            builder.append(rowStatement);
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Build a PostgreSQL upsert of the given number of rows keyed on the given key columns (ex.
+     * insert into foo (k, a) values (?, ?), (?, ?) on conflict (k) do update set a = excluded.a).
+     * Rows whose key exists are left unchanged if every column is a key.
+     *
+     * @param datasetName
+     * @param columnDefinitions
+     * @param keyColumns
+     * @param rows
+     * @return
+     */
+    public static String buildOnConflictStatement(
+            final String datasetName,
+            final List<DatasetColumnDefinition> columnDefinitions,
+            final List<String> keyColumns,
+            final int rows) {
+        final List<String> updated = nonKeyColumns(columnDefinitions, keyColumns);
+        final StringBuilder builder =
+                new StringBuilder(
+                        buildMultiRowInsertStatement(datasetName, columnDefinitions, rows));
+
+        builder.append(" on conflict (").append(String.join(", ", keyColumns)).append(") do ");
+
+        if (updated.isEmpty()) {
+            return builder.append("nothing").toString();
+        }
+
+        return builder.append("update set ")
+                .append(
+                        updated.stream()
+                                .map(name -> name + " = excluded." + name)
+                                .collect(Collectors.joining(", ")))
+                .toString();
+    }
+
+    /**
+     * Build a MySQL upsert of the given number of rows, keyed on the table's primary and unique
+     * keys (ex. insert into foo (k, a) values (?, ?) on duplicate key update a = values(a)).
+     *
+     * @param datasetName
+     * @param columnDefinitions
+     * @param keyColumns
+     * @param rows
+     * @return
+     */
+    public static String buildOnDuplicateKeyStatement(
+            final String datasetName,
+            final List<DatasetColumnDefinition> columnDefinitions,
+            final List<String> keyColumns,
+            final int rows) {
+        final List<String> updated = nonKeyColumns(columnDefinitions, keyColumns);
+
+        if (updated.isEmpty()) {
+            updated.add(keyColumns.get(0));
+        }
+
+        return buildMultiRowInsertStatement(datasetName, columnDefinitions, rows)
+                + " on duplicate key update "
+                + updated.stream()
+                        .map(name -> name + " = values(" + name + ")")
+                        .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Build a standard SQL merge of the given number of rows keyed on the given key columns (ex.
+     * merge into foo using (values (?, ?), (?, ?)) as conduit_source (k, a) on foo.k =
+     * conduit_source.k when matched then update set a = conduit_source.a when not matched then
+     * insert (k, a) values (conduit_source.k, conduit_source.a)).
+     *
+     * @param datasetName
+     * @param columnDefinitions
+     * @param keyColumns
+     * @param rows
+     * @return
+     */
+    public static String buildMergeStatement(
+            final String datasetName,
+            final List<DatasetColumnDefinition> columnDefinitions,
+            final List<String> keyColumns,
+            final int rows) {
+        final String source = "conduit_source";
+        final List<String> names =
+                columnDefinitions.stream().map(el -> el.getName()).collect(Collectors.toList());
+        final List<String> updated = nonKeyColumns(columnDefinitions, keyColumns);
+        final String rowStatement =
+                names.stream().map(el -> "?").collect(Collectors.joining(", ", "(", ")"));
+
+        final StringBuilder builder = new StringBuilder("merge into ");
+        builder.append(datasetName).append(" using (values ");
+
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) {
+                builder.append(", ");
+            }
+
+            builder.append(rowStatement);
+        }
+
+        builder.append(") as ")
+                .append(source)
+                .append(" (")
+                .append(String.join(", ", names))
+                .append(") on ")
+                .append(
+                        keyColumns.stream()
+                                .map(key -> datasetName + "." + key + " = " + source + "." + key)
+                                .collect(Collectors.joining(" and ")));
+
+        if (!updated.isEmpty()) {
+            builder.append(" when matched then update set ")
+                    .append(
+                            updated.stream()
+                                    .map(name -> name + " = " + source + "." + name)
+                                    .collect(Collectors.joining(", ")));
+        }
+
+        return builder.append(" when not matched then insert (")
+                .append(String.join(", ", names))
+                .append(") values (")
+                .append(
+                        names.stream()
+                                .map(name -> source + "." + name)
+                                .collect(Collectors.joining(", ")))
+                .append(")")
+                .toString();
+    }
+
+    /**
+     * Names of the given column definitions which are not key columns (compared case insensitive).
+     *
+     * @param columnDefinitions
+     * @param keyColumns
+     * @return
+     */
+    private static List<String> nonKeyColumns(
+            final List<DatasetColumnDefinition> columnDefinitions, final List<String> keyColumns) {
+        return columnDefinitions.stream()
+                .map(el -> el.getName())
+                .filter(name -> keyColumns.stream().noneMatch(name::equalsIgnoreCase))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Build a PostgreSQL copy statement reading CSV rows of the given columns from standard input
+     * (ex. copy foo (a, b) from stdin with (format csv)).
+     *
+     * @param datasetName
+     * @param columnDefinitions
+     * @return
+     */
+    public static String buildCopyStatement(
+            final String datasetName, final List<DatasetColumnDefinition> columnDefinitions) {
+        final String columnNames =
+                columnDefinitions.stream()
+                        .map(el -> el.getName())
+                        .collect(Collectors.joining(", "));
+
+        return "copy " + datasetName + " (" + columnNames + ") from stdin with (format csv)";
+    }
+
+    /**
+     * Build a query returning the lower_bound and upper_bound of the given column over the rows of
+     * the given query.
+     *
+     * @param query
+     * @param column
+     * @return
+     */
+    public static String buildBoundsQuery(final String query, final String column) {
+        return "select min("
+                + column
+                + ") as lower_bound, max("
+                + column
+                + ") as upper_bound from ("
+                + query
+                + ") conduit_partition";
+    }
+
+    /**
+     * Build a query returning the rows of the given query whose watermark column is greater than a
+     * positional parameter (ex. updated_at > ?).
+     *
+     * @param query
+     * @param column
+     * @return
+     */
+    public static String buildWatermarkQuery(final String query, final String column) {
+        return "select * from (" + query + ") conduit_watermark where " + column + " > ?";
+    }
+
+    /**
+     * Build a query returning the rows of the given query ordered by the given checkpoint column;
+     * if resuming, only rows whose column is at least a positional parameter (ex. id >= ?), so rows
+     * sharing the last checkpointed key are read again rather than skipped.
+     *
+     * @param query
+     * @param column
+     * @param resume true to restrict the rows to those from the checkpointed key
+     * @return
+     */
+    public static String buildCheckpointQuery(
+            final String query, final String column, final boolean resume) {
+        return "select * from ("
+                + query
+                + ") conduit_checkpoint"
+                + (resume ? " where " + column + " >= ?" : "")
+                + " order by "
+                + column;
+    }
+
+    /**
+     * Build a query returning the rows of the given query in one range of the given column. The
+     * first range is bounded above (ex. column < ?) and includes nulls, the last is bounded below
+     * (ex. column >= ?), and those between are bounded on both sides (ex. column >= ? and column <
+     * ?), so the ranges together cover every row.
+     *
+     * @param query
+     * @param column
+     * @param first true if the range is the first
+     * @param last true if the range is the last
+     * @return
+     */
+    public static String buildPartitionQuery(
+            final String query, final String column, final boolean first, final boolean last) {
+        final StringBuilder builder = new StringBuilder("select * from (");
+        builder.append(query).append(") conduit_partition");
+
+        if (first && !last) {
+            builder.append(" where ")
+                    .append(column)
+                    .append(" < ? or ")
+                    .append(column)
+                    .append(" is null");
+        } else if (last && !first) {
+            builder.append(" where ").append(column).append(" >= ?");
+        } else if (!first) {
+            builder.append(" where ")
+                    .append(column)
+                    .append(" >= ? and ")
+                    .append(column)
+                    .append(" < ?");
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Return the given column definitions less the excluded columns (compared case insensitive).
+     *
+     * @param columnDefinitions
+     * @param excludedColumns
+     * @return
+     */
+    public static List<DatasetColumnDefinition> filterColumnDefinitions(
+            final List<DatasetColumnDefinition> columnDefinitions,
+            final String... excludedColumns) {
+        final Set<String> exclude =
+                Arrays.stream(excludedColumns).map(String::toUpperCase).collect(Collectors.toSet());
+
+        return columnDefinitions.stream()
+                .filter(d -> !exclude.contains(d.getName().toUpperCase()))
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,80 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+
+James G Willmore - LJ Computing - (C) 2023
+*/
+package net.ljcomputing.conduit.utils;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+
+/** SQL value utilities; conversion of column values to and from strings. */
+public enum SqlValueUtils {
+    INSTANCE;
+
+    /**
+     * Parse the given formatted value; a whole number, a decimal, a date (yyyy-mm-dd) or a
+     * timestamp (yyyy-mm-dd hh:mm:ss[.f...]).
+     *
+     * @param value
+     * @return
+     */
+    public static Object parse(final String value) {
+        final String trimmed = value.trim();
+
+        try {
+            return Long.valueOf(trimmed);
+        } catch (final NumberFormatException e) {
+            // not a whole number
+        }
+
+        try {
+            return new BigDecimal(trimmed);
+        } catch (final NumberFormatException e) {
+            // not a decimal
+        }
+
+        return trimmed.length() == 10 ? Date.valueOf(trimmed) : Timestamp.valueOf(trimmed);
+    }
+
+    /**
+     * Format the given value so it can be {@link #parse parsed}.
+     *
+     * @param value
+     * @return
+     */
+    public static String format(final Object value) {
+        if (value instanceof Date || value instanceof Timestamp) {
+            return value.toString();
+        } else if (value instanceof LocalDate) {
+            return Date.valueOf((LocalDate) value).toString();
+        } else if (value instanceof LocalDateTime) {
+            return Timestamp.valueOf((LocalDateTime) value).toString();
+        } else if (value instanceof OffsetDateTime) {
+            return Timestamp.from(((OffsetDateTime) value).toInstant()).toString();
+        } else if (value instanceof java.util.Date) {
+            return new Timestamp(((java.util.Date) value).getTime()).toString();
+        }
+
+        return value.toString();
+    }
+}
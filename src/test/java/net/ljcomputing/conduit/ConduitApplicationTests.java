@@ -20,27 +20,101 @@ James G Willmore - LJ Computing - (C) 2023
 */
 package net.ljcomputing.conduit;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.sun.net.httpserver.HttpServer;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import javax.sql.DataSource;
+import net.ljcomputing.conduit.connector.Connector;
 import net.ljcomputing.conduit.connector.impl.ConnectorFactory;
+import net.ljcomputing.conduit.connector.impl.JdbcConnectionPoolRegistry;
 import net.ljcomputing.conduit.connector.impl.SourceServiceFactory;
+import net.ljcomputing.conduit.csv.CsvFieldType;
 import net.ljcomputing.conduit.exception.ConduitException;
+import net.ljcomputing.conduit.io.ByteRange;
+import net.ljcomputing.conduit.io.Compression;
+import net.ljcomputing.conduit.io.FileSplitter;
+import net.ljcomputing.conduit.io.MappedFile;
+import net.ljcomputing.conduit.jdbc.DelimitedRecordReader;
+import net.ljcomputing.conduit.jdbc.JdbcBatchWriter;
+import net.ljcomputing.conduit.jdbc.JdbcCursorReader;
+import net.ljcomputing.conduit.jdbc.JdbcParallelWriter;
+import net.ljcomputing.conduit.jdbc.JdbcWriteException;
+import net.ljcomputing.conduit.jdbc.JdbcWriteResult;
+import net.ljcomputing.conduit.jdbc.ResultSetRecordIterator;
+import net.ljcomputing.conduit.jdbc.SqlDialect;
 import net.ljcomputing.conduit.model.ConnectorProtocol;
 import net.ljcomputing.conduit.model.DataContext;
 import net.ljcomputing.conduit.model.DataContextProperties;
 import net.ljcomputing.conduit.model.Dataset;
 import net.ljcomputing.conduit.model.DatasetColumnDefinition;
+import net.ljcomputing.conduit.model.DatasetRecord;
+import net.ljcomputing.conduit.model.DatasetRecordColumn;
+import net.ljcomputing.conduit.model.DatasetSchema;
+import net.ljcomputing.conduit.model.SchemaInferrer;
 import net.ljcomputing.conduit.model.SourceType;
+import net.ljcomputing.conduit.model.columnar.ColumnarDataset;
+import net.ljcomputing.conduit.model.columnar.DoubleColumnVector;
+import net.ljcomputing.conduit.model.columnar.IntColumnVector;
+import net.ljcomputing.conduit.model.columnar.LongColumnVector;
+import net.ljcomputing.conduit.model.columnar.ObjectColumnVector;
+import net.ljcomputing.conduit.model.spill.SpillingDataset;
+import net.ljcomputing.conduit.pipeline.CheckpointedLoad;
+import net.ljcomputing.conduit.pipeline.IncrementalSource;
+import net.ljcomputing.conduit.pipeline.Pipeline;
+import net.ljcomputing.conduit.pipeline.PipelineResult;
+import net.ljcomputing.conduit.pipeline.RecordSink;
+import net.ljcomputing.conduit.pipeline.RecordSource;
+import net.ljcomputing.conduit.pipeline.TransformStage;
 import net.ljcomputing.conduit.service.SourceService;
+import net.ljcomputing.conduit.state.Checkpoint;
+import net.ljcomputing.conduit.state.FileStateStore;
+import net.ljcomputing.conduit.state.JdbcStateStore;
 import net.ljcomputing.conduit.utils.SqlStatementUtils;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorOutputStream;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -54,10 +128,14 @@ import org.springframework.test.context.ActiveProfiles;
 class ConduitApplicationTests {
     private static final Logger log = LoggerFactory.getLogger(ConduitApplicationTests.class);
 
+    private static final String HSQLDB_URL = "jdbc:hsqldb:mem:conduit";
+
     @Autowired private ConnectorFactory connectorFactory;
 
     @Autowired private SourceServiceFactory sourceServiceFactory;
 
+    @Autowired private MeterRegistry meterRegistry;
+
     /** Test to make sure application starts correctly. */
     @Test
     @Order(1)
@@ -87,6 +165,11 @@ class ConduitApplicationTests {
 
         sql = SqlStatementUtils.buildInsertStatement("foo", columnDefinitions, false, "id");
         log.debug("sql: {}", sql);
+
+        final String[] excluded = {"id", "Birth_Date"};
+        assertEquals(
+                1, SqlStatementUtils.filterColumnDefinitions(columnDefinitions, excluded).size());
+        assertEquals("Birth_Date", excluded[1]);
     }
 
     /** Test JDBC data source retrieve. */
@@ -158,6 +241,258 @@ class ConduitApplicationTests {
         }
     }
 
+    /** Test streaming local CSV and JSON data sources. */
+    @Test
+    @Order(13)
+    void streamFileSources() throws ConduitException {
+        final DataContext csvContext =
+                DataContext.init(SourceType.CSV, "file:src/test/resources/data/insured.csv")
+                        .build();
+        final DataContext jsonContext =
+                DataContext.init(SourceType.JSON, "file:src/test/resources/data/insured.json")
+                        .build();
+
+        try (Stream<Map<String, Object>> records =
+                sourceServiceFactory.locate(SourceType.CSV).stream(csvContext)) {
+            assertEquals(7, records.count());
+        }
+
+        try (Stream<Map<String, Object>> records =
+                sourceServiceFactory.locate(SourceType.JSON).stream(jsonContext)) {
+            assertEquals(7, records.count());
+        }
+
+        final Dataset data =
+                sourceServiceFactory.locate(SourceType.JSON).retrieveDataset(jsonContext);
+        assertEquals(7, data.getRecords().size());
+        assertEquals(5, data.getColumnDefinitions().size());
+        assertEquals("Jane", data.getRecords().get(0).get("givenName"));
+        assertTrue(data.getRecords().get(0).getSchema() == data.getRecords().get(6).getSchema());
+    }
+
+    /** Test columnar dataset retrieve. */
+    @Test
+    @Order(14)
+    void retrieveColumnarDataset() throws ConduitException {
+        final DataContext context =
+                DataContext.init(SourceType.JSON, "file:src/test/resources/data/insured.json")
+                        .build();
+        context.getProperties().setProperty(DataContextProperties.COLUMNAR.property(), "true");
+
+        final Dataset data = sourceServiceFactory.locate(SourceType.JSON).retrieveDataset(context);
+        assertTrue(data instanceof ColumnarDataset);
+
+        final ColumnarDataset columnar = (ColumnarDataset) data;
+        assertEquals(7, columnar.getRowCount());
+        assertTrue(columnar.getVector("id") instanceof IntColumnVector);
+        assertEquals(7, ((IntColumnVector) columnar.getVector("id")).getInt(6));
+        assertEquals("Willmore", data.getRecords().get(3).getColumns().get(3).getValue());
+    }
+
+    /** Test batched insert of a JSON data source into an in-memory JDBC data source. */
+    @Test
+    @Order(15)
+    void jsonSourceHsqldbTarget() throws Exception {
+        try (Connection connection = DriverManager.getConnection(HSQLDB_URL, "sa", "");
+                Statement statement = connection.createStatement()) {
+            statement.execute(
+                    "create table insured (id int, givenName varchar(50), middleName varchar(50),"
+                            + " surname varchar(50), suffix varchar(10))");
+        }
+
+        final DataContext sourceContext =
+                DataContext.init(SourceType.JSON, "file:src/test/resources/data/insured.json")
+                        .build();
+        final Dataset data =
+                sourceServiceFactory.locate(SourceType.JSON).retrieveDataset(sourceContext);
+
+        for (final String multiRowValues : new String[] {"false", "true"}) {
+            final DataContext targetContext = hsqldbContext("insured");
+            targetContext
+                    .getProperties()
+                    .setProperty(DataContextProperties.BATCH_SIZE.property(), "3");
+            targetContext
+                    .getProperties()
+                    .setProperty(DataContextProperties.EXCLUDED_COLUMNS.property(), "");
+            targetContext
+                    .getProperties()
+                    .setProperty(DataContextProperties.MULTI_ROW_VALUES.property(), multiRowValues);
+
+            sourceServiceFactory.locate(SourceType.JDBC).insertDataset(targetContext, data);
+        }
+
+        final DataContext countContext = hsqldbContext(null);
+        countContext.setQuery("select count(*) as total from insured where id = 7");
+        final List<Map<String, Object>> count =
+                sourceServiceFactory.locate(SourceType.JDBC).retrieve(countContext);
+        assertEquals(2L, ((Number) count.get(0).get("total")).longValue());
+
+        final DataContext cursorContext = hsqldbContext(null);
+        cursorContext.setQuery("select * from insured order by id");
+        cursorContext.getProperties().setProperty(DataContextProperties.FETCH_SIZE.property(), "2");
+        final List<Object> ids = new ArrayList<>();
+        final long rows =
+                sourceServiceFactory
+                        .locate(SourceType.JDBC)
+                        .retrieve(cursorContext, record -> ids.add(record.get("id")));
+        assertEquals(14, rows);
+        assertEquals(1, ids.get(0));
+
+        final Connector connector = connectorFactory.locate(ConnectorProtocol.JDBC);
+        assertTrue(
+                connector.connect(hsqldbContext(null)).getDataSource()
+                        == connector.connect(hsqldbContext("insured")).getDataSource());
+    }
+
+    /**
+     * An in-memory HSQLDB data context.
+     *
+     * @param targetTable
+     * @return
+     */
+    private DataContext hsqldbContext(final String targetTable) {
+        final DataContext context =
+                DataContext.init(SourceType.JDBC, HSQLDB_URL)
+                        .driverClassName("org.hsqldb.jdbc.JDBCDriver")
+                        .user("sa")
+                        .password("")
+                        .build();
+
+        if (targetTable != null) {
+            context.getProperties()
+                    .setProperty(DataContextProperties.TARGET_TABLE.property(), targetTable);
+        }
+
+        return context;
+    }
+
+    /** Test parallel chunked parsing of a local CSV file with quoted newlines. */
+    @Test
+    @Order(16)
+    void parallelCsvSource(@TempDir final Path directory) throws Exception {
+        final Path file = directory.resolve("parallel.csv");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("id|name|note\n");
+
+            for (int id = 1; id <= 1000; id++) {
+                writer.write(String.format("%d|name %d|\"note|%d\nline two\"\n", id, id, id));
+            }
+        }
+
+        final DataContext context =
+                DataContext.init(SourceType.CSV, file.toUri().toString()).build();
+        context.getProperties().setProperty(DataContextProperties.DELIMITER.property(), "|");
+        final List<Map<String, Object>> sequential =
+                sourceServiceFactory.locate(SourceType.CSV).retrieve(context);
+
+        context.getProperties().setProperty(DataContextProperties.PARALLEL.property(), "true");
+        context.getProperties().setProperty(DataContextProperties.PARALLELISM.property(), "4");
+        context.getProperties().setProperty(DataContextProperties.CHUNK_SIZE.property(), "1000");
+        final List<Map<String, Object>> parallel =
+                sourceServiceFactory.locate(SourceType.CSV).retrieve(context);
+
+        assertEquals(1000, sequential.size());
+        assertEquals(sequential, parallel);
+
+        context.getProperties().setProperty(DataContextProperties.ORDERED.property(), "false");
+        assertEquals(1000, sourceServiceFactory.locate(SourceType.CSV).retrieve(context).size());
+    }
+
+    /** Test parsing local files from mapped memory. */
+    @Test
+    @Order(17)
+    void memoryMappedSources() throws Exception {
+        final Path file = Path.of("src/test/resources/data/insured.csv");
+
+        try (MappedFile mapped = new MappedFile(file, 16);
+                InputStream in = mapped.inputStream(new ByteRange(0, mapped.size()))) {
+            assertTrue(mapped.windowCount() > 1);
+            assertArrayEquals(Files.readAllBytes(file), in.readAllBytes());
+        }
+
+        for (final SourceType sourceType : new SourceType[] {SourceType.CSV, SourceType.JSON}) {
+            final DataContext context =
+                    DataContext.init(
+                                    sourceType,
+                                    "file:src/test/resources/data/insured."
+                                            + sourceType.name().toLowerCase())
+                            .build();
+            final List<Map<String, Object>> expected =
+                    sourceServiceFactory.locate(sourceType).retrieve(context);
+
+            context.getProperties()
+                    .setProperty(DataContextProperties.MEMORY_MAPPED.property(), "true");
+            assertEquals(expected, sourceServiceFactory.locate(sourceType).retrieve(context));
+
+            context.getProperties().setProperty(DataContextProperties.PARALLEL.property(), "true");
+            context.getProperties().setProperty(DataContextProperties.CHUNK_SIZE.property(), "64");
+            assertEquals(expected, sourceServiceFactory.locate(sourceType).retrieve(context));
+        }
+    }
+
+    /** Test reading the records of a JSON document from an array nested in an envelope. */
+    @Test
+    @Order(18)
+    void jsonRecordPointer(@TempDir final Path directory) throws Exception {
+        final Path file = directory.resolve("envelope.json");
+        Files.writeString(
+                file,
+                "{\"meta\": {\"items\": [1, {\"a\": [2, 3]}], \"data\": null},"
+                        + " \"data\": {\"count\": 2, \"items\": [{\"id\": 1, \"tags\": [\"x\"]},"
+                        + " {\"id\": 2, \"tags\": []}], \"more\": {\"items\": []}}}");
+
+        final DataContext context =
+                DataContext.init(SourceType.JSON, file.toUri().toString()).build();
+        context.getProperties()
+                .setProperty(DataContextProperties.RECORD_POINTER.property(), "/data/items");
+        final List<Map<String, Object>> records =
+                sourceServiceFactory.locate(SourceType.JSON).retrieve(context);
+
+        assertEquals(2, records.size());
+        assertEquals(1, records.get(0).get("id"));
+        assertEquals(List.of("x"), records.get(0).get("tags"));
+        assertEquals(2, records.get(1).get("id"));
+
+        context.getProperties()
+                .setProperty(DataContextProperties.RECORD_POINTER.property(), "/meta/items/1");
+        assertEquals(
+                List.of(Map.of("a", List.of(2, 3))),
+                sourceServiceFactory.locate(SourceType.JSON).retrieve(context));
+
+        context.getProperties()
+                .setProperty(DataContextProperties.RECORD_POINTER.property(), "/data/missing");
+        assertThrows(
+                ConduitException.class,
+                () -> sourceServiceFactory.locate(SourceType.JSON).retrieve(context));
+    }
+
+    /** Test streaming and parallel parsing of a JSON Lines data source. */
+    @Test
+    @Order(19)
+    void retrieveNdjsonSource() throws ConduitException {
+        final DataContext jsonContext =
+                DataContext.init(SourceType.JSON, "file:src/test/resources/data/insured.json")
+                        .build();
+        final DataContext context =
+                DataContext.init(SourceType.NDJSON, "file:src/test/resources/data/insured.ndjson")
+                        .build();
+        final List<Map<String, Object>> expected =
+                sourceServiceFactory.locate(SourceType.JSON).retrieve(jsonContext);
+
+        assertEquals(expected, sourceServiceFactory.locate(SourceType.NDJSON).retrieve(context));
+
+        context.getProperties().setProperty(DataContextProperties.PARALLEL.property(), "true");
+        context.getProperties().setProperty(DataContextProperties.CHUNK_SIZE.property(), "100");
+        assertEquals(expected, sourceServiceFactory.locate(SourceType.NDJSON).retrieve(context));
+
+        context.getProperties().setProperty(DataContextProperties.MEMORY_MAPPED.property(), "true");
+        context.getProperties().setProperty(DataContextProperties.ORDERED.property(), "false");
+        assertEquals(
+                expected.size(),
+                sourceServiceFactory.locate(SourceType.NDJSON).retrieve(context).size());
+    }
+
     /** Test JSON data source insert into JDBC data source. */
     @Test
     @Order(20)
@@ -199,4 +534,1477 @@ class ConduitApplicationTests {
             log.error("Test failed: ", e);
         }
     }
+
+    /** Test a staged pipeline from a JSON data source to an in-memory JDBC data source. */
+    @Test
+    @Order(21)
+    void pipelineJsonSourceHsqldbTarget() throws Exception {
+        try (Connection connection = DriverManager.getConnection(HSQLDB_URL, "sa", "");
+                Statement statement = connection.createStatement()) {
+            statement.execute(
+                    "create table insured_pipeline (id int, givenName varchar(50), middleName"
+                            + " varchar(50), surname varchar(50), suffix varchar(10))");
+        }
+
+        final DataContext sourceContext =
+                DataContext.init(SourceType.JSON, "file:src/test/resources/data/insured.json")
+                        .build();
+        final DataContext targetContext = hsqldbContext("insured_pipeline");
+        targetContext
+                .getProperties()
+                .setProperty(DataContextProperties.EXCLUDED_COLUMNS.property(), "");
+
+        final PipelineResult result =
+                Pipeline.builder()
+                        .source(
+                                RecordSource.of(
+                                        sourceServiceFactory.locate(SourceType.JSON),
+                                        sourceContext))
+                        .transform(
+                                TransformStage.of(
+                                        record -> {
+                                            record.put(
+                                                    "surname",
+                                                    record.get("surname").toString().toUpperCase());
+                                            return record;
+                                        },
+                                        2))
+                        .transform(
+                                TransformStage.of(
+                                        record -> (Integer) record.get("id") == 7 ? null : record,
+                                        1))
+                        .sink(
+                                RecordSink.of(
+                                        sourceServiceFactory.locate(SourceType.JDBC),
+                                        targetContext))
+                        .batchSize(2)
+                        .queueCapacity(1)
+                        .sinkThreads(2)
+                        .build()
+                        .run();
+
+        assertEquals(7, result.getRecordsRead());
+        assertEquals(6, result.getRecordsWritten());
+
+        final DataContext countContext = hsqldbContext(null);
+        countContext.setQuery(
+                "select count(*) as total from insured_pipeline where surname = upper(surname)");
+        final List<Map<String, Object>> count =
+                sourceServiceFactory.locate(SourceType.JDBC).retrieve(countContext);
+        assertEquals(6L, ((Number) count.get(0).get("total")).longValue());
+
+        final Pipeline failing =
+                Pipeline.builder()
+                        .source(
+                                RecordSource.of(
+                                        sourceServiceFactory.locate(SourceType.JSON),
+                                        sourceContext))
+                        .sink(
+                                batch -> {
+                                    throw new IllegalStateException("sink failed");
+                                })
+                        .batchSize(1)
+                        .queueCapacity(1)
+                        .build();
+        assertThrows(ConduitException.class, failing::run);
+    }
+
+    /** Test partitioned parallel reads of an in-memory JDBC data source. */
+    @Test
+    @Order(22)
+    void partitionedJdbcSource() throws Exception {
+        try (Connection connection = DriverManager.getConnection(HSQLDB_URL, "sa", "");
+                Statement statement = connection.createStatement()) {
+            statement.execute("create table partitioned (id int, created date)");
+
+            for (int id = 1; id <= 100; id++) {
+                statement.execute(
+                        "insert into partitioned values ("
+                                + id
+                                + ", date '2023-01-01' + "
+                                + id
+                                + " day)");
+            }
+
+            statement.execute("insert into partitioned values (null, null)");
+        }
+
+        final DataContext context = hsqldbContext(null);
+        context.setQuery("select id, created from partitioned");
+        context.getProperties()
+                .setProperty(DataContextProperties.PARTITION_COLUMN.property(), "id");
+        context.getProperties().setProperty(DataContextProperties.PARTITION_COUNT.property(), "4");
+        context.getProperties().setProperty(DataContextProperties.FETCH_SIZE.property(), "7");
+
+        final List<Map<String, Object>> records =
+                sourceServiceFactory.locate(SourceType.JDBC).retrieve(context);
+        assertEquals(101, records.size());
+        assertEquals(
+                100,
+                records.stream().map(r -> r.get("ID")).filter(Objects::nonNull).distinct().count());
+
+        context.getProperties()
+                .setProperty(DataContextProperties.PARTITION_LOWER_BOUND.property(), "20");
+        context.getProperties()
+                .setProperty(DataContextProperties.PARTITION_UPPER_BOUND.property(), "60");
+        context.getProperties().setProperty(DataContextProperties.PARALLELISM.property(), "2");
+        assertEquals(101, sourceServiceFactory.locate(SourceType.JDBC).retrieve(context).size());
+
+        final DataContext dateContext = hsqldbContext(null);
+        dateContext.setQuery("select id, created from partitioned");
+        dateContext
+                .getProperties()
+                .setProperty(DataContextProperties.PARTITION_COLUMN.property(), "created");
+        dateContext
+                .getProperties()
+                .setProperty(DataContextProperties.PARTITION_COUNT.property(), "3");
+        assertEquals(
+                101,
+                sourceServiceFactory.locate(SourceType.JDBC).retrieve(dateContext, record -> {}));
+
+        final DataContext wideContext = hsqldbContext(null);
+        wideContext.setQuery("select id, created from partitioned");
+        wideContext
+                .getProperties()
+                .setProperty(DataContextProperties.PARTITION_COLUMN.property(), "id");
+        wideContext
+                .getProperties()
+                .setProperty(
+                        DataContextProperties.PARTITION_COUNT.property(),
+                        Integer.toString(JdbcConnectionPoolRegistry.DEFAULT_MAX_SIZE * 3));
+        assertEquals(
+                101, sourceServiceFactory.locate(SourceType.JDBC).retrieve(wideContext).size());
+    }
+
+    /** Test incremental extracts committing high-water marks to file and JDBC state stores. */
+    @Test
+    @Order(23)
+    void incrementalJdbcSource(@TempDir final Path directory) throws Exception {
+        try (Connection connection = DriverManager.getConnection(HSQLDB_URL, "sa", "");
+                Statement statement = connection.createStatement()) {
+            statement.execute("create table events (id int, updated_at timestamp)");
+            statement.execute(
+                    "insert into events select id, timestamp '2023-01-01 00:00:00' + id hour"
+                            + " from partitioned where id <= 5");
+        }
+
+        final List<Map<String, Object>> written = new CopyOnWriteArrayList<>();
+        final DataContext context = hsqldbContext(null);
+        context.setQuery("select id, updated_at from events");
+        context.getProperties()
+                .setProperty(DataContextProperties.WATERMARK_COLUMN.property(), "id");
+        context.getProperties().setProperty(DataContextProperties.JOB_ID.property(), "events");
+
+        final FileStateStore fileStore = new FileStateStore(directory.resolve("state.properties"));
+        final IncrementalSource source =
+                new IncrementalSource(
+                        fileStore, sourceServiceFactory.locate(SourceType.JDBC), context);
+
+        assertEquals(5, source.run(Pipeline.builder().sink(written::addAll)).getRecordsWritten());
+        assertEquals("5", fileStore.get("events"));
+
+        try (Connection connection = DriverManager.getConnection(HSQLDB_URL, "sa", "");
+                Statement statement = connection.createStatement()) {
+            statement.execute(
+                    "insert into events select id, timestamp '2023-01-01 00:00:00' + id hour"
+                            + " from partitioned where id between 6 and 8");
+        }
+
+        assertThrows(
+                ConduitException.class,
+                () ->
+                        source.run(
+                                Pipeline.builder()
+                                        .sink(
+                                                batch -> {
+                                                    throw new IllegalStateException("failed");
+                                                })));
+        assertEquals("5", fileStore.get("events"));
+
+        assertEquals(3, source.run(Pipeline.builder().sink(written::addAll)).getRecordsWritten());
+        assertEquals("8", fileStore.get("events"));
+        assertEquals(8, written.size());
+        assertTrue(context.getProperty(DataContextProperties.WATERMARK_VALUE).isBlank());
+
+        context.getProperties()
+                .setProperty(DataContextProperties.WATERMARK_COLUMN.property(), "updated_at");
+        context.getProperties().setProperty(DataContextProperties.JOB_ID.property(), "updates");
+        final JdbcStateStore jdbcStore =
+                new JdbcStateStore(
+                        connectorFactory
+                                .locate(ConnectorProtocol.JDBC)
+                                .connect(hsqldbContext(null))
+                                .getDataSource());
+        final IncrementalSource updates =
+                new IncrementalSource(
+                        jdbcStore, sourceServiceFactory.locate(SourceType.JDBC), context);
+
+        assertEquals(8, updates.run(Pipeline.builder().sink(batch -> {})).getRecordsWritten());
+        assertEquals("2023-01-01 08:00:00.0", jdbcStore.get("updates"));
+        assertEquals(0, updates.run(Pipeline.builder().sink(batch -> {})).getRecordsWritten());
+    }
+
+    /** Test null aware schema inference with type widening. */
+    @Test
+    @Order(24)
+    void inferDatasetSchema(@TempDir final Path directory) throws Exception {
+        final Path file = directory.resolve("mixed.json");
+        Files.writeString(
+                file,
+                "[{\"a\": 1, \"b\": null, \"c\": \"x\"}, {\"a\": 3000000000, \"b\": 2, \"c\": 1},"
+                        + " {\"a\": 1.5, \"d\": null}]");
+
+        final DataContext context =
+                DataContext.init(SourceType.JSON, file.toUri().toString()).build();
+        final Dataset dataset =
+                sourceServiceFactory.locate(SourceType.JSON).retrieveDataset(context);
+
+        assertEquals(3, dataset.getRecords().size());
+        assertEquals(4, dataset.getColumnDefinitions().size());
+        assertEquals(BigDecimal.class, dataset.getColumnDefinitions().get(0).getDatatypeClass());
+        assertEquals(Integer.class, dataset.getColumnDefinitions().get(1).getDatatypeClass());
+        assertEquals(String.class, dataset.getColumnDefinitions().get(2).getDatatypeClass());
+        assertEquals(Object.class, dataset.getColumnDefinitions().get(3).getDatatypeClass());
+        assertNull(dataset.getRecords().get(2).get("d"));
+
+        context.getProperties()
+                .setProperty(DataContextProperties.SCHEMA_SAMPLE_SIZE.property(), "1");
+        final Dataset sampled =
+                sourceServiceFactory.locate(SourceType.JSON).retrieveDataset(context);
+
+        assertEquals(4, sampled.getColumnDefinitions().size());
+        assertEquals(BigDecimal.class, sampled.getColumnDefinitions().get(0).getDatatypeClass());
+        assertEquals(Integer.class, sampled.getColumnDefinitions().get(1).getDatatypeClass());
+        assertEquals(3000000000L, sampled.getRecords().get(1).get("a"));
+
+        Files.writeString(file, "[{\"a\": 1}, {\"a\": 2, \"late\": \"x\"}]");
+        final Dataset late = sourceServiceFactory.locate(SourceType.JSON).retrieveDataset(context);
+
+        assertEquals(2, late.getColumnDefinitions().size());
+        assertEquals(String.class, late.getColumnDefinitions().get(1).getDatatypeClass());
+        assertEquals("x", late.getRecords().get(1).get("late"));
+
+        assertEquals(Long.class, SchemaInferrer.widen(Integer.class, Long.class));
+        assertEquals(BigDecimal.class, SchemaInferrer.widen(Long.class, Double.class));
+        assertEquals(String.class, SchemaInferrer.widen(Boolean.class, Integer.class));
+        assertEquals(Integer.class, SchemaInferrer.widen(null, Integer.class));
+    }
+
+    /** Test typed CSV parsing with sampled inference and declared types. */
+    @Test
+    @Order(25)
+    void typedCsvSource() throws Exception {
+        final DataContext context =
+                DataContext.init(SourceType.CSV, "file:src/test/resources/data/typed.csv").build();
+        context.getProperties().setProperty(DataContextProperties.TYPED.property(), "true");
+        final SourceService service = sourceServiceFactory.locate(SourceType.CSV);
+
+        final List<Map<String, Object>> records;
+
+        try (Stream<Map<String, Object>> stream = service.stream(context)) {
+            records = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(3, records.size());
+        assertEquals(1, records.get(0).get("id"));
+        assertEquals(new BigDecimal("10.50"), records.get(0).get("amount"));
+        assertEquals(Boolean.TRUE, records.get(2).get("active"));
+        assertEquals(java.sql.Date.valueOf("1980-12-31"), records.get(1).get("born"));
+        assertEquals(
+                java.sql.Timestamp.valueOf("2023-01-02 11:30:00.25"),
+                records.get(1).get("updated"));
+        assertEquals(5L, records.get(0).get("count"));
+        assertEquals(3000000000L, records.get(1).get("count"));
+        assertNull(records.get(2).get("amount"));
+        assertNull(records.get(2).get("born"));
+        assertEquals("b", records.get(1).get("note"));
+
+        context.getProperties().setProperty(DataContextProperties.PARALLEL.property(), "true");
+        context.getProperties().setProperty(DataContextProperties.CHUNK_SIZE.property(), "64");
+
+        try (Stream<Map<String, Object>> stream = service.stream(context)) {
+            assertEquals(records, stream.collect(Collectors.toList()));
+        }
+
+        final DataContext declared =
+                DataContext.init(SourceType.CSV, "file:src/test/resources/data/typed.csv").build();
+        declared.getProperties()
+                .setProperty(DataContextProperties.COLUMN_TYPES.property(), "id:string");
+
+        try (Stream<Map<String, Object>> stream = service.stream(declared)) {
+            assertEquals("1", stream.findFirst().orElseThrow().get("id"));
+        }
+
+        assertEquals(CsvFieldType.INT, CsvFieldType.infer("42"));
+        assertEquals(CsvFieldType.LONG, CsvFieldType.infer("-3000000000"));
+        assertEquals(
+                CsvFieldType.DECIMAL, CsvFieldType.widen(CsvFieldType.INT, CsvFieldType.DECIMAL));
+        assertEquals(CsvFieldType.STRING, CsvFieldType.widen(CsvFieldType.DATE, CsvFieldType.INT));
+        assertThrows(IllegalArgumentException.class, () -> CsvFieldType.INT.parse("x"));
+        assertEquals(CsvFieldType.STRING, CsvFieldType.infer("12E"));
+        assertEquals(CsvFieldType.STRING, CsvFieldType.infer("3e-"));
+        assertEquals(CsvFieldType.DECIMAL, CsvFieldType.infer("3e-2"));
+        assertEquals(CsvFieldType.STRING, CsvFieldType.infer("2023-02-30"));
+        assertEquals(CsvFieldType.DATE, CsvFieldType.infer("2024-02-29"));
+        assertEquals(CsvFieldType.STRING, CsvFieldType.infer("2023-02-29T10:00:00"));
+        assertThrows(IllegalArgumentException.class, () -> CsvFieldType.DATE.parse("2023-02-30"));
+        assertEquals(CsvFieldType.STRING, CsvFieldType.infer("01234"));
+        assertEquals(CsvFieldType.STRING, CsvFieldType.infer("-007.5"));
+        assertEquals(CsvFieldType.INT, CsvFieldType.infer("0"));
+        assertEquals(CsvFieldType.DECIMAL, CsvFieldType.infer("0.5"));
+        assertEquals(1234, CsvFieldType.INT.parse("01234"));
+    }
+
+    /** Test bulk load mode and the delimited text it streams. */
+    @Test
+    @Order(26)
+    void bulkLoadHsqldbTarget() throws Exception {
+        try (Connection connection = DriverManager.getConnection(HSQLDB_URL, "sa", "");
+                Statement statement = connection.createStatement()) {
+            statement.execute(
+                    "create table insured_bulk (id int, givenName varchar(50), middleName"
+                            + " varchar(50), surname varchar(50), suffix varchar(10))");
+        }
+
+        final DataContext sourceContext =
+                DataContext.init(SourceType.JSON, "file:src/test/resources/data/insured.json")
+                        .build();
+        final Dataset data =
+                sourceServiceFactory.locate(SourceType.JSON).retrieveDataset(sourceContext);
+
+        final DataContext targetContext = hsqldbContext("insured_bulk");
+        targetContext
+                .getProperties()
+                .setProperty(DataContextProperties.LOAD_MODE.property(), "bulk");
+        targetContext
+                .getProperties()
+                .setProperty(DataContextProperties.EXCLUDED_COLUMNS.property(), "");
+        sourceServiceFactory.locate(SourceType.JDBC).insertDataset(targetContext, data);
+
+        final DataContext countContext = hsqldbContext(null);
+        countContext.setQuery("select count(*) as total from insured_bulk");
+        assertEquals(
+                7L,
+                ((Number)
+                                sourceServiceFactory
+                                        .locate(SourceType.JDBC)
+                                        .retrieve(countContext)
+                                        .get(0)
+                                        .get("total"))
+                        .longValue());
+
+        targetContext.getProperties().setProperty(DataContextProperties.LOAD_MODE.property(), "x");
+        assertThrows(
+                ConduitException.class,
+                () ->
+                        sourceServiceFactory
+                                .locate(SourceType.JDBC)
+                                .insertDataset(targetContext, data));
+
+        final List<DatasetColumnDefinition> columns = new ArrayList<>();
+        columns.add(new DatasetColumnDefinition("a", String.class, 1));
+        columns.add(new DatasetColumnDefinition("b", BigDecimal.class, 2));
+        columns.add(new DatasetColumnDefinition("c", java.sql.Date.class, 3));
+        final DatasetSchema schema = DatasetSchema.of("a", "b", "c");
+        final List<DatasetRecord> records = new ArrayList<>();
+        records.add(
+                new DatasetRecord(
+                        schema,
+                        new Object[] {
+                            "say \"hi\", bye",
+                            new BigDecimal("1E+2"),
+                            java.sql.Date.valueOf("2023-06-01")
+                        }));
+        records.add(new DatasetRecord(schema, new Object[] {"", null, null}));
+
+        final StringBuilder text = new StringBuilder();
+
+        try (DelimitedRecordReader reader =
+                new DelimitedRecordReader(columns, records.iterator(), ',')) {
+            final char[] buffer = new char[5];
+            int read;
+
+            while ((read = reader.read(buffer, 0, buffer.length)) > 0) {
+                text.append(buffer, 0, read);
+            }
+
+            assertEquals(2, reader.getCount());
+        }
+
+        assertEquals("\"say \"\"hi\"\", bye\",100,2023-06-01\n\"\",,\n", text.toString());
+    }
+
+    /** Test metrics recorded by the source services and connectors. */
+    @Test
+    @Order(27)
+    void sourceServiceMetrics(@TempDir final Path directory) throws Exception {
+        final double rowsBefore =
+                meterRegistry.counter("conduit.source.rows.read", "source.type", "csv").count();
+        final double bytesBefore =
+                meterRegistry.counter("conduit.source.bytes.read", "source.type", "csv").count();
+
+        final DataContext context =
+                DataContext.init(SourceType.CSV, "file:src/test/resources/data/insured.csv")
+                        .build();
+
+        try (Stream<Map<String, Object>> stream =
+                sourceServiceFactory.locate(SourceType.CSV).stream(context)) {
+            assertEquals(7, stream.count());
+        }
+
+        assertEquals(
+                rowsBefore + 7,
+                meterRegistry.counter("conduit.source.rows.read", "source.type", "csv").count());
+        assertEquals(
+                bytesBefore + Files.size(Path.of("src/test/resources/data/insured.csv")),
+                meterRegistry.counter("conduit.source.bytes.read", "source.type", "csv").count());
+        assertTrue(
+                meterRegistry
+                                .get("conduit.source.first.row")
+                                .tag("source.type", "csv")
+                                .timer()
+                                .count()
+                        > 0);
+        assertTrue(
+                meterRegistry
+                                .get("conduit.connector.connect")
+                                .tag("protocol", "file")
+                                .timer()
+                                .count()
+                        > 0);
+        assertTrue(
+                meterRegistry.get("conduit.target.batch").tag("source.type", "jdbc").timer().count()
+                        > 0);
+
+        final DataContext missing =
+                DataContext.init(SourceType.CSV, "file:src/test/resources/data/missing.csv")
+                        .build();
+        final double errorsBefore =
+                meterRegistry
+                        .counter(
+                                "conduit.source.errors",
+                                "source.type",
+                                "csv",
+                                "operation",
+                                "dataset")
+                        .count();
+        assertThrows(
+                ConduitException.class,
+                () -> sourceServiceFactory.locate(SourceType.CSV).retrieveDataset(missing));
+        assertEquals(
+                errorsBefore + 1,
+                meterRegistry
+                        .counter(
+                                "conduit.source.errors",
+                                "source.type",
+                                "csv",
+                                "operation",
+                                "dataset")
+                        .count());
+
+        final Path malformed = directory.resolve("malformed.ndjson");
+        Files.writeString(malformed, "{\"a\":1}\n{\"a\":\n{\"a\":3}\n");
+        final DataContext broken =
+                DataContext.init(SourceType.NDJSON, malformed.toUri().toString()).build();
+        final double streamErrorsBefore =
+                meterRegistry
+                        .counter(
+                                "conduit.source.errors",
+                                "source.type",
+                                "ndjson",
+                                "operation",
+                                "stream")
+                        .count();
+
+        try (Stream<Map<String, Object>> stream =
+                sourceServiceFactory.locate(SourceType.NDJSON).stream(broken)) {
+            assertThrows(RuntimeException.class, () -> stream.forEach(record -> {}));
+        }
+
+        try (Stream<Map<String, Object>> stream =
+                sourceServiceFactory.locate(SourceType.NDJSON).stream(broken)) {
+            assertThrows(
+                    IllegalStateException.class,
+                    () ->
+                            stream.forEach(
+                                    record -> {
+                                        throw new IllegalStateException("consumer");
+                                    }));
+        }
+
+        assertEquals(
+                streamErrorsBefore + 1,
+                meterRegistry
+                        .counter(
+                                "conduit.source.errors",
+                                "source.type",
+                                "ndjson",
+                                "operation",
+                                "stream")
+                        .count());
+        assertNull(meterRegistry.find("conduit.connector.locate").timer());
+    }
+
+    /** Test the HTTP connector's conditional GET cache and parallel range downloads. */
+    @Test
+    @Order(28)
+    void httpSourceCache(@TempDir final Path directory) throws Exception {
+        final byte[][] content = {
+            Files.readAllBytes(Path.of("src/test/resources/data/insured.csv"))
+        };
+        final String[] etag = {"\"v1\""};
+        final AtomicInteger gets = new AtomicInteger();
+        final AtomicInteger ranges = new AtomicInteger();
+        final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(
+                "/insured.csv",
+                exchange -> {
+                    final String range = exchange.getRequestHeaders().getFirst("Range");
+                    final boolean head = "HEAD".equals(exchange.getRequestMethod());
+                    exchange.getResponseHeaders().add("ETag", etag[0]);
+                    exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+
+                    if (etag[0].equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                        exchange.sendResponseHeaders(304, -1);
+                    } else if (head) {
+                        exchange.getResponseHeaders()
+                                .add("Content-Length", String.valueOf(content[0].length));
+                        exchange.sendResponseHeaders(200, -1);
+                    } else if (range != null) {
+                        ranges.incrementAndGet();
+                        final String[] bounds = range.substring("bytes=".length()).split("-");
+                        final int first = Integer.parseInt(bounds[0]);
+                        final int last = Integer.parseInt(bounds[1]);
+                        exchange.getResponseHeaders()
+                                .add(
+                                        "Content-Range",
+                                        "bytes " + first + "-" + last + "/" + content[0].length);
+                        exchange.sendResponseHeaders(206, last - first + 1);
+                        exchange.getResponseBody().write(content[0], first, last - first + 1);
+                    } else {
+                        gets.incrementAndGet();
+                        exchange.sendResponseHeaders(200, content[0].length);
+                        exchange.getResponseBody().write(content[0]);
+                    }
+
+                    exchange.close();
+                });
+        server.start();
+
+        try {
+            final DataContext context =
+                    DataContext.init(
+                                    SourceType.CSV,
+                                    "http://localhost:"
+                                            + server.getAddress().getPort()
+                                            + "/insured.csv")
+                            .build();
+            context.getProperties()
+                    .setProperty(
+                            DataContextProperties.HTTP_CACHE_DIRECTORY.property(),
+                            directory.toString());
+            context.getProperties()
+                    .setProperty(DataContextProperties.HTTP_RANGE_SIZE.property(), "50");
+            context.getProperties().setProperty(DataContextProperties.PARALLELISM.property(), "3");
+            final SourceService service = sourceServiceFactory.locate(SourceType.CSV);
+
+            assertEquals(7, service.retrieveDataset(context).getRecords().size());
+            assertEquals(4, ranges.get());
+            assertEquals(0, gets.get());
+
+            assertEquals(7, service.retrieveDataset(context).getRecords().size());
+            assertEquals(4, ranges.get());
+
+            content[0] = "id,surname\n1,Willmore\n".getBytes(StandardCharsets.UTF_8);
+            etag[0] = "\"v2\"";
+            final Dataset changed = service.retrieveDataset(context);
+            assertEquals(1, changed.getRecords().size());
+            assertEquals(1, gets.get());
+
+            final DataContext copy =
+                    DataContext.init(SourceType.CSV, context.getUrl() + "?copy").build();
+            copy.getProperties().putAll(context.getProperties());
+            copy.getProperties()
+                    .setProperty(
+                            DataContextProperties.HTTP_CACHE_MAX_SIZE.property(),
+                            String.valueOf(content[0].length + 1));
+            assertEquals(1, service.retrieveDataset(copy).getRecords().size());
+            assertEquals(2, gets.get());
+
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(2, files.count());
+            }
+
+            assertEquals(1, service.retrieveDataset(context).getRecords().size());
+            assertEquals(3, gets.get());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /** Test transparent decompression of compressed file sources. */
+    @Test
+    @Order(29)
+    void compressedCsvSource(@TempDir final Path directory) throws Exception {
+        final byte[] content = Files.readAllBytes(Path.of("src/test/resources/data/insured.csv"));
+        final int split = new String(content, StandardCharsets.UTF_8).indexOf("\n", 100) + 1;
+
+        try (OutputStream out =
+                new GZIPOutputStream(Files.newOutputStream(directory.resolve("insured.csv.gz")))) {
+            out.write(content);
+        }
+
+        try (OutputStream out = Files.newOutputStream(directory.resolve("members.csv.gz"))) {
+            for (final int[] member : new int[][] {{0, split}, {split, content.length}}) {
+                final GZIPOutputStream gzip = new GZIPOutputStream(out);
+                gzip.write(content, member[0], member[1] - member[0]);
+                gzip.finish();
+            }
+        }
+
+        try (OutputStream out =
+                new BZip2CompressorOutputStream(
+                        Files.newOutputStream(directory.resolve("insured.csv.bz2")))) {
+            out.write(content);
+        }
+
+        try (OutputStream out =
+                new ZstdCompressorOutputStream(
+                        Files.newOutputStream(directory.resolve("insured.csv.zst")))) {
+            out.write(content);
+        }
+
+        Files.copy(directory.resolve("insured.csv.gz"), directory.resolve("insured.data"));
+
+        assertEquals(Compression.GZIP, Compression.detect(directory.resolve("insured.data")));
+        assertEquals(Compression.ZSTD, Compression.findByName("feed.json.zst"));
+        assertEquals(Compression.NONE, Compression.findByName("insured.csv"));
+
+        final SourceService service = sourceServiceFactory.locate(SourceType.CSV);
+
+        for (final String name :
+                new String[] {
+                    "insured.csv.gz",
+                    "members.csv.gz",
+                    "insured.csv.bz2",
+                    "insured.csv.zst",
+                    "insured.data"
+                }) {
+            final DataContext context =
+                    DataContext.init(SourceType.CSV, directory.resolve(name).toUri().toString())
+                            .build();
+            context.getProperties().setProperty(DataContextProperties.PARALLEL.property(), "true");
+            final Dataset data = service.retrieveDataset(context);
+
+            assertEquals(7, data.getRecords().size(), name);
+            assertEquals("Willmore", data.getRecords().get(3).get("surname"), name);
+        }
+    }
+
+    @Test
+    @Order(30)
+    void spillingDataset(@TempDir final Path directory) throws Exception {
+        final DatasetSchema schema = DatasetSchema.of("id", "name", "amount", "created", "flag");
+        final List<DatasetRecord> expected = new ArrayList<>();
+
+        try (SpillingDataset dataset = new SpillingDataset(4096, directory)) {
+            for (int id = 0; id < 1000; id++) {
+                final DatasetRecord record =
+                        new DatasetRecord(
+                                schema,
+                                new Object[] {
+                                    (long) id,
+                                    id % 7 == 0 ? null : "name-" + id,
+                                    BigDecimal.valueOf(id, 2),
+                                    new java.sql.Timestamp(1_700_000_000_000L + id),
+                                    id % 2 == 0
+                                });
+                expected.add(record);
+                dataset.addRecord(record);
+            }
+
+            assertTrue(dataset.getSegmentCount() > 1);
+            assertTrue(dataset.getSpilledCount() > 0);
+            assertEquals(dataset.getSegmentCount(), Files.list(directory).count());
+            assertEquals(1000, dataset.getRecords().size());
+            assertEquals(expected, new ArrayList<>(dataset.getRecords()));
+            assertEquals(expected.get(999), dataset.getRecords().get(999));
+            assertEquals(expected.get(3), dataset.getRecords().get(3));
+            assertEquals(expected.get(500), dataset.getRecords().get(500));
+            assertNull(dataset.getRecords().get(7).get("name"));
+
+            dataset.close();
+            assertEquals(0, Files.list(directory).count());
+            assertEquals(0, dataset.getRecords().size());
+        }
+
+        final DataContext context =
+                DataContext.init(SourceType.CSV, "file:src/test/resources/data/insured.csv")
+                        .build();
+        context.getProperties().setProperty(DataContextProperties.MEMORY_BUDGET.property(), "1k");
+        context.getProperties()
+                .setProperty(
+                        DataContextProperties.SPILL_DIRECTORY.property(), directory.toString());
+        assertEquals(1024, context.getSizeProperty(DataContextProperties.MEMORY_BUDGET, 0));
+
+        final Dataset data = sourceServiceFactory.locate(SourceType.CSV).retrieveDataset(context);
+
+        try (SpillingDataset spilled = (SpillingDataset) data) {
+            assertTrue(spilled.getSegmentCount() > 0);
+            assertEquals(7, data.getRecords().size());
+            assertEquals("Willmore", data.getRecords().get(3).get("surname"));
+            assertEquals(7, data.getRecords().stream().map(r -> r.get("id")).distinct().count());
+        }
+
+        assertEquals(0, Files.list(directory).count());
+
+        final Path source = directory.resolve("failing.ndjson");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(source)) {
+            for (int id = 0; id < 100; id++) {
+                writer.write("{\"id\":" + id + ",\"name\":\"name " + id + "\"}\n");
+            }
+
+            writer.write("{\"id\":\n");
+        }
+
+        final Path spill = directory.resolve("spill");
+        final DataContext failing =
+                DataContext.init(SourceType.NDJSON, source.toUri().toString()).build();
+        failing.getProperties().setProperty(DataContextProperties.MEMORY_BUDGET.property(), "1k");
+        failing.getProperties()
+                .setProperty(DataContextProperties.SPILL_DIRECTORY.property(), spill.toString());
+
+        assertThrows(
+                ConduitException.class,
+                () -> sourceServiceFactory.locate(SourceType.NDJSON).retrieveDataset(failing));
+        assertTrue(Files.isDirectory(spill));
+        assertEquals(0, Files.list(spill).count());
+    }
+
+    /** Test concurrent calls with different contexts on the shared source services. */
+    @Test
+    @Order(31)
+    void concurrentSourceServices(@TempDir final Path directory) throws Exception {
+        final Path semicolons = directory.resolve("insured.txt");
+        Files.write(
+                semicolons,
+                Files.readAllLines(Path.of("src/test/resources/data/insured.csv")).stream()
+                        .skip(1)
+                        .map(line -> line.replace(',', ';'))
+                        .collect(Collectors.toList()));
+
+        final int tasks = 64;
+        final ExecutorService executor = Executors.newFixedThreadPool(16);
+        final CyclicBarrier barrier = new CyclicBarrier(16);
+        final List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int task = 0; task < tasks; task++) {
+                final int id = task;
+
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    barrier.await();
+                                    runConcurrentSource(id, semicolons);
+                                    return null;
+                                }));
+            }
+
+            for (final Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Retrieve one of the sources of the concurrent source services test, checking the result
+     * matches the task's context.
+     *
+     * @param id
+     * @param semicolons
+     * @throws Exception
+     */
+    private void runConcurrentSource(final int id, final Path semicolons) throws Exception {
+        switch (id % 5) {
+            case 0:
+                final DataContext header =
+                        DataContext.init(SourceType.CSV, "file:src/test/resources/data/insured.csv")
+                                .build();
+                final Dataset headerData =
+                        sourceServiceFactory.locate(SourceType.CSV).retrieveDataset(header);
+                assertEquals(7, headerData.getRecords().size());
+                assertEquals("Willmore", headerData.getRecords().get(3).get("surname"));
+                break;
+            case 1:
+                final DataContext columns =
+                        DataContext.init(SourceType.CSV, semicolons.toUri().toString()).build();
+                columns.getProperties()
+                        .setProperty(DataContextProperties.DELIMITER.property(), ";");
+                columns.getProperties()
+                        .setProperty(
+                                DataContextProperties.COLUMNS.property(),
+                                "key,first,middle,last,sfx");
+                final List<Map<String, Object>> columnsData =
+                        sourceServiceFactory.locate(SourceType.CSV).retrieve(columns);
+                assertEquals(7, columnsData.size());
+                assertEquals("Willmore", columnsData.get(3).get("last"));
+                break;
+            case 2:
+                final DataContext json =
+                        DataContext.init(
+                                        SourceType.JSON,
+                                        "file:src/test/resources/data/insured.json")
+                                .build();
+                assertEquals(7, sourceServiceFactory.locate(SourceType.JSON).retrieve(json).size());
+                break;
+            case 3:
+                final DataContext ndjson =
+                        DataContext.init(
+                                        SourceType.NDJSON,
+                                        "file:src/test/resources/data/insured.ndjson")
+                                .build();
+                assertEquals(
+                        7, sourceServiceFactory.locate(SourceType.NDJSON).retrieve(ndjson).size());
+                break;
+            default:
+                final DataContext jdbc = hsqldbContext(null);
+                jdbc.setQuery("select * from partitioned where id <= " + id);
+                assertEquals(
+                        id, sourceServiceFactory.locate(SourceType.JDBC).retrieve(jdbc).size());
+                break;
+        }
+    }
+
+    /** Test keyed upserts through the SQL dialects. */
+    @Test
+    @Order(32)
+    void upsertHsqldbTarget() throws Exception {
+        try (Connection connection = DriverManager.getConnection(HSQLDB_URL, "sa", "");
+                Statement statement = connection.createStatement()) {
+            statement.execute(
+                    "create table insured_upsert (id int primary key, givenName varchar(50),"
+                            + " middleName varchar(50), surname varchar(50), suffix varchar(10))");
+        }
+
+        final List<DatasetColumnDefinition> columns =
+                List.of(
+                        new DatasetColumnDefinition("id", Integer.class, 1),
+                        new DatasetColumnDefinition("name", String.class, 2));
+        assertEquals(
+                "insert into foo (id, name) values (?, ?), (?, ?) on conflict (id) do update set"
+                        + " name = excluded.name",
+                SqlDialect.POSTGRESQL.upsertStatement("foo", columns, List.of("id"), 2));
+        assertEquals(
+                "merge into foo using (values (?, ?)) as conduit_source (id, name) on foo.id ="
+                        + " conduit_source.id when matched then update set name ="
+                        + " conduit_source.name when not matched then insert (id, name) values"
+                        + " (conduit_source.id, conduit_source.name)",
+                SqlDialect.HSQLDB.upsertStatement("foo", columns, List.of("id"), 1));
+        assertTrue(
+                SqlDialect.MYSQL.upsertStatement("foo", columns, List.of("id"), 1)
+                        == SqlDialect.MYSQL.upsertStatement("foo", columns, List.of("id"), 1));
+        assertEquals(SqlDialect.HSQLDB, SqlDialect.findByProductName("HSQL Database Engine"));
+        assertEquals(SqlDialect.STANDARD, SqlDialect.findByProductName("Oracle"));
+        assertEquals(1, SqlDialect.STANDARD.rowsPerStatement(5, 1000));
+        assertEquals(400, SqlDialect.HSQLDB.rowsPerStatement(5, 1000));
+
+        final DataContext sourceContext =
+                DataContext.init(SourceType.JSON, "file:src/test/resources/data/insured.json")
+                        .build();
+        final Dataset data =
+                sourceServiceFactory.locate(SourceType.JSON).retrieveDataset(sourceContext);
+        final Dataset changed = new Dataset();
+        data.getColumnDefinitions().forEach(changed::addColumnDefinition);
+        data.getRecords().forEach(changed::addRecord);
+        changed.addRecord(
+                new DatasetRecord(changed.getSchema(), new Object[] {3, "A", "B", "First", ""}));
+        changed.addRecord(
+                new DatasetRecord(changed.getSchema(), new Object[] {3, "A", "B", "Last", ""}));
+        changed.addRecord(
+                new DatasetRecord(changed.getSchema(), new Object[] {8, "C", "D", "New", ""}));
+
+        for (final String multiRowValues : new String[] {"false", "true"}) {
+            final DataContext targetContext = hsqldbContext("insured_upsert");
+            targetContext
+                    .getProperties()
+                    .setProperty(DataContextProperties.KEY_COLUMNS.property(), "id");
+            targetContext
+                    .getProperties()
+                    .setProperty(DataContextProperties.BATCH_SIZE.property(), "4");
+            targetContext
+                    .getProperties()
+                    .setProperty(DataContextProperties.MULTI_ROW_VALUES.property(), multiRowValues);
+
+            sourceServiceFactory.locate(SourceType.JDBC).insertDataset(targetContext, data);
+            sourceServiceFactory.locate(SourceType.JDBC).insertDataset(targetContext, data);
+            sourceServiceFactory.locate(SourceType.JDBC).insertDataset(targetContext, changed);
+
+            final DataContext queryContext = hsqldbContext(null);
+            queryContext.setQuery("select id, surname from insured_upsert order by id");
+            final List<Map<String, Object>> rows =
+                    sourceServiceFactory.locate(SourceType.JDBC).retrieve(queryContext);
+
+            assertEquals(8, rows.size(), multiRowValues);
+            assertEquals("Last", rows.get(2).get("surname"), multiRowValues);
+            assertEquals("New", rows.get(7).get("surname"), multiRowValues);
+
+            try (Connection connection = DriverManager.getConnection(HSQLDB_URL, "sa", "");
+                    Statement statement = connection.createStatement()) {
+                statement.execute("delete from insured_upsert");
+            }
+        }
+    }
+
+    /** Test parallel chunked writes and the reporting and retry of failed chunks. */
+    @Test
+    @Order(33)
+    void parallelWriteHsqldbTarget() throws Exception {
+        try (Connection connection = DriverManager.getConnection(HSQLDB_URL, "sa", "");
+                Statement statement = connection.createStatement()) {
+            statement.execute(
+                    "create table insured_parallel (id int primary key, name varchar(20))");
+        }
+
+        final Dataset data = new Dataset();
+        data.addColumnDefinition(new DatasetColumnDefinition("id", Integer.class, 1));
+        data.addColumnDefinition(new DatasetColumnDefinition("name", String.class, 2));
+
+        for (int id = 0; id < 5000; id++) {
+            data.addRecord(
+                    new DatasetRecord(
+                            data.getSchema(),
+                            new Object[] {id, id == 2345 ? "x".repeat(30) : "name " + id}));
+        }
+
+        final DataContext targetContext = hsqldbContext("insured_parallel");
+        targetContext
+                .getProperties()
+                .setProperty(DataContextProperties.LOAD_MODE.property(), "parallel");
+        targetContext
+                .getProperties()
+                .setProperty(DataContextProperties.PARALLELISM.property(), "4");
+        targetContext
+                .getProperties()
+                .setProperty(DataContextProperties.CHUNK_ROWS.property(), "500");
+        targetContext
+                .getProperties()
+                .setProperty(DataContextProperties.BATCH_SIZE.property(), "100");
+        targetContext
+                .getProperties()
+                .setProperty(DataContextProperties.COMMIT_INTERVAL.property(), "500");
+        targetContext
+                .getProperties()
+                .setProperty(DataContextProperties.EXCLUDED_COLUMNS.property(), "");
+
+        final JdbcWriteException failed =
+                assertThrows(
+                        JdbcWriteException.class,
+                        () ->
+                                sourceServiceFactory
+                                        .locate(SourceType.JDBC)
+                                        .insertDataset(targetContext, data));
+        final JdbcWriteResult result = failed.getResult();
+
+        assertEquals(10, result.getChunks());
+        assertEquals(4500, result.getRowsWritten());
+        assertEquals(1, result.getFailures().size());
+        assertEquals(4, result.getFailures().get(0).getChunk());
+        assertEquals(2000, result.getFailures().get(0).getFirstRecord());
+        assertEquals(500, result.getFailedRecords());
+
+        final DataContext countContext = hsqldbContext(null);
+        countContext.setQuery("select count(*) as total from insured_parallel");
+        assertEquals(
+                4500L,
+                ((Number)
+                                sourceServiceFactory
+                                        .locate(SourceType.JDBC)
+                                        .retrieve(countContext)
+                                        .get(0)
+                                        .get("total"))
+                        .longValue());
+
+        final List<DatasetRecord> retry = result.getFailures().get(0).getRecords();
+        retry.get(345).set("name", "fixed");
+
+        final JdbcWriteResult retried =
+                JdbcParallelWriter.builder()
+                        .writer(
+                                JdbcBatchWriter.builder()
+                                        .dataSource(
+                                                connectorFactory
+                                                        .locate(ConnectorProtocol.JDBC)
+                                                        .connect(targetContext)
+                                                        .getDataSource())
+                                        .table("insured_parallel")
+                                        .columnDefinitions(data.getColumnDefinitions())
+                                        .build())
+                        .chunkSize(100)
+                        .build()
+                        .write(retry);
+
+        assertTrue(retried.isSuccessful());
+        assertEquals(500, retried.getRowsWritten());
+        assertEquals(
+                5000L,
+                ((Number)
+                                sourceServiceFactory
+                                        .locate(SourceType.JDBC)
+                                        .retrieve(countContext)
+                                        .get(0)
+                                        .get("total"))
+                        .longValue());
+    }
+
+    /** Test checkpointed loads resuming by record offset and by key after a failed batch. */
+    @Test
+    @Order(34)
+    void checkpointedLoad(@TempDir Path directory) throws Exception {
+        try (Connection connection = DriverManager.getConnection(HSQLDB_URL, "sa", "");
+                Statement statement = connection.createStatement()) {
+            statement.execute(
+                    "create table insured_checkpoint (id int primary key, name varchar(20))");
+            statement.execute(
+                    "create table insured_checkpoint_copy (id int primary key, name varchar(20))");
+        }
+
+        final StringBuilder csv = new StringBuilder("id,name\n");
+
+        for (int id = 0; id < 1000; id++) {
+            csv.append(id).append(id == 50 ? ",\"name\n50\"\n" : ",name " + id + "\n");
+        }
+
+        final Path file = directory.resolve("checkpoint.csv");
+        Files.writeString(file, csv);
+        final long header = "id,name\n".length();
+        assertEquals(
+                header + "0,name 0\n1,name 1\n2,name 2\n".length(),
+                FileSplitter.skipRecords(file, header, 3, '"'));
+        assertEquals(csv.indexOf("\n51,") + 1, FileSplitter.skipRecords(file, header, 51, '"'));
+        assertEquals(csv.length(), FileSplitter.skipRecords(file, header, 5000, '"'));
+
+        final DataContext csvContext =
+                DataContext.init(SourceType.CSV, file.toUri().toString()).build();
+        csvContext.getProperties().setProperty(DataContextProperties.TYPED.property(), "true");
+        csvContext.getProperties().setProperty(DataContextProperties.JOB_ID.property(), "csv load");
+        csvContext
+                .getProperties()
+                .setProperty(DataContextProperties.CHECKPOINT_INTERVAL.property(), "100");
+        final SourceService csvService = sourceServiceFactory.locate(SourceType.CSV);
+        final FileStateStore stateStore = new FileStateStore(directory.resolve("state.properties"));
+        final DataContext csvTarget = hsqldbContext("insured_checkpoint");
+        csvTarget.getProperties().setProperty(DataContextProperties.KEY_COLUMNS.property(), "id");
+        final RecordSink csvSink =
+                RecordSink.of(sourceServiceFactory.locate(SourceType.JDBC), csvTarget);
+        final AtomicInteger batches = new AtomicInteger();
+
+        assertThrows(
+                ConduitException.class,
+                () ->
+                        new CheckpointedLoad(
+                                        stateStore,
+                                        csvService,
+                                        csvContext,
+                                        records -> {
+                                            if (batches.incrementAndGet() > 3) {
+                                                throw new IllegalStateException("target down");
+                                            }
+
+                                            csvSink.write(records);
+                                        })
+                                .run());
+        assertEquals("300", stateStore.get("csv load"));
+        assertEquals(3, csvService.retrieve(skipContext(csvContext, 997)).size());
+        assertEquals(
+                "name 997", csvService.retrieve(skipContext(csvContext, 997)).get(0).get("name"));
+        assertEquals(
+                "name\n50", csvService.retrieve(skipContext(csvContext, 50)).get(0).get("name"));
+
+        final Path blankCsv = directory.resolve("blank.csv");
+        Files.writeString(blankCsv, "id,name\n1,a\n\n2,b\n  \n3,c\n4,d\n");
+        final DataContext blankCsvContext =
+                DataContext.init(SourceType.CSV, blankCsv.toUri().toString()).build();
+        final List<Map<String, Object>> blankCsvRecords = csvService.retrieve(blankCsvContext);
+
+        for (int skip = 1; skip <= blankCsvRecords.size(); skip++) {
+            assertEquals(
+                    blankCsvRecords.subList(skip, blankCsvRecords.size()),
+                    csvService.retrieve(skipContext(blankCsvContext, skip)));
+        }
+
+        final Path blankNdjson = directory.resolve("blank.ndjson");
+        Files.writeString(
+                blankNdjson, "{\"id\":1}\n\n{\"id\":2}\n \t\r\n{\"id\":3}\n\n{\"id\":4}\n");
+        final DataContext ndjsonContext =
+                DataContext.init(SourceType.NDJSON, blankNdjson.toUri().toString()).build();
+        ndjsonContext
+                .getProperties()
+                .setProperty(DataContextProperties.CHECKPOINT_INTERVAL.property(), "2");
+        final SourceService ndjsonService = sourceServiceFactory.locate(SourceType.NDJSON);
+        assertEquals(3, ndjsonService.retrieve(skipContext(ndjsonContext, 2)).get(0).get("id"));
+
+        final List<Object> ndjsonIds = new ArrayList<>();
+        batches.set(0);
+        assertThrows(
+                ConduitException.class,
+                () ->
+                        new CheckpointedLoad(
+                                        stateStore,
+                                        ndjsonService,
+                                        ndjsonContext,
+                                        records -> {
+                                            if (batches.incrementAndGet() > 1) {
+                                                throw new IllegalStateException("target down");
+                                            }
+
+                                            records.forEach(r -> ndjsonIds.add(r.get("id")));
+                                        })
+                                .run());
+        new CheckpointedLoad(
+                        stateStore,
+                        ndjsonService,
+                        ndjsonContext,
+                        records -> records.forEach(r -> ndjsonIds.add(r.get("id"))))
+                .run();
+        assertEquals(List.of(1, 2, 3, 4), ndjsonIds);
+
+        final PipelineResult resumed =
+                new CheckpointedLoad(stateStore, csvService, csvContext, csvSink).run();
+
+        assertEquals(700, resumed.getRecordsRead());
+        assertEquals(700, resumed.getRecordsWritten());
+        assertEquals(7, resumed.getBatchesWritten());
+        assertEquals("", stateStore.get("csv load"));
+        assertEquals(1000L, countRows("insured_checkpoint"));
+
+        final DataContext jdbcContext = hsqldbContext(null);
+        jdbcContext.setQuery("select id, name from insured_checkpoint");
+        jdbcContext
+                .getProperties()
+                .setProperty(DataContextProperties.CHECKPOINT_COLUMN.property(), "id");
+        jdbcContext
+                .getProperties()
+                .setProperty(DataContextProperties.CHECKPOINT_INTERVAL.property(), "250");
+        final SourceService jdbcService = sourceServiceFactory.locate(SourceType.JDBC);
+        final DataContext jdbcTarget = hsqldbContext("insured_checkpoint_copy");
+        jdbcTarget.getProperties().setProperty(DataContextProperties.KEY_COLUMNS.property(), "id");
+        final RecordSink jdbcSink = RecordSink.of(jdbcService, jdbcTarget);
+        batches.set(0);
+
+        assertThrows(
+                ConduitException.class,
+                () ->
+                        new CheckpointedLoad(
+                                        stateStore,
+                                        jdbcService,
+                                        jdbcContext,
+                                        records -> {
+                                            if (batches.incrementAndGet() > 2) {
+                                                throw new IllegalStateException("target down");
+                                            }
+
+                                            jdbcSink.write(records);
+                                        })
+                                .run());
+
+        final CheckpointedLoad jdbcLoad =
+                new CheckpointedLoad(stateStore, jdbcService, jdbcContext, jdbcSink);
+        assertEquals("500 499", jdbcLoad.checkpoint().format());
+
+        final PipelineResult keyed = jdbcLoad.run();
+
+        assertEquals(501, keyed.getRecordsRead());
+        assertEquals(501, keyed.getRecordsWritten());
+        assertEquals(Checkpoint.NONE, jdbcLoad.checkpoint());
+        assertEquals(1000L, countRows("insured_checkpoint_copy"));
+        assertTrue(jdbcContext.getProperty(DataContextProperties.CHECKPOINT_VALUE).isBlank());
+        assertTrue(csvContext.getProperty(DataContextProperties.SKIP_RECORDS).isBlank());
+
+        final DataContext longContext = hsqldbContext(null);
+        longContext.setQuery(
+                "select id, name from insured_checkpoint where name <> '" + "x".repeat(300) + "'");
+        final JdbcStateStore jdbcStore =
+                new JdbcStateStore(
+                        connectorFactory
+                                .locate(ConnectorProtocol.JDBC)
+                                .connect(hsqldbContext(null))
+                                .getDataSource());
+        assertEquals(
+                1000,
+                new CheckpointedLoad(jdbcStore, jdbcService, longContext, records -> {})
+                        .run()
+                        .getRecordsWritten());
+    }
+
+    /**
+     * Copy of the given context skipping the given number of records.
+     *
+     * @param context
+     * @param count
+     * @return
+     */
+    private DataContext skipContext(final DataContext context, final long count) {
+        final DataContext result = context.copy();
+        result.getProperties()
+                .setProperty(DataContextProperties.SKIP_RECORDS.property(), Long.toString(count));
+        return result;
+    }
+
+    /**
+     * Number of rows in the given HSQLDB table.
+     *
+     * @param table
+     * @return
+     * @throws Exception
+     */
+    private long countRows(final String table) throws Exception {
+        final DataContext context = hsqldbContext(null);
+        context.setQuery("select count(*) as total from " + table);
+        return ((Number)
+                        sourceServiceFactory
+                                .locate(SourceType.JDBC)
+                                .retrieve(context)
+                                .get(0)
+                                .get("total"))
+                .longValue();
+    }
+
+    /** Test columnar vectors typed by their first non null value and widened in place. */
+    @Test
+    @Order(35)
+    void columnarVectorWidening(@TempDir final Path directory) throws Exception {
+        final DatasetSchema schema = DatasetSchema.of("a", "b", "c", "d");
+        final ColumnarDataset dataset = new ColumnarDataset();
+        dataset.addRecord(new DatasetRecord(schema, new Object[] {null, 1, 1, 1}));
+        dataset.addRecord(new DatasetRecord(schema, new Object[] {5, 3000000000L, 2.5, "x"}));
+        dataset.addRecord(new DatasetRecord(schema, new Object[] {6, 2, 3, null}));
+
+        assertTrue(dataset.getVector("a") instanceof IntColumnVector);
+        assertNull(dataset.getRecords().get(0).get("a"));
+        assertEquals(6, dataset.getRecords().get(2).get("a"));
+        assertTrue(dataset.getVector("b") instanceof LongColumnVector);
+        assertEquals(1L, dataset.getRecords().get(0).get("b"));
+        assertEquals(3000000000L, ((LongColumnVector) dataset.getVector("b")).getLong(1));
+        assertTrue(dataset.getVector("c") instanceof DoubleColumnVector);
+        assertEquals(3.0, ((DoubleColumnVector) dataset.getVector("c")).getDouble(2));
+        assertTrue(dataset.getVector("d") instanceof ObjectColumnVector);
+        assertEquals(1, dataset.getRecords().get(0).get("d"));
+
+        dataset.replaceColumnDefinition(new DatasetColumnDefinition("a", Long.class, 1));
+        assertTrue(dataset.getVector("a") instanceof LongColumnVector);
+        assertEquals(5L, dataset.getRecords().get(1).get("a"));
+        assertEquals(Long.class, dataset.getColumnDefinitions().get(0).getDatatypeClass());
+
+        final Path file = directory.resolve("widen.json");
+        Files.writeString(
+                file,
+                "[{\"a\": null, \"b\": 1}, {\"a\": 2, \"b\": 3000000000},"
+                        + " {\"a\": 3, \"b\": 4}]");
+        final DataContext context =
+                DataContext.init(SourceType.JSON, file.toUri().toString()).build();
+        context.getProperties().setProperty(DataContextProperties.COLUMNAR.property(), "true");
+        final ColumnarDataset retrieved =
+                (ColumnarDataset)
+                        sourceServiceFactory.locate(SourceType.JSON).retrieveDataset(context);
+
+        assertTrue(retrieved.getVector("a") instanceof IntColumnVector);
+        assertTrue(retrieved.getVector("b") instanceof LongColumnVector);
+        assertEquals(Long.class, retrieved.getColumnDefinitions().get(1).getDatatypeClass());
+        assertEquals(1L, retrieved.getRecords().get(0).get("b"));
+    }
+
+    @Test
+    @Order(36)
+    void datasetRecordSchema() {
+        final DatasetSchema schema = DatasetSchema.of("a", "b");
+        final DatasetRecord first = new DatasetRecord(schema, new Object[] {1, "x"});
+        final DatasetRecord second = new DatasetRecord(schema);
+        second.set("a", 2);
+        second.set(1, "y");
+
+        assertTrue(first.getSchema() == second.getSchema());
+        assertEquals(2, second.get(0));
+        assertEquals("y", second.get("b"));
+        assertEquals("x", first.get("b"));
+
+        assertEquals(-1, schema.indexOf("c"));
+        assertTrue(!schema.contains("c"));
+        assertThrows(IllegalArgumentException.class, () -> first.get("c"));
+        assertThrows(IllegalArgumentException.class, () -> first.set("c", 3));
+        assertThrows(
+                IllegalArgumentException.class, () -> new DatasetRecord(schema, new Object[1]));
+        assertThrows(IllegalArgumentException.class, () -> DatasetSchema.of("a", "a"));
+
+        final List<DatasetRecordColumn> columns = first.getColumns();
+        assertEquals(2, columns.size());
+        assertEquals("b", columns.get(1).getName());
+        assertEquals("x", columns.get(1).getValue());
+        assertThrows(
+                UnsupportedOperationException.class,
+                () -> columns.add(new DatasetRecordColumn("c", 3)));
+        assertThrows(UnsupportedOperationException.class, () -> columns.remove(0));
+        assertThrows(UnsupportedOperationException.class, () -> schema.names().add("c"));
+
+        first.addColumn(new DatasetRecordColumn("c", 3));
+        assertEquals(3, first.get("c"));
+        assertEquals(2, first.getSchema().indexOf("c"));
+        assertEquals(-1, schema.indexOf("c"));
+        assertTrue(second.getSchema() == schema);
+        assertEquals(3, columns.size());
+    }
+
+    @Test
+    @Order(37)
+    void connectionPoolLifecycle() throws Exception {
+        final JdbcConnectionPoolRegistry registry = new JdbcConnectionPoolRegistry(meterRegistry);
+
+        try {
+            final DataContext context = hsqldbContext(null);
+            context.getProperties()
+                    .setProperty(DataContextProperties.POOL_IDLE_TIMEOUT.property(), "50");
+            final DataSource dataSource = registry.getDataSource(context);
+            final HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+            final String name = pool.getPoolName();
+
+            try (Connection connection = dataSource.getConnection()) {
+                Thread.sleep(100);
+                registry.evictIdlePools();
+                assertFalse(pool.isClosed());
+                assertEquals(
+                        1.0,
+                        meterRegistry
+                                .get("hikaricp.connections.active")
+                                .tag("pool", name)
+                                .gauge()
+                                .value());
+            }
+
+            Thread.sleep(100);
+            assertTrue(registry.getDataSource(context) == dataSource);
+            registry.evictIdlePools();
+            assertFalse(pool.isClosed());
+
+            Thread.sleep(100);
+            registry.evictIdlePools();
+            assertTrue(pool.isClosed());
+            assertNull(meterRegistry.find("hikaricp.connections").tag("pool", name).gauge());
+
+            try (Connection connection = dataSource.getConnection()) {
+                assertTrue(connection.isValid(1));
+            }
+
+            final HikariDataSource next = dataSource.unwrap(HikariDataSource.class);
+            assertTrue(next != pool);
+            assertFalse(next.isClosed());
+
+            final JdbcConnectionPoolRegistry never = new JdbcConnectionPoolRegistry(meterRegistry);
+            final DataContext neverContext = hsqldbContext(null);
+            neverContext
+                    .getProperties()
+                    .setProperty(DataContextProperties.POOL_IDLE_TIMEOUT.property(), "0");
+            final HikariDataSource kept =
+                    never.getDataSource(neverContext).unwrap(HikariDataSource.class);
+            Thread.sleep(50);
+            never.evictIdlePools();
+            assertFalse(kept.isClosed());
+            never.destroy();
+            assertTrue(kept.isClosed());
+
+            registry.destroy();
+            assertTrue(next.isClosed());
+        } finally {
+            registry.destroy();
+        }
+    }
+
+    /** Test the JDBC cursor's fetch size, read transaction and connection release. */
+    @Test
+    @Order(38)
+    void jdbcCursor() throws Exception {
+        try (Connection connection = DriverManager.getConnection(HSQLDB_URL, "sa", "");
+                Statement statement = connection.createStatement()) {
+            statement.execute("create table conduit_cursor (id int)");
+            statement.execute("insert into conduit_cursor values (1), (2), (3)");
+        }
+
+        final List<String> calls = new CopyOnWriteArrayList<>();
+        final boolean[] failAutoCommit = {false};
+        final DataSource dataSource =
+                (DataSource)
+                        Proxy.newProxyInstance(
+                                getClass().getClassLoader(),
+                                new Class<?>[] {DataSource.class},
+                                (proxy, method, args) -> {
+                                    if (!"getConnection".equals(method.getName())) {
+                                        throw new UnsupportedOperationException(method.getName());
+                                    }
+
+                                    final Connection target =
+                                            DriverManager.getConnection(HSQLDB_URL, "sa", "");
+                                    return Proxy.newProxyInstance(
+                                            getClass().getClassLoader(),
+                                            new Class<?>[] {Connection.class},
+                                            (c, m, a) -> {
+                                                if (failAutoCommit[0]
+                                                        && "getAutoCommit".equals(m.getName())) {
+                                                    throw new SQLException("getAutoCommit");
+                                                }
+
+                                                if ("commit".equals(m.getName())
+                                                        || "close".equals(m.getName())) {
+                                                    calls.add(m.getName());
+                                                } else if ("setAutoCommit".equals(m.getName())) {
+                                                    calls.add(m.getName() + " " + a[0]);
+                                                }
+
+                                                try {
+                                                    return m.invoke(target, a);
+                                                } catch (final InvocationTargetException e) {
+                                                    throw e.getCause();
+                                                }
+                                            });
+                                });
+
+        final JdbcCursorReader reader = new JdbcCursorReader(dataSource, 2);
+        final List<Object> ids = new ArrayList<>();
+        final long rows =
+                reader.read(
+                        "select id from conduit_cursor where id > ? order by id",
+                        resultSet -> {
+                            assertEquals(2, resultSet.getStatement().getFetchSize());
+                            assertEquals(ResultSet.TYPE_FORWARD_ONLY, resultSet.getType());
+                            assertFalse(resultSet.getStatement().getConnection().getAutoCommit());
+                            ids.add(resultSet.getObject(1));
+                        },
+                        1);
+
+        assertEquals(2, rows);
+        assertEquals(List.of(2, 3), ids);
+        assertEquals(
+                List.of("setAutoCommit false", "commit", "setAutoCommit true", "close"), calls);
+
+        calls.clear();
+
+        try (ResultSetRecordIterator iterator = reader.open("select id from conduit_cursor")) {
+            assertTrue(iterator.hasNext());
+            assertEquals(List.of("setAutoCommit false"), calls);
+        }
+
+        assertEquals(
+                List.of("setAutoCommit false", "commit", "setAutoCommit true", "close"), calls);
+
+        calls.clear();
+        assertThrows(SQLException.class, () -> reader.open("select missing from conduit_cursor"));
+        assertEquals(
+                List.of("setAutoCommit false", "commit", "setAutoCommit true", "close"), calls);
+
+        calls.clear();
+        failAutoCommit[0] = true;
+        assertThrows(SQLException.class, () -> reader.open("select id from conduit_cursor"));
+        assertEquals(List.of("close"), calls);
+    }
 }